@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+import java.util.List;
+import javax.annotation.concurrent.NotThreadSafe;
+import pk.ansi4j.core.api.function.Function;
+
+/**
+ * Pull cursor over text and functions of the parsed text. Unlike {@link Parser} it doesn't return fragments, data of
+ * the current token is read from the cursor, so implementations can reuse their state and create no objects per
+ * token.
+ *
+ * @see ParserFactory#createCursor(CharSequence)
+ * @author Pavel Kastornyy
+ */
+@NotThreadSafe
+public interface AnsiCursor {
+
+    /**
+     * Returns cursor over fragments of the parser. Fragments are created by the parser. Cursor can be reset only if
+     * the parser is a string parser.
+     *
+     * @param parser
+     * @return
+     */
+    static AnsiCursor of(Parser parser) {
+        return new AnsiCursor() {
+
+            private Fragment fragment;
+
+            private ArgumentView arguments;
+
+            @Override
+            public FragmentType next() {
+                this.fragment = parser.parse();
+                if (this.fragment == null) {
+                    this.arguments = null;
+                    return null;
+                }
+                if (this.fragment.getType() == FragmentType.FUNCTION) {
+                    this.arguments = ArgumentView.of(((FunctionFragment) this.fragment).getArguments());
+                } else {
+                    this.arguments = ArgumentView.of(List.of());
+                }
+                return this.fragment.getType();
+            }
+
+            @Override
+            public void reset(CharSequence text) {
+                if (!(parser instanceof StringParser)) {
+                    throw new UnsupportedOperationException("Parser can't be reset");
+                }
+                ((StringParser) parser).reset(text);
+                this.fragment = null;
+                this.arguments = null;
+            }
+
+            @Override
+            public Function getFunction() {
+                this.checkToken();
+                if (this.fragment.getType() == FragmentType.FUNCTION) {
+                    return ((FunctionFragment) this.fragment).getFunction();
+                }
+                return null;
+            }
+
+            @Override
+            public int getStartIndex() {
+                this.checkToken();
+                return this.fragment.getStartIndex();
+            }
+
+            @Override
+            public int getEndIndex() {
+                this.checkToken();
+                return this.fragment.getEndIndex();
+            }
+
+            @Override
+            public ArgumentView getArguments() {
+                this.checkToken();
+                return this.arguments;
+            }
+
+            private void checkToken() {
+                if (this.fragment == null) {
+                    throw new IllegalStateException("No current token");
+                }
+            }
+        };
+    }
+
+    /**
+     * Starts iteration over the new text from the beginning. Internal buffers of the cursor are kept.
+     *
+     * @param text
+     */
+    void reset(CharSequence text);
+
+    /**
+     * Moves cursor to the next token.
+     *
+     * @return type of the token or null if there are no more tokens.
+     */
+    FragmentType next();
+
+    /**
+     * Returns function of the current token or null if the token is text.
+     *
+     * @return
+     */
+    Function getFunction();
+
+    /**
+     * Returns start index of the current token in the whole text, inclusive.
+     *
+     * @return
+     */
+    int getStartIndex();
+
+    /**
+     * Returns end index of the current token in the whole text, exclusive.
+     *
+     * @return
+     */
+    int getEndIndex();
+
+    /**
+     * Returns arguments of the current token, that are empty for text. View can be used only till the next call of
+     * {@link #next()}.
+     *
+     * @return
+     */
+    ArgumentView getArguments();
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+import java.util.List;
+import javax.annotation.concurrent.NotThreadSafe;
+import pk.ansi4j.core.api.function.FunctionArgument;
+
+/**
+ * Arguments of function that can be read without creating argument objects. View is reused by parser, so it can be
+ * used only while the visitor method is executed.
+ *
+ * @author Pavel Kastornyy
+ */
+@NotThreadSafe
+public interface ArgumentView {
+
+    /**
+     * Returns view for the list of arguments.
+     *
+     * @param arguments
+     * @return
+     */
+    static ArgumentView of(List<FunctionArgument> arguments) {
+        return new ArgumentView() {
+
+            @Override
+            public int getCount() {
+                return arguments.size();
+            }
+
+            @Override
+            public boolean isDefault(int index) {
+                return arguments.get(index).isDefault();
+            }
+
+            @Override
+            public boolean isNumber(int index) {
+                return arguments.get(index).getValue() instanceof Integer;
+            }
+
+            @Override
+            public int getInt(int index) {
+                var value = arguments.get(index).getValue();
+                if (!(value instanceof Integer)) {
+                    throw new IllegalStateException("Argument " + index + " is not a number: " + value);
+                }
+                return (Integer) value;
+            }
+
+            @Override
+            public Object getValue(int index) {
+                return arguments.get(index).getValue();
+            }
+        };
+    }
+
+    /**
+     * Returns number of arguments.
+     *
+     * @return
+     */
+    int getCount();
+
+    /**
+     * Returns true if function doesn't contain explicit value of the argument.
+     *
+     * @param index
+     * @return
+     */
+    boolean isDefault(int index);
+
+    /**
+     * Returns true if value of the argument is a number.
+     *
+     * @param index
+     * @return
+     */
+    boolean isNumber(int index);
+
+    /**
+     * Returns value of the argument that is a number without creating any objects.
+     *
+     * @param index
+     * @return
+     * @throws IllegalStateException if value is not a number.
+     */
+    int getInt(int index);
+
+    /**
+     * Returns value in the same way as {@link FunctionArgument#getValue()}, so an object can be created.
+     *
+     * @param index
+     * @return
+     */
+    Object getValue(int index);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Finds characters that can start a function: C0 characters (less than 0x20) and in 8-bit environment also C1
+ * characters (from 0x80 to 0x9F). Finder uses scanner to skip text quickly and checks only found characters.
+ *
+ * @author Pavel Kastornyy
+ */
+@ThreadSafe
+public interface ControlCharacterScanner extends Initializable {
+
+    /**
+     * Returns index of the first control character in text between start and end indexes.
+     *
+     * @param text
+     * @param startIndex inclusive.
+     * @param endIndex exclusive.
+     * @return index or -1 if there are no control characters.
+     */
+    int indexOfControlCharacter(CharSequence text, int startIndex, int endIndex);
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import pk.ansi4j.core.api.function.Function;
+
+/**
+ * Visitor that receives control strings (OSC, DCS, APC, PM, SOS) by parts as soon as they are read, so payloads of
+ * any size (for example, images or clipboard data) pass through in constant memory. Payload isn't split into
+ * arguments, it is passed as it is, including separators. Other text and functions are passed as to
+ * {@link FragmentVisitor}.
+ *
+ * @see ParserFactory#createPushParser(java.nio.charset.Charset, ControlStringVisitor)
+ * @author Pavel Kastornyy
+ */
+@NotThreadSafe
+public interface ControlStringVisitor extends FragmentVisitor {
+
+    /**
+     * Is called when opening delimiter of control string is read.
+     *
+     * @param function opening delimiter, for example, OSC.
+     */
+    void onControlStringStart(Function function);
+
+    /**
+     * Is called for the next part of the payload of the current control string. Text is a buffer of the parser that
+     * can be used only during this call.
+     *
+     * @param text
+     * @param startIndex index in text where part starts, inclusive.
+     * @param endIndex index in text where part ends, exclusive.
+     */
+    void onControlStringChunk(CharSequence text, int startIndex, int endIndex);
+
+    /**
+     * Is called when the current control string ends.
+     *
+     * @param terminated true if string terminator was read, false if input ended before it.
+     */
+    void onControlStringEnd(boolean terminated);
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+import java.io.Closeable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * File parser maps a UTF-8 file into memory by windows and parses bytes of the window without decoding and
+ * copying, so heap usage doesn't depend on file size. Fragment indexes are indexes of bytes. They are offsets in the
+ * file while they fit into int, for longer files index offset is added, so the offset of fragment in the file is
+ * {@code getIndexOffset() + fragment.getStartIndex()}. After using parser must be closed.
+ *
+ * @author Pavel Kastornyy
+ */
+@NotThreadSafe
+public interface FileParser extends Parser, Closeable {
+
+    /**
+     * Returns offset in the file of index 0 of the last returned fragment. It is 0 for files that are not longer
+     * than {@link Integer#MAX_VALUE} bytes.
+     *
+     * @return
+     */
+    long getIndexOffset();
+}
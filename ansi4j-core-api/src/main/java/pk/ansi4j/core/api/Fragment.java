@@ -38,6 +38,20 @@ public interface Fragment {
      */
     String getText();
 
+    /**
+     * Text of this fragment as a view over the whole text. Unlike {@link #getText()} this method doesn't copy
+     * characters, so it should be used when fragment is only inspected. The view contains characters from
+     * start index to end index of the whole text. Till {@link #getText()} is called, fragment can keep the text that
+     * contains it (for example, the whole parsed string), so {@link #getText()} should be called for fragments that
+     * are kept longer than the parsed text. Default implementation returns {@link #getText()}, so it is recommended
+     * to override this method.
+     *
+     * @return
+     */
+    default CharSequence getTextView() {
+        return this.getText();
+    }
+
     /**
      * Start index of the fragment text in the whole text, inclusive.
      *
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import pk.ansi4j.core.api.function.Function;
+
+/**
+ * Receives text and functions of the parsed text in order, so fragments are not created. It is convenient for
+ * consumers that don't keep fragments, for example, ones that remove functions or count them.
+ *
+ * @see ParserFactory#parse(CharSequence, FragmentVisitor)
+ * @author Pavel Kastornyy
+ */
+@NotThreadSafe
+public interface FragmentVisitor {
+
+    /**
+     * Is called for text without functions.
+     *
+     * @param text the parsed text.
+     * @param startIndex index in text where text starts, inclusive.
+     * @param endIndex index in text where text ends, exclusive.
+     */
+    void onText(CharSequence text, int startIndex, int endIndex);
+
+    /**
+     * Is called for function.
+     *
+     * @param function
+     * @param startIndex index in the parsed text where function starts, inclusive.
+     * @param endIndex index in the parsed text where function ends, exclusive.
+     * @param arguments arguments that can be used only during this call.
+     */
+    void onFunction(Function function, int startIndex, int endIndex, ArgumentView arguments);
+}
@@ -30,5 +30,10 @@ public enum FunctionFailureReason implements FailureReason {
      * This reason happens when text for parsing is read from stream. Using this reason parser understands
      * if it can parse function or parsing must be repeated when whole function is read from the stream.
      */
-    NO_END_OF_FUNCTION
+    NO_END_OF_FUNCTION,
+
+    /**
+     * Function waits for the rest of the text, but it is already longer than the maximum pending size.
+     */
+    PENDING_OVERFLOW
 }
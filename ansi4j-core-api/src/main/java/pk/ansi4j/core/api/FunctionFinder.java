@@ -33,4 +33,25 @@ public interface FunctionFinder extends Initializable {
      * @return finder result or null if function isn't found.
      */
     Optional<FunctionFinderResult> find(int startIndex, String text);
+
+    /**
+     * Finds function in text between start and end indexes and saves it in the given result, so nothing is created
+     * for every found function. Default implementation calls {@link #find(int, String)}, so it is recommended to
+     * override this method.
+     *
+     * @param text
+     * @param startIndex
+     * @param endIndex index where available text ends, exclusive.
+     * @param result holder where found function is saved.
+     * @return true if function was found, otherwise false.
+     */
+    default boolean find(CharSequence text, int startIndex, int endIndex, MutableFunctionFinderResult result) {
+        var resultOptional = this.find(startIndex, text.subSequence(0, endIndex).toString());
+        if (resultOptional.isEmpty()) {
+            return false;
+        }
+        var r = resultOptional.get();
+        result.set(r.getFunctionIndex(), r.getFunctionType(), r.getFunction());
+        return true;
+    }
 }
@@ -46,4 +46,23 @@ public interface FunctionHandler extends FragmentHandler {
      * @return fragment parser result
      */
     FunctionHandlerResult handle(String text, ControlFunction function, int currentIndex);
+
+    /**
+     * Parses function text in place, so the parser doesn't need to cut a piece of the text for every function.
+     * Default implementation cuts the piece of text and calls {@link #handle(String, ControlFunction, int)}, so it
+     * is recommended to override this method.
+     *
+     * @param text the whole text or a buffer with its piece. The text must not be modified.
+     * @param startIndex index of the function in text (first character is the beginning of the function).
+     * @param endIndex index in text where available characters end, exclusive. Function end is searched before it.
+     * @param function function that must be parsed
+     * @param currentIndex index of the function in the whole text. This parameter is required for calculating start
+     * and end index as they are relative to the whole text.
+     *
+     * @return fragment parser result
+     */
+    default FunctionHandlerResult handle(CharSequence text, int startIndex, int endIndex, ControlFunction function,
+            int currentIndex) {
+        return this.handle(text.subSequence(startIndex, endIndex).toString(), function, currentIndex);
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import pk.ansi4j.core.api.function.FunctionType;
+import pk.ansi4j.core.api.iso6429.ControlFunction;
+
+/**
+ * Reusable holder that function finder fills instead of creating a new result for every found function. Parser
+ * creates one holder and gives it to the finder again and again.
+ *
+ * @author Pavel Kastornyy
+ */
+@NotThreadSafe
+public interface MutableFunctionFinderResult {
+
+    /**
+     * Saves found function.
+     *
+     * @param functionIndex position of function in text.
+     * @param functionType found function type.
+     * @param function found function, see {@link FunctionFinderResult#getFunction()}.
+     */
+    void set(int functionIndex, FunctionType functionType, ControlFunction function);
+
+    /**
+     * Returns position of function in text.
+     *
+     * @return
+     */
+    int getFunctionIndex();
+
+    /**
+     * Returns found function type.
+     *
+     * @return
+     */
+    FunctionType getFunctionType();
+
+    /**
+     * Returns found function, see {@link FunctionFinderResult#getFunction()}.
+     *
+     * @return
+     */
+    ControlFunction getFunction();
+}
@@ -16,8 +16,19 @@
 package pk.ansi4j.core.api;
 
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.concurrent.ThreadSafe;
 import pk.ansi4j.core.api.function.FunctionType;
 
@@ -63,6 +74,56 @@ public interface ParserFactory {
      */
     StringParser createParser(String text);
 
+    /**
+     * Creates NOT thread-safe string parser for any char sequence, for example, for text that is backed by bytes.
+     * The sequence must not be modified while it is being parsed. By default the sequence is copied to a string.
+     *
+     * @param text
+     * @return
+     */
+    default StringParser createParser(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        return this.createParser(text.toString());
+    }
+
+    /**
+     * Creates NOT thread-safe cursor over the text. By default the cursor reads fragments of string parser,
+     * implementations can create no objects per token.
+     *
+     * @param text
+     * @return
+     */
+    default AnsiCursor createCursor(CharSequence text) {
+        return AnsiCursor.of(this.createParser(text));
+    }
+
+    /**
+     * Parses the whole text and passes text and functions to visitor in order, so the caller doesn't keep fragments.
+     * By default fragments are created by string parser and passed to visitor, implementations can do it without
+     * creating fragments. Parsing stops in the same place where string parser stops.
+     *
+     * @param text
+     * @param visitor
+     */
+    default void parse(CharSequence text, FragmentVisitor visitor) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("No visitor provided");
+        }
+        var parser = this.createParser(text);
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            if (fragment.getType() == FragmentType.FUNCTION) {
+                var functionFragment = (FunctionFragment) fragment;
+                visitor.onFunction(functionFragment.getFunction(), fragment.getStartIndex(), fragment.getEndIndex(),
+                        ArgumentView.of(functionFragment.getArguments()));
+            } else {
+                visitor.onText(text, fragment.getStartIndex(), fragment.getEndIndex());
+            }
+        }
+    }
+
     /**
      * Creates NOT thread-safe stream parser that will use thread-safe components.
      *
@@ -71,4 +132,114 @@ public interface ParserFactory {
      * @return
      */
     StreamParser createParser(InputStream stream, Charset encoding, int bufferSize);
+
+    /**
+     * Creates NOT thread-safe stream parser for interactive input. When a function isn't complete (for example,
+     * {@code ESC [}) and the stream has no available bytes during idle timeout, the pending text is parsed as at the
+     * end of input: single ESC is returned as ESC function, a not terminated function is returned as text. If the rest
+     * of such function comes later, it is parsed as text. Stream is polled by available() method.
+     *
+     * @param stream
+     * @param encoding
+     * @param bufferSize
+     * @param idleTimeout
+     * @return
+     */
+    default StreamParser createParser(InputStream stream, Charset encoding, int bufferSize, Duration idleTimeout) {
+        throw new UnsupportedOperationException("Idle timeout is not supported");
+    }
+
+    /**
+     * Creates NOT thread-safe stream parser that reads bytes from the channel. By default the channel is wrapped
+     * into input stream, implementations can read it without intermediate streams and readers. Channel must be
+     * blocking, because a stream parser returns null only at the end of stream.
+     *
+     * @param channel
+     * @param encoding
+     * @param bufferSize size of byte buffer.
+     * @return
+     */
+    default StreamParser createParser(ReadableByteChannel channel, Charset encoding, int bufferSize) {
+        if (channel == null) {
+            throw new IllegalArgumentException("No channel provided");
+        }
+        return this.createParser(Channels.newInputStream(channel), encoding, bufferSize);
+    }
+
+    /**
+     * Creates NOT thread-safe parser of UTF-8 file that is mapped into memory by windows. Parser closes the channel
+     * when it is closed. By default file parsers are not supported.
+     *
+     * @param channel
+     * @param windowSize size of the mapped window in bytes, window is enlarged if a function is longer than it.
+     * @return
+     */
+    default FileParser createFileParser(FileChannel channel, int windowSize) {
+        throw new UnsupportedOperationException("File parsers are not supported");
+    }
+
+    /**
+     * Creates NOT thread-safe push parser that passes fragments to the consumer as chunks are fed. Exceptions of
+     * the consumer are thrown by feeding methods. By default push parsers are not supported.
+     *
+     * @param encoding encoding of byte chunks.
+     * @param consumer
+     * @return
+     */
+    default PushParser createPushParser(Charset encoding, Consumer<Fragment> consumer) {
+        throw new UnsupportedOperationException("Push parsers are not supported");
+    }
+
+    /**
+     * Creates NOT thread-safe push parser that passes text and functions to the visitor as chunks are fed, and
+     * control strings by parts, without keeping their payloads. Exceptions of the visitor are thrown by feeding
+     * methods. By default streaming of control strings is not supported.
+     *
+     * @param encoding encoding of byte chunks.
+     * @param visitor
+     * @return
+     */
+    default PushParser createPushParser(Charset encoding, ControlStringVisitor visitor) {
+        throw new UnsupportedOperationException("Streaming of control strings is not supported");
+    }
+
+    /**
+     * Parses text by chunks in parallel and returns the same fragments as string parser does. All fragments are kept
+     * in memory, so it is useful for large texts when there are many cores. Text must not be modified during parsing.
+     * By default parallel parsing is not supported.
+     *
+     * @param text
+     * @param pool pool that parses chunks.
+     * @param chunkCount number of chunks, chunk ends are moved to ESC or line break near them.
+     * @return
+     */
+    default List<Fragment> parseParallel(CharSequence text, ForkJoinPool pool, int chunkCount) {
+        throw new UnsupportedOperationException("Parallel parsing is not supported");
+    }
+
+    /**
+     * Returns ordered stream of all fragments (text and function ones) that are parsed lazily. Fragments are the same
+     * as of string parser, including the case when parsing is stopped by an error. Text must not be modified while
+     * the stream is used. By default the stream can't be split, so parallel stream parses text in one thread.
+     *
+     * @param text
+     * @return
+     */
+    default Stream<Fragment> stream(CharSequence text) {
+        var parser = this.createParser(text);
+        var spliterator = new Spliterators.AbstractSpliterator<Fragment>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Fragment> action) {
+                var fragment = parser.parse();
+                if (fragment == null) {
+                    return false;
+                }
+                action.accept(fragment);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
 }
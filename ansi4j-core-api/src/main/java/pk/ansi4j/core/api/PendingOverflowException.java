@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+/**
+ * Thrown by stream and push parsers with {@link PendingOverflowPolicy#FAIL} policy when a function that waits for
+ * the rest of the input gets longer than the maximum pending size.
+ *
+ * @author Pavel Kastornyy
+ */
+public class PendingOverflowException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int pendingSize;
+
+    private final int maxPendingSize;
+
+    public PendingOverflowException(int pendingSize, int maxPendingSize) {
+        super("Pending function size " + pendingSize + " exceeds maximum " + maxPendingSize);
+        this.pendingSize = pendingSize;
+        this.maxPendingSize = maxPendingSize;
+    }
+
+    /**
+     * Returns number of characters of the function that were kept.
+     *
+     * @return
+     */
+    public int getPendingSize() {
+        return pendingSize;
+    }
+
+    public int getMaxPendingSize() {
+        return maxPendingSize;
+    }
+}
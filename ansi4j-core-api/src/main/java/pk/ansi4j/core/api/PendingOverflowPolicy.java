@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+/**
+ * Defines what stream and push parsers do when a function that waits for the rest of the input (for example, a
+ * control string without terminator) gets longer than the maximum pending size. Without a limit such function keeps
+ * all the following input in memory till the end of input.
+ *
+ * @author Pavel Kastornyy
+ */
+public enum PendingOverflowPolicy {
+
+    /**
+     * Function can't be parsed, its first character is returned as text and parsing is continued from the next
+     * character, as if the input ended.
+     */
+    PARSE_AS_TEXT,
+
+    /**
+     * Pending characters of the function are skipped, the rest of the function will be parsed as text.
+     */
+    DROP_FUNCTION,
+
+    /**
+     * {@link PendingOverflowException} is thrown by the parser.
+     */
+    FAIL
+}
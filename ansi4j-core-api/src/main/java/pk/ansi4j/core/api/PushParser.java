@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.api;
+
+import java.nio.ByteBuffer;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Push parser is created for one input that is fed by chunks, for example, by an event loop. It never blocks.
+ * Complete fragments are passed to the consumer that is given on creation as soon as they are parsed. Function that
+ * is split between chunks, incomplete byte sequence of the encoding and high surrogate at the end of a chunk are
+ * kept till the next chunk. Fragment indexes are indexes in the whole input.
+ *
+ * @author Pavel Kastornyy
+ */
+@NotThreadSafe
+public interface PushParser {
+
+    /**
+     * Parses the next chunk of text.
+     *
+     * @param chunk
+     */
+    void feed(CharSequence chunk);
+
+    /**
+     * Parses the next chunk of text. Characters are copied, so array can be reused by the caller.
+     *
+     * @param chunk
+     * @param offset
+     * @param length
+     */
+    void feed(char[] chunk, int offset, int length);
+
+    /**
+     * Parses the next chunk of bytes that are decoded using the encoding of the parser. All remaining bytes of
+     * the buffer are read, so buffer can be reused by the caller.
+     *
+     * @param chunk
+     */
+    void feed(ByteBuffer chunk);
+
+    /**
+     * Tells that there will be no more chunks. Kept text is parsed, function that isn't terminated is parsed as
+     * text. After this call parser can't be fed.
+     */
+    void endOfInput();
+
+    /**
+     * Returns index in the whole input of the first character that hasn't been passed to the consumer.
+     *
+     * @return
+     */
+    int getCurrentIndex();
+}
@@ -18,11 +18,21 @@ package pk.ansi4j.core.api;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
- * String parser is very light and can be created for every text line if necessary.
+ * String parser is very light and can be created for every text line if necessary. To create no objects per line
+ * the parser can be reset to a new text.
  * 
  * @author Pavel Kastornyy
  */
 @NotThreadSafe
 public interface StringParser extends Parser {
 
+    /**
+     * Starts parsing of the new text from the beginning. Internal buffers of the parser are kept. Fragments that
+     * have been returned are not changed. By default reset is not supported.
+     *
+     * @param text
+     */
+    default void reset(CharSequence text) {
+        throw new UnsupportedOperationException("Reset is not supported");
+    }
 }
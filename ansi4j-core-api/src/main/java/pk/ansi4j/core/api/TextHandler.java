@@ -35,4 +35,21 @@ public interface TextHandler extends FragmentHandler {
      * @return
      */
     TextHandlerResult handle(String text, int currentIndex);
+
+    /**
+     * Parses text (characters that don't contain functions) in place, so the parser doesn't need to cut a piece
+     * of the text. Default implementation cuts the piece of text and calls {@link #handle(String, int)}, so it is
+     * recommended to override this method.
+     *
+     * @param text the whole text or a buffer with its piece. The text must not be modified.
+     * @param startIndex index in text where text without functions starts, inclusive.
+     * @param endIndex index in text where text without functions ends, exclusive.
+     * @param currentIndex index of the start index in the whole text. This parameter is required for calculating
+     * start and end index as they are relative to the whole text.
+     *
+     * @return
+     */
+    default TextHandlerResult handle(CharSequence text, int startIndex, int endIndex, int currentIndex) {
+        return this.handle(text.subSequence(startIndex, endIndex).toString(), currentIndex);
+    }
 }
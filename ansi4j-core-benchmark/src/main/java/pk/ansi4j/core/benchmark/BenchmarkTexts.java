@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import pk.ansi4j.core.DefaultFunctionFinder;
+import pk.ansi4j.core.DefaultParserFactory;
+import pk.ansi4j.core.DefaultTextHandler;
+import pk.ansi4j.core.StateMachineParserFactory;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.FunctionFinder;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.iso6429.C0ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.C1ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.ControlSequenceHandler;
+import pk.ansi4j.core.iso6429.ControlStringHandler;
+import pk.ansi4j.core.iso6429.IndependentControlFunctionHandler;
+
+/**
+ * Texts and factories that are used in benchmarks.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class BenchmarkTexts {
+
+    /**
+     * A line of CI log with SGR functions, that is about one function per ten characters.
+     */
+    public static final String ESCAPE_HEAVY_LINE = "\u001b[32m2022-03-14\u001b[m \u001b[36m02:32:24.130\u001b[m "
+            + "[\u001b[1mmain\u001b[m] \u001b[33;1m[WARN]\u001b[m "
+            + "\u001b[35mabc.def\u001b[m.\u001b[34m0123\u001b[m.ghi\n";
+
+    /**
+     * A line of log without any functions.
+     */
+    public static final String TEXT_HEAVY_LINE = "2022-03-14 02:32:24.130 [main] [INFO] "
+            + "org.springframework.beans.factory.support.DefaultListableBeanFactory - Creating shared instance "
+            + "of singleton bean 'subjectFactory'\n";
+
+    /**
+     * A line of log without any control characters, even without line feed.
+     */
+    public static final String NO_FUNCTIONS_LINE = TEXT_HEAVY_LINE.replace('\n', ' ');
+
+    /**
+     * Returns line of the corpus by its name: ESCAPE_HEAVY, TEXT_HEAVY or NO_FUNCTIONS.
+     *
+     * @param corpus
+     * @return
+     */
+    public static String getLine(String corpus) {
+        switch (corpus) {
+            case "ESCAPE_HEAVY":
+                return ESCAPE_HEAVY_LINE;
+            case "TEXT_HEAVY":
+                return TEXT_HEAVY_LINE;
+            case "NO_FUNCTIONS":
+                return NO_FUNCTIONS_LINE;
+            default:
+                throw new IllegalArgumentException("Unknown corpus: " + corpus);
+        }
+    }
+
+    /**
+     * Creates text of the given length by repeating the line.
+     *
+     * @param line
+     * @param length
+     * @return
+     */
+    public static String createText(String line, int length) {
+        var builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(line);
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+
+    /**
+     * Creates factory of parsers that use state machine.
+     *
+     * @param environment
+     * @return
+     */
+    public static ParserFactory createStateMachineFactory(Environment environment) {
+        return new StateMachineParserFactory.Builder()
+                .environment(environment)
+                .textHandler(new DefaultTextHandler())
+                .build();
+    }
+
+    /**
+     * Creates factory with all handlers.
+     *
+     * @param environment
+     * @return
+     */
+    public static ParserFactory createFactory(Environment environment) {
+        return createFactory(environment, new DefaultFunctionFinder());
+    }
+
+    /**
+     * Creates factory with all handlers and the given finder.
+     *
+     * @param environment
+     * @param functionFinder
+     * @return
+     */
+    public static ParserFactory createFactory(Environment environment, FunctionFinder functionFinder) {
+        return new DefaultParserFactory.Builder()
+                .environment(environment)
+                .textHandler(new DefaultTextHandler())
+                .functionFinder(functionFinder)
+                .functionHandlers(
+                        new C0ControlFunctionHandler(),
+                        new C1ControlFunctionHandler(),
+                        new ControlSequenceHandler(),
+                        new IndependentControlFunctionHandler(),
+                        new ControlStringHandler())
+                .build();
+    }
+
+    private BenchmarkTexts() {
+        //empty constructor
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.StreamParser;
+
+/**
+ * Measures key-to-render latency of interactive input: bytes of a key are written into a pipe and the time till the
+ * parser returns the fragment of the key is measured. Arrow key is a complete function and is returned at once, Esc key
+ * is a single ESC that can be the start of a function, so it is returned only when idle timeout expires.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar KeyLatencyBenchmark
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class KeyLatencyBenchmark {
+
+    private static final int BUFFER_SIZE = 64;
+
+    @Param({"ARROW", "ESCAPE", "CHARACTER"})
+    private String key;
+
+    @Param({"1", "10"})
+    private int idleTimeout;
+
+    @Param({"DEFAULT", "STATE_MACHINE"})
+    private String engine;
+
+    private byte[] bytes;
+
+    private PipedOutputStream output;
+
+    private StreamParser parser;
+
+    @Setup
+    public void setup() throws IOException {
+        if (key.equals("ARROW")) {
+            this.bytes = "\u001b[A".getBytes(StandardCharsets.UTF_8);
+        } else if (key.equals("ESCAPE")) {
+            this.bytes = "\u001b".getBytes(StandardCharsets.UTF_8);
+        } else {
+            this.bytes = "a".getBytes(StandardCharsets.UTF_8);
+        }
+        ParserFactory factory;
+        if (engine.equals("STATE_MACHINE")) {
+            factory = BenchmarkTexts.createStateMachineFactory(Environment._7_BIT);
+        } else {
+            factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+        }
+        var input = new PipedInputStream();
+        this.output = new PipedOutputStream(input);
+        this.parser = factory.createParser(input, StandardCharsets.UTF_8, BUFFER_SIZE,
+                Duration.ofMillis(idleTimeout));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.output.close();
+        this.parser.close();
+    }
+
+    @Benchmark
+    public Fragment pressKey() throws IOException {
+        //pipe keeps the bytes, so the key is written and parsed by the same thread
+        output.write(bytes);
+        return parser.parse();
+    }
+}
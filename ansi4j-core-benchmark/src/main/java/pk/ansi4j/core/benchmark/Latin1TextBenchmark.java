@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pk.ansi4j.core.DefaultControlCharacterScanner;
+import pk.ansi4j.core.Latin1Text;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+
+/**
+ * Compares looking for control characters and parsing of string and of the same text as Latin-1 bytes, that are
+ * checked by eight bytes at a time.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar Latin1TextBenchmark
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class Latin1TextBenchmark {
+
+    private static final int LENGTH = 1048576;
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY", "NO_FUNCTIONS"})
+    private String corpus;
+
+    @Param({"STRING", "LATIN1"})
+    private String input;
+
+    private CharSequence text;
+
+    private DefaultControlCharacterScanner scanner;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() {
+        var string = BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH);
+        if (input.equals("LATIN1")) {
+            this.text = new Latin1Text(string.getBytes(StandardCharsets.ISO_8859_1));
+        } else {
+            this.text = string;
+        }
+        this.scanner = new DefaultControlCharacterScanner();
+        this.scanner.initialize(Environment._7_BIT);
+        this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        var index = 0;
+        while ((index = scanner.indexOfControlCharacter(text, index, text.length())) != -1) {
+            blackhole.consume(index);
+            index++;
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        var parser = factory.createParser(text);
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            blackhole.consume(fragment);
+        }
+    }
+}
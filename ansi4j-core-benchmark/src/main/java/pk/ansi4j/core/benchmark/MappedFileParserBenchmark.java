@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.Parser;
+import pk.ansi4j.core.api.ParserFactory;
+
+/**
+ * Compares parsing of a file that is read by input stream and parsing of a file that is mapped into memory by
+ * windows.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar MappedFileParserBenchmark -prof gc
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class MappedFileParserBenchmark {
+
+    private static final int LENGTH = 16 * 1048576;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int WINDOW_SIZE = 1048576;
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY"})
+    private String corpus;
+
+    @Param({"DEFAULT", "STATE_MACHINE"})
+    private String engine;
+
+    private Path file;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() throws IOException {
+        this.file = Files.createTempFile("ansi4j", ".log");
+        Files.writeString(file, BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH));
+        if (engine.equals("STATE_MACHINE")) {
+            this.factory = BenchmarkTexts.createStateMachineFactory(Environment._7_BIT);
+        } else {
+            this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public long stream() throws IOException {
+        try (var parser = factory.createParser(Files.newInputStream(file), StandardCharsets.UTF_8, BUFFER_SIZE)) {
+            return parse(parser);
+        }
+    }
+
+    @Benchmark
+    public long mapped() throws IOException {
+        try (var parser = factory.createFileParser(FileChannel.open(file), WINDOW_SIZE)) {
+            return parse(parser);
+        }
+    }
+
+    private static long parse(Parser parser) {
+        long result = 0;
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            result += fragment.getEndIndex() - fragment.getStartIndex();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+
+/**
+ * Compares sequential parsing of a large text with parallel parsing by chunks in the common pool. Both keep all
+ * fragments. Chunk count 1 shows parsing without chunks. Parallel stream doesn't depend on chunk count.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar ParallelParserBenchmark
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class ParallelParserBenchmark {
+
+    private static final int LENGTH = 16 * 1048576;
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY"})
+    private String corpus;
+
+    @Param({"DEFAULT", "STATE_MACHINE"})
+    private String engine;
+
+    @Param({"1", "32"})
+    private int chunkCount;
+
+    private String text;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() {
+        this.text = BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH);
+        if (engine.equals("STATE_MACHINE")) {
+            this.factory = BenchmarkTexts.createStateMachineFactory(Environment._7_BIT);
+        } else {
+            this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+        }
+    }
+
+    @Benchmark
+    public long sequential() {
+        var parser = factory.createParser(text);
+        List<Fragment> fragments = new ArrayList<>();
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            fragments.add(fragment);
+        }
+        return sum(fragments);
+    }
+
+    @Benchmark
+    public long parallel() {
+        return sum(factory.parseParallel(text, ForkJoinPool.commonPool(), chunkCount));
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return factory.stream(text).parallel().mapToLong(f -> f.getEndIndex() - f.getStartIndex()).sum();
+    }
+
+    private static long sum(List<Fragment> fragments) {
+        long result = 0;
+        for (var fragment : fragments) {
+            result += fragment.getEndIndex() - fragment.getStartIndex();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.DefaultControlCharacterScanner;
+import pk.ansi4j.core.DefaultFunctionFinder;
+import pk.ansi4j.core.DefaultParserFactory;
+import pk.ansi4j.core.DefaultTextHandler;
+import pk.ansi4j.core.StateMachineParserFactory;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.iso6429.C0ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.C1ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.ControlSequenceHandler;
+import pk.ansi4j.core.iso6429.ControlStringHandler;
+import pk.ansi4j.core.iso6429.IndependentControlFunctionHandler;
+
+/**
+ * Compares parsing of one log line by a new string parser with and without pre-scan. NO_FUNCTIONS shows the gain,
+ * ESCAPE_HEAVY shows the cost of pre-scan when the line has functions.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar PreScanBenchmark -prof gc
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class PreScanBenchmark {
+
+    @Param({"NO_FUNCTIONS", "ESCAPE_HEAVY"})
+    private String corpus;
+
+    @Param({"DEFAULT", "STATE_MACHINE"})
+    private String engine;
+
+    @Param({"false", "true"})
+    private boolean preScan;
+
+    private String line;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() {
+        this.line = BenchmarkTexts.getLine(corpus);
+        var scanner = preScan ? new DefaultControlCharacterScanner() : null;
+        if (engine.equals("STATE_MACHINE")) {
+            this.factory = new StateMachineParserFactory.Builder()
+                    .environment(Environment._7_BIT)
+                    .textHandler(new DefaultTextHandler())
+                    .preScanner(scanner)
+                    .build();
+        } else {
+            this.factory = new DefaultParserFactory.Builder()
+                    .environment(Environment._7_BIT)
+                    .textHandler(new DefaultTextHandler())
+                    .functionFinder(new DefaultFunctionFinder())
+                    .functionHandlers(
+                            new C0ControlFunctionHandler(),
+                            new C1ControlFunctionHandler(),
+                            new ControlSequenceHandler(),
+                            new IndependentControlFunctionHandler(),
+                            new ControlStringHandler())
+                    .preScanner(scanner)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public int parse() {
+        var parser = factory.createParser(line);
+        var result = 0;
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            result += fragment.getEndIndex() - fragment.getStartIndex();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.Parser;
+import pk.ansi4j.core.api.ParserFactory;
+
+/**
+ * Compares parsing of US-ASCII and ISO-8859-1 bytes when pieces of text are created from bytes directly and when
+ * bytes are decoded by CharsetDecoder. The generic path is used with a charset that has another name, but the decoder
+ * of the same encoding.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar SingleByteDecodingBenchmark
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class SingleByteDecodingBenchmark {
+
+    private static final int LENGTH = 4 * 1048576;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Charset that is decoded by the decoder of another charset.
+     */
+    private static final class GenericCharset extends Charset {
+
+        private final Charset charset;
+
+        GenericCharset(Charset charset) {
+            super("X-GENERIC-" + charset.name(), null);
+            this.charset = charset;
+        }
+
+        @Override
+        public boolean contains(Charset cs) {
+            return charset.contains(cs);
+        }
+
+        @Override
+        public CharsetDecoder newDecoder() {
+            return charset.newDecoder();
+        }
+
+        @Override
+        public CharsetEncoder newEncoder() {
+            return charset.newEncoder();
+        }
+    }
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY"})
+    private String corpus;
+
+    @Param({"US-ASCII", "ISO-8859-1"})
+    private String encoding;
+
+    @Param({"DIRECT", "DECODER"})
+    private String decoding;
+
+    private byte[] bytes;
+
+    private Charset charset;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() {
+        var text = BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH);
+        this.bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        this.charset = Charset.forName(encoding);
+        if (decoding.equals("DECODER")) {
+            this.charset = new GenericCharset(this.charset);
+        }
+        this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+    }
+
+    @Benchmark
+    public long stream() throws IOException {
+        try (var parser = factory.createParser(new ByteArrayInputStream(bytes), charset, BUFFER_SIZE)) {
+            return parse(parser);
+        }
+    }
+
+    @Benchmark
+    public long push() {
+        long[] result = new long[1];
+        var parser = factory.createPushParser(charset,
+                fragment -> result[0] += fragment.getEndIndex() - fragment.getStartIndex());
+        var buffer = ByteBuffer.wrap(bytes);
+        for (var i = 0; i < bytes.length; i += BUFFER_SIZE) {
+            buffer.limit(Math.min(i + BUFFER_SIZE, bytes.length));
+            buffer.position(i);
+            parser.feed(buffer);
+        }
+        parser.endOfInput();
+        return result[0];
+    }
+
+    private static long parse(Parser parser) {
+        long result = 0;
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            result += fragment.getEndIndex() - fragment.getStartIndex();
+        }
+        return result;
+    }
+}
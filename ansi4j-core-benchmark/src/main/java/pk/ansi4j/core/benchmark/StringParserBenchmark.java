@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+
+/**
+ * Measures parsing of one string of different length. As every character must be processed constant number of times
+ * the time divided by the text length must be the same for all lengths - from 1 KB to 100 MB.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar StringParserBenchmark
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StringParserBenchmark {
+
+    @Param({"1024", "10240", "102400", "1048576", "10485760", "104857600"})
+    private int length;
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY"})
+    private String corpus;
+
+    @Param({"DEFAULT", "STATE_MACHINE"})
+    private String engine;
+
+    private String text;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() {
+        var line = corpus.equals("TEXT_HEAVY") ? BenchmarkTexts.TEXT_HEAVY_LINE : BenchmarkTexts.ESCAPE_HEAVY_LINE;
+        this.text = BenchmarkTexts.createText(line, length);
+        if (engine.equals("STATE_MACHINE")) {
+            this.factory = BenchmarkTexts.createStateMachineFactory(Environment._7_BIT);
+        } else {
+            this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        var parser = factory.createParser(text);
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            blackhole.consume(fragment);
+        }
+    }
+}
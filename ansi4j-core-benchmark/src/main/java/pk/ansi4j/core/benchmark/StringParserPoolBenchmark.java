@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.StringParserPool;
+import pk.ansi4j.core.api.AnsiCursor;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.StringParser;
+
+/**
+ * Compares parsing of one log line by a new parser (cursor) and by a parser (cursor) taken from the pool. Run it with
+ * -prof gc to see allocation per line.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar StringParserPoolBenchmark -prof gc
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class StringParserPoolBenchmark {
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY"})
+    private String corpus;
+
+    private String line;
+
+    private ParserFactory factory;
+
+    private StringParserPool pool;
+
+    @Setup
+    public void setup() {
+        this.line = BenchmarkTexts.getLine(corpus);
+        this.factory = BenchmarkTexts.createStateMachineFactory(Environment._7_BIT);
+        this.pool = new StringParserPool(factory);
+    }
+
+    @Benchmark
+    public int newParser() {
+        return parse(factory.createParser(line));
+    }
+
+    @Benchmark
+    public int pooledParser() {
+        return parse(pool.getParser(line));
+    }
+
+    @Benchmark
+    public int newCursor() {
+        return read(factory.createCursor(line));
+    }
+
+    @Benchmark
+    public int pooledCursor() {
+        return read(pool.getCursor(line));
+    }
+
+    private static int parse(StringParser parser) {
+        var result = 0;
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            result += fragment.getEndIndex() - fragment.getStartIndex();
+        }
+        return result;
+    }
+
+    private static int read(AnsiCursor cursor) {
+        var result = 0;
+        FragmentType type = null;
+        while ((type = cursor.next()) != null) {
+            result += cursor.getEndIndex() - cursor.getStartIndex();
+        }
+        return result;
+    }
+}
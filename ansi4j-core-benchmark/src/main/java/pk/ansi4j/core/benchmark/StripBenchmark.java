@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.AnsiStripper;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.ParserFactory;
+
+/**
+ * Compares removing of control functions by parser and by stripper. Copying of the whole text is the baseline.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar StripBenchmark -prof gc
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class StripBenchmark {
+
+    private static final int LENGTH = 1048576;
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY", "NO_FUNCTIONS"})
+    private String corpus;
+
+    private String text;
+
+    private ParserFactory factory;
+
+    private AnsiStripper stripper;
+
+    private StringBuilder builder;
+
+    @Setup
+    public void setup() {
+        this.text = BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH);
+        this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+        this.stripper = new AnsiStripper(factory);
+        this.builder = new StringBuilder(LENGTH);
+    }
+
+    @Benchmark
+    public int copy() {
+        builder.setLength(0);
+        builder.append(text, 0, text.length());
+        return builder.length();
+    }
+
+    @Benchmark
+    public int parse() {
+        builder.setLength(0);
+        var parser = factory.createParser(text);
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            if (fragment.getType() == FragmentType.TEXT) {
+                builder.append(fragment.getText());
+            }
+        }
+        return builder.length();
+    }
+
+    @Benchmark
+    public int strip() {
+        builder.setLength(0);
+        stripper.strip(text, builder);
+        return builder.length();
+    }
+}
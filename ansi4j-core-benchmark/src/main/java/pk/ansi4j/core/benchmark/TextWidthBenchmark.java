@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.TextWidth;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.ParserFactory;
+
+/**
+ * Compares computing of display width of log lines by parsing and measuring text fragments and by {@link TextWidth}
+ * with the default factory, that finds functions by the handlers, and with the state machine factory, that skips them
+ * by the cursor.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar TextWidthBenchmark -prof gc
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class TextWidthBenchmark {
+
+    private static final int LENGTH = 1048576;
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY", "NO_FUNCTIONS"})
+    private String corpus;
+
+    private String[] lines;
+
+    private ParserFactory factory;
+
+    private TextWidth width;
+
+    private TextWidth stateMachineWidth;
+
+    @Setup
+    public void setup() {
+        this.lines = BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH).split("\n");
+        this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+        this.width = new TextWidth(factory);
+        this.stateMachineWidth = new TextWidth(BenchmarkTexts.createStateMachineFactory(Environment._7_BIT));
+    }
+
+    @Benchmark
+    public long parse() {
+        long result = 0;
+        for (var line : lines) {
+            var parser = factory.createParser(line);
+            Fragment fragment = null;
+            while ((fragment = parser.parse()) != null) {
+                if (fragment.getType() == FragmentType.TEXT) {
+                    result += fragment.getText().codePoints().map(TextWidth::getWidth).sum();
+                }
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long width() {
+        long result = 0;
+        for (var line : lines) {
+            result += width.getWidth(line);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long stateMachineWidth() {
+        long result = 0;
+        for (var line : lines) {
+            result += stateMachineWidth.getWidth(line);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pk.ansi4j.core.Utf8Text;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.Parser;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.StreamParser;
+
+/**
+ * Compares parsing of UTF-8 bytes by stream parser, that decodes all bytes, and as {@link Utf8Text}, that decodes
+ * only the text that is requested. In the forward benchmark text isn't requested, only indexes of text fragments
+ * are used.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar Utf8TextBenchmark
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class Utf8TextBenchmark {
+
+    private static final int LENGTH = 1048576;
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY"})
+    private String corpus;
+
+    @Param({"STREAM", "UTF8_TEXT"})
+    private String input;
+
+    private byte[] bytes;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() {
+        this.bytes = BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH)
+                .getBytes(StandardCharsets.UTF_8);
+        this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        var parser = this.createParser();
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            blackhole.consume(fragment.getText());
+        }
+        this.closeParser(parser);
+    }
+
+    @Benchmark
+    public void forward(Blackhole blackhole) throws IOException {
+        var parser = this.createParser();
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            if (fragment.getType() == FragmentType.TEXT) {
+                blackhole.consume(fragment.getStartIndex());
+                blackhole.consume(fragment.getEndIndex());
+            }
+        }
+        this.closeParser(parser);
+    }
+
+    private Parser createParser() {
+        if (input.equals("UTF8_TEXT")) {
+            return factory.createParser(new Utf8Text(bytes));
+        } else {
+            return factory.createParser(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8, 8192);
+        }
+    }
+
+    private void closeParser(Parser parser) throws IOException {
+        if (parser instanceof StreamParser) {
+            ((StreamParser) parser).close();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pk.ansi4j.core.api.ArgumentView;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.FragmentVisitor;
+import pk.ansi4j.core.api.FunctionFragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.function.Function;
+
+/**
+ * Compares a consumer that doesn't keep fragments (it counts text length and sums numeric arguments) using
+ * fragments, visitor and cursor.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar VisitorBenchmark
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class VisitorBenchmark {
+
+    private static final int LENGTH = 1048576;
+
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY"})
+    private String corpus;
+
+    @Param({"DEFAULT", "STATE_MACHINE"})
+    private String engine;
+
+    private String text;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() {
+        this.text = BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH);
+        if (engine.equals("STATE_MACHINE")) {
+            this.factory = BenchmarkTexts.createStateMachineFactory(Environment._7_BIT);
+        } else {
+            this.factory = BenchmarkTexts.createFactory(Environment._7_BIT);
+        }
+    }
+
+    @Benchmark
+    public long fragments() {
+        var parser = factory.createParser(text);
+        long result = 0;
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            if (fragment.getType() == FragmentType.TEXT) {
+                result += fragment.getEndIndex() - fragment.getStartIndex();
+            } else {
+                for (var argument : ((FunctionFragment) fragment).getArguments()) {
+                    if (argument.getValue() instanceof Integer) {
+                        result += (Integer) argument.getValue();
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long visitor() {
+        var visitor = new SummingVisitor();
+        factory.parse(text, visitor);
+        return visitor.result;
+    }
+
+    @Benchmark
+    public long cursor() {
+        var cursor = factory.createCursor(text);
+        long result = 0;
+        FragmentType type = null;
+        while ((type = cursor.next()) != null) {
+            if (type == FragmentType.TEXT) {
+                result += cursor.getEndIndex() - cursor.getStartIndex();
+            } else {
+                var arguments = cursor.getArguments();
+                for (var i = 0; i < arguments.getCount(); i++) {
+                    if (arguments.isNumber(i)) {
+                        result += arguments.getInt(i);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static class SummingVisitor implements FragmentVisitor {
+
+        private long result;
+
+        @Override
+        public void onText(CharSequence text, int startIndex, int endIndex) {
+            result += endIndex - startIndex;
+        }
+
+        @Override
+        public void onFunction(Function function, int startIndex, int endIndex, ArgumentView arguments) {
+            for (var i = 0; i < arguments.getCount(); i++) {
+                if (arguments.isNumber(i)) {
+                    result += arguments.getInt(i);
+                }
+            }
+        }
+    }
+}
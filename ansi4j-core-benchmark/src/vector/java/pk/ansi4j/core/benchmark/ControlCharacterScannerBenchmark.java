@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pk.ansi4j.core.DefaultControlCharacterScanner;
+import pk.ansi4j.core.DefaultFunctionFinder;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.vector.VectorControlCharacterScanner;
+
+/**
+ * Compares scalar and vector scanners of control characters. The first benchmark only looks for all control
+ * characters, the second one parses the text.
+ *
+ * Run: java -jar ansi4j-core-benchmark/target/benchmarks.jar ControlCharacterScannerBenchmark
+ *
+ * @author Pavel Kastornyy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class ControlCharacterScannerBenchmark {
+
+    private static final int LENGTH = 1048576;
+
+    /**
+     * NO_FUNCTIONS is a text without any control characters, even without line feeds.
+     */
+    @Param({"ESCAPE_HEAVY", "TEXT_HEAVY", "NO_FUNCTIONS"})
+    private String corpus;
+
+    @Param({"SCALAR", "VECTOR"})
+    private String scanner;
+
+    private String text;
+
+    private ControlCharacterScanner controlCharacterScanner;
+
+    private ParserFactory factory;
+
+    @Setup
+    public void setup() {
+        this.text = BenchmarkTexts.createText(BenchmarkTexts.getLine(corpus), LENGTH);
+        if (scanner.equals("VECTOR")) {
+            this.controlCharacterScanner = new VectorControlCharacterScanner();
+            this.factory = BenchmarkTexts.createFactory(Environment._7_BIT,
+                    new DefaultFunctionFinder(new VectorControlCharacterScanner()));
+        } else {
+            this.controlCharacterScanner = new DefaultControlCharacterScanner();
+            this.factory = BenchmarkTexts.createFactory(Environment._7_BIT,
+                    new DefaultFunctionFinder(new DefaultControlCharacterScanner()));
+        }
+        this.controlCharacterScanner.initialize(Environment._7_BIT);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        var index = 0;
+        while ((index = controlCharacterScanner.indexOfControlCharacter(text, index, text.length())) != -1) {
+            blackhole.consume(index);
+            index++;
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        var parser = factory.createParser(text);
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            blackhole.consume(fragment);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.io.IOException;
+import java.util.Map;
+import pk.ansi4j.core.api.FunctionFinder;
+import pk.ansi4j.core.api.FunctionHandler;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.function.FunctionType;
+import pk.ansi4j.core.impl.FunctionScanner;
+
+/**
+ * Removes all control functions from text. Functions are found by the function finder and their ends are found by
+ * the function handlers of the factory, so the result is the same as joined text fragments of a string parser, but
+ * fragments are not created and text between functions is copied in one step. Text without control characters is
+ * skipped by the scanner of the finder. A function that can't be parsed is kept as text. Stripper is thread-safe if
+ * the finder and the handlers are thread-safe.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class AnsiStripper {
+
+    private final FunctionFinder finder;
+
+    private final Map<FunctionType, FunctionHandler> handlersByType;
+
+    public AnsiStripper(ParserFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("No factory provided");
+        }
+        this.finder = factory.getFunctionFinder();
+        this.handlersByType = factory.getFunctionHandlersByType();
+    }
+
+    /**
+     * Returns text without control functions.
+     *
+     * @param text
+     * @return
+     */
+    public String strip(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        var builder = new StringBuilder(text.length());
+        this.strip(text, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Appends text without control functions to the builder.
+     *
+     * @param text
+     * @param builder
+     */
+    public void strip(CharSequence text, StringBuilder builder) {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        if (builder == null) {
+            throw new IllegalArgumentException("No builder provided");
+        }
+        var scanner = new FunctionScanner(finder, handlersByType, text, text.length());
+        var index = 0;
+        while (scanner.find(index)) {
+            builder.append(text, index, scanner.getFunctionStartIndex());
+            index = scanner.getFunctionEndIndex();
+        }
+        builder.append(text, index, text.length());
+    }
+
+    /**
+     * Appends text without control functions to the appendable.
+     *
+     * @param text
+     * @param appendable
+     * @throws IOException
+     */
+    public void strip(CharSequence text, Appendable appendable) throws IOException {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        if (appendable == null) {
+            throw new IllegalArgumentException("No appendable provided");
+        }
+        var scanner = new FunctionScanner(finder, handlersByType, text, text.length());
+        var index = 0;
+        while (scanner.find(index)) {
+            appendable.append(text, index, scanner.getFunctionStartIndex());
+            index = scanner.getFunctionEndIndex();
+        }
+        appendable.append(text, index, text.length());
+    }
+
+    /**
+     * Copies text without control functions to the array. Stripped text is never longer than text, so the array
+     * must have space for the whole text.
+     *
+     * @param text
+     * @param array
+     * @param offset index in array where text is copied to.
+     * @return length of the copied text.
+     */
+    public int strip(CharSequence text, char[] array, int offset) {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        if (array == null) {
+            throw new IllegalArgumentException("No array provided");
+        }
+        if (offset < 0 || array.length - offset < text.length()) {
+            throw new IllegalArgumentException("Illegal value of offset: " + offset);
+        }
+        var scanner = new FunctionScanner(finder, handlersByType, text, text.length());
+        var index = 0;
+        var position = offset;
+        while (scanner.find(index)) {
+            position = copy(text, index, scanner.getFunctionStartIndex(), array, position);
+            index = scanner.getFunctionEndIndex();
+        }
+        position = copy(text, index, text.length(), array, position);
+        return position - offset;
+    }
+
+    private static int copy(CharSequence text, int startIndex, int endIndex, char[] array, int position) {
+        if (text instanceof String) {
+            ((String) text).getChars(startIndex, endIndex, array, position);
+        } else {
+            for (var i = startIndex; i < endIndex; i++) {
+                array[position + i - startIndex] = text.charAt(i);
+            }
+        }
+        return position + endIndex - startIndex;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.Environment;
+
+/**
+ * Scanner that checks characters one by one. {@link Latin1Text} and {@link Utf8Text} are checked by eight bytes
+ * at a time: bytes are read as long and a word without control characters is skipped in one step (SWAR - SIMD
+ * within a register).
+ *
+ * @author Pavel Kastornyy
+ */
+public class DefaultControlCharacterScanner implements ControlCharacterScanner {
+
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * Every byte is 0x20, the first byte that is not a C0 character.
+     */
+    private static final long C0_LIMITS = 0x20 * ONES;
+
+    private boolean is8Bit;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int indexOfControlCharacter(CharSequence text, int startIndex, int endIndex) {
+        if (text instanceof Latin1Text) {
+            var latin1Text = (Latin1Text) text;
+            return this.indexOfControlCharacter(latin1Text.getBytes(), latin1Text.getStartIndex(), startIndex,
+                    endIndex);
+        }
+        if (text instanceof Utf8Text) {
+            var utf8Text = (Utf8Text) text;
+            var buffer = utf8Text.getBuffer();
+            if (buffer.hasArray()) {
+                return this.indexOfControlCharacter(buffer.array(), buffer.arrayOffset() + utf8Text.getStartIndex(),
+                        startIndex, endIndex);
+            }
+            return this.indexOfControlCharacter(buffer, utf8Text.getStartIndex(), startIndex, endIndex);
+        }
+        if (this.is8Bit) {
+            for (var i = startIndex; i < endIndex; i++) {
+                final char c = text.charAt(i);
+                if (c < 0x20 || (c >= 0x80 && c <= 0x9F)) {
+                    return i;
+                }
+            }
+        } else {
+            for (var i = startIndex; i < endIndex; i++) {
+                if (text.charAt(i) < 0x20) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(Environment environment) {
+        this.is8Bit = environment == Environment._8_BIT;
+    }
+
+    /**
+     * Checks bytes of array.
+     *
+     * @param bytes
+     * @param shift index in array of the first char of the text.
+     * @param startIndex
+     * @param endIndex
+     * @return
+     */
+    private int indexOfControlCharacter(byte[] bytes, int shift, int startIndex, int endIndex) {
+        var i = shift + startIndex;
+        var end = shift + endIndex;
+        var wordEnd = end - Long.BYTES;
+        if (this.is8Bit) {
+            for (; i <= wordEnd; i += Long.BYTES) {
+                var word = (long) LONG_VIEW.get(bytes, i);
+                //C1 bytes 0x80..0x9F become 0x00..0x1F when high bit is flipped
+                var mask = findC0Bytes(word) | findC0Bytes(word ^ HIGH_BITS);
+                if (mask != 0) {
+                    return i + (Long.numberOfTrailingZeros(mask) >>> 3) - shift;
+                }
+            }
+        } else {
+            for (; i <= wordEnd; i += Long.BYTES) {
+                var mask = findC0Bytes((long) LONG_VIEW.get(bytes, i));
+                if (mask != 0) {
+                    return i + (Long.numberOfTrailingZeros(mask) >>> 3) - shift;
+                }
+            }
+        }
+        for (; i < end; i++) {
+            var c = bytes[i] & 0xFF;
+            if (c < 0x20 || (this.is8Bit && c >= 0x80 && c <= 0x9F)) {
+                return i - shift;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks bytes of buffer, that must have little-endian byte order.
+     *
+     * @param buffer
+     * @param shift index in buffer of the first char of the text.
+     * @param startIndex
+     * @param endIndex
+     * @return
+     */
+    private int indexOfControlCharacter(ByteBuffer buffer, int shift, int startIndex, int endIndex) {
+        var i = shift + startIndex;
+        var end = shift + endIndex;
+        var wordEnd = end - Long.BYTES;
+        if (this.is8Bit) {
+            for (; i <= wordEnd; i += Long.BYTES) {
+                var word = buffer.getLong(i);
+                var mask = findC0Bytes(word) | findC0Bytes(word ^ HIGH_BITS);
+                if (mask != 0) {
+                    return i + (Long.numberOfTrailingZeros(mask) >>> 3) - shift;
+                }
+            }
+        } else {
+            for (; i <= wordEnd; i += Long.BYTES) {
+                var mask = findC0Bytes(buffer.getLong(i));
+                if (mask != 0) {
+                    return i + (Long.numberOfTrailingZeros(mask) >>> 3) - shift;
+                }
+            }
+        }
+        for (; i < end; i++) {
+            var c = buffer.get(i) & 0xFF;
+            if (c < 0x20 || (this.is8Bit && c >= 0x80 && c <= 0x9F)) {
+                return i - shift;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns word where the high bit is set in bytes that are less than 0x20. Bytes after the first such byte can
+     * be marked by mistake because of the borrow, but the lowest marked byte is always correct.
+     *
+     * @param word
+     * @return
+     */
+    private static long findC0Bytes(long word) {
+        return (word - C0_LIMITS) & ~word & HIGH_BITS;
+    }
+}
@@ -15,14 +15,13 @@
  */
 package pk.ansi4j.core;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.ControlCharacterScanner;
 import pk.ansi4j.core.api.Environment;
 import pk.ansi4j.core.api.FunctionFinder;
+import pk.ansi4j.core.api.MutableFunctionFinderResult;
 import pk.ansi4j.core.api.function.FunctionType;
 import pk.ansi4j.core.api.iso6429.C0ControlFunction;
 import pk.ansi4j.core.api.iso6429.C1ControlFunction;
@@ -31,9 +30,13 @@ import pk.ansi4j.core.api.iso6429.ControlFunctionType;
 import pk.ansi4j.core.api.iso6429.IndependentControlFunction;
 import pk.ansi4j.core.api.utils.Characters;
 import pk.ansi4j.core.impl.FunctionFinderResultImpl;
+import pk.ansi4j.core.impl.MutableFunctionFinderResultImpl;
 import pk.ansi4j.core.api.FunctionFinderResult;
 
 /**
+ * All functions are kept in arrays indexed by codes, so finding a function creates no objects. All control codes
+ * are in BMP, so text is checked char by char. Text without control characters is skipped by
+ * {@link ControlCharacterScanner}.
  *
  * @author Pavel Kastornyy
  */
@@ -41,57 +44,108 @@ public class DefaultFunctionFinder implements FunctionFinder {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultFunctionFinder.class);
 
-    private static class FunctionPair {
+    /**
+     * Size of the tables for functions that are identified by ESC and the following character.
+     */
+    private static final int ESC_TABLE_SIZE = 128;
 
-        private final FunctionType type;
+    private final ControlCharacterScanner scanner;
 
-        private final ControlFunction function;
+    private Environment environment;
 
-        public FunctionPair(FunctionType type, ControlFunction function) {
-            this.type = type;
-            this.function = function;
-        }
-    }
+    /**
+     * C0 functions by code.
+     */
+    private final ControlFunction[] c0Functions = new ControlFunction[32];
 
-    private Environment environment;
+    /**
+     * C1 functions by code in 8-bit environment or by the character after ESC in 7-bit environment.
+     */
+    private final ControlFunction[] c1Functions = new ControlFunction[0xA0];
 
-    private final Map<Integer, ControlFunction> c0FunctionsByCode = new HashMap<>();
+    /**
+     * Types of C1 functions, indexes are the same as in c1Functions.
+     */
+    private final FunctionType[] c1FunctionTypes = new FunctionType[0xA0];
 
-    private final Map<String, ControlFunction> c1FunctionsByPattern = new HashMap<>();
+    /**
+     * Independent functions by the character after ESC.
+     */
+    private final ControlFunction[] independentFunctions = new ControlFunction[ESC_TABLE_SIZE];
 
-    private final Map<Integer, ControlFunction> c1FunctionsByCode = new HashMap<>();
+    public DefaultFunctionFinder() {
+        this(new DefaultControlCharacterScanner());
+    }
 
-    private final Map<String, ControlFunction> independentFunctionsByPattern = new HashMap<>();
+    /**
+     * Constructor.
+     *
+     * @param scanner scanner that is used for skipping text.
+     */
+    public DefaultFunctionFinder(ControlCharacterScanner scanner) {
+        if (scanner == null) {
+            throw new IllegalArgumentException("No scanner");
+        }
+        this.scanner = scanner;
+    }
 
     /**
      * {@inheritDoc}
      */
     @Override
     public Optional<FunctionFinderResult> find(int startIndex, String text) {
-        for (int offset = startIndex; offset < text.length();) {
-            final int codePoint = text.codePointAt(offset);
-            FunctionPair pair = null;
-            if (codePoint == Characters.ESC) {
+        var result = new MutableFunctionFinderResultImpl();
+        if (this.find(text, startIndex, text.length(), result)) {
+            return Optional.of(new FunctionFinderResultImpl(result.getFunctionIndex(), result.getFunctionType(),
+                    result.getFunction()));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean find(CharSequence text, int startIndex, int endIndex, MutableFunctionFinderResult result) {
+        final var is7Bit = this.environment == Environment._7_BIT;
+        for (int offset = startIndex; offset < endIndex; offset++) {
+            offset = this.scanner.indexOfControlCharacter(text, offset, endIndex);
+            if (offset == -1) {
+                return false;
+            }
+            final char c = text.charAt(offset);
+            if (c == Characters.ESC) {
                 //escape is processed separately because it can be of many types
-                pair = this.resolveIndependentFunction(text, offset);
-                if (pair == null && this.environment == Environment._7_BIT) {
-                    pair = this.resolveC1Function(text, offset, codePoint);
+                if (offset + 1 < endIndex) {
+                    final char next = text.charAt(offset + 1);
+                    //Fs is represented by a bit combination from 06/00 to 07/14.
+                    if (next >= 0x60 && next <= 0x7E && this.independentFunctions[next] != null) {
+                        result.set(offset, ControlFunctionType.INDEPENDENT_FUNCTION, this.independentFunctions[next]);
+                        return true;
+                    }
+                    if (is7Bit && next < ESC_TABLE_SIZE && this.c1Functions[next] != null) {
+                        result.set(offset, this.c1FunctionTypes[next], this.c1Functions[next]);
+                        return true;
+                    }
                 }
-                if (pair == null) {
-                    pair = this.resolveC0Function(codePoint);
+                if (this.c0Functions[c] != null) {
+                    result.set(offset, ControlFunctionType.C0_SET, this.c0Functions[c]);
+                    return true;
+                }
+            } else if (c <= 31) {
+                if (this.c0Functions[c] != null) {
+                    result.set(offset, ControlFunctionType.C0_SET, this.c0Functions[c]);
+                    return true;
+                }
+            } else if (c >= 0x80 && c <= 0x9F && !is7Bit) {
+                if (this.c1Functions[c] != null) {
+                    result.set(offset, this.c1FunctionTypes[c], this.c1Functions[c]);
+                    return true;
                 }
-            } else if (codePoint <= 31) {
-                pair = this.resolveC0Function(codePoint);
-            } else if (codePoint >= 0x80 && codePoint <= 0x9F && this.environment == Environment._8_BIT) {
-                pair = this.resolveC1Function(text, offset, codePoint);
-            }
-            if (pair != null) {
-                var result = new FunctionFinderResultImpl(offset, pair.type, pair.function);
-                return Optional.of(result);
             }
-            offset += Character.charCount(codePoint);
         }
-        return Optional.empty();
+        return false;
     }
 
     /**
@@ -100,97 +154,61 @@ public class DefaultFunctionFinder implements FunctionFinder {
     @Override
     public void initialize(Environment environment) {
         this.environment = environment;
+        this.scanner.initialize(environment);
         //C0
-        //we adding all 34 functions, where 4 functions have code duplicates, so, after we have 32 entries in map.
-        Arrays.asList(C0ControlFunction.values()).forEach(f -> {
-            c0FunctionsByCode.put((int) f.getPattern().charAt(0), f);
-        });
+        //we adding all 34 functions, where 4 functions have code duplicates, so, after we have 32 entries.
+        for (var f : C0ControlFunction.values()) {
+            c0Functions[f.getPattern().charAt(0)] = f;
+        }
         //now we set correct functions by environment
         if (this.environment == Environment._7_BIT) {
             var f = C0ControlFunction.SO_SHIFT_OUT;
-            c0FunctionsByCode.put((int) f.getPattern().charAt(0), f);
+            c0Functions[f.getPattern().charAt(0)] = f;
             f = C0ControlFunction.SI_SHIFT_IN;
-            c0FunctionsByCode.put((int) f.getPattern().charAt(0), f);
+            c0Functions[f.getPattern().charAt(0)] = f;
         } else if (this.environment == Environment._8_BIT) {
             var f = C0ControlFunction.LS0_LOCKING_SHIFT_ZERO;
-            c0FunctionsByCode.put((int) f.getPattern().charAt(0), f);
+            c0Functions[f.getPattern().charAt(0)] = f;
             f = C0ControlFunction.LS1_LOCKING_SHIFT_ONE;
-            c0FunctionsByCode.put((int) f.getPattern().charAt(0), f);
+            c0Functions[f.getPattern().charAt(0)] = f;
         }
-        logger.debug("Added {} C0 functions to index in {}", c0FunctionsByCode.size(), this.environment);
+        logger.debug("Added {} C0 functions to index in {}", count(c0Functions), this.environment);
         //C1
-        if (this.environment == Environment._7_BIT) {
-            Arrays.asList(C1ControlFunction.values()).forEach(f -> {
-                c1FunctionsByPattern.put(f.getPattern(), f);
-            });
-            logger.debug("Added {} C1 functions to index in {}", c1FunctionsByPattern.size(), this.environment);
-        } else if (this.environment == Environment._8_BIT) {
-            Arrays.asList(C1ControlFunction.values()).forEach(f -> {
-                c1FunctionsByCode.put((int) ((C1ControlFunction)f).get8BitPattern().charAt(0), f);
-            });
-            logger.debug("Added {} C1 functions to index in {}", c1FunctionsByCode.size(), this.environment);
-        } else {
-            throw new IllegalStateException("Unknown environment");
-        }
-        //independent
-        Arrays.asList(IndependentControlFunction.values()).forEach(f -> {
-            independentFunctionsByPattern.put(f.getPattern(), f);
-        });
-        logger.debug("Added {} independent functions to index in {}", independentFunctionsByPattern.size(),
-                this.environment);
-    }
-
-    private FunctionPair resolveIndependentFunction(String functionText, int offset) {
-        ControlFunction function = null;
-        if (offset + 1 >= functionText.length()) {
-                return null;
-        }
-        var codePoint = functionText.codePointAt(offset + 1);
-        //Fs is represented by a bit combination from 06/00 to 07/14.
-        if (codePoint >= 0x60 && codePoint <= 0x7E) {
-            var identifier = "" + Characters.ESC + new String(new int[] {codePoint}, 0, 1);
-            function = this.independentFunctionsByPattern.get(identifier);
-            if (function != null) {
-                return new FunctionPair(ControlFunctionType.INDEPENDENT_FUNCTION, function);
+        var openingDelimiters = C1ControlFunction.getControlStringOpeningDelimiters();
+        for (var f : C1ControlFunction.values()) {
+            int index;
+            if (this.environment == Environment._7_BIT) {
+                index = f.getPattern().charAt(1);
+            } else if (this.environment == Environment._8_BIT) {
+                index = f.get8BitPattern().charAt(0);
             } else {
-                return null;
+                throw new IllegalStateException("Unknown environment");
             }
-        } else {
-            return null;
-        }
-    }
-
-    private FunctionPair resolveC1Function(String functionText, int offset, int codePoint) {
-        ControlFunction function = null;
-        if (this.environment == Environment._7_BIT) {
-            if (offset + 1 >= functionText.length()) {
-                return null;
+            c1Functions[index] = f;
+            if (f == C1ControlFunction.CSI_CONTROL_SEQUENCE_INTRODUCER) {
+                c1FunctionTypes[index] = ControlFunctionType.CONTROL_SEQUENCE;
+            } else if (openingDelimiters.contains(f)) {
+                c1FunctionTypes[index] = ControlFunctionType.CONTROL_STRING;
+            } else {
+                c1FunctionTypes[index] = ControlFunctionType.C1_SET;
             }
-            var identifier = "" + Characters.ESC + new String(new int[] {functionText.codePointAt(offset + 1)}, 0, 1);
-            function = this.c1FunctionsByPattern.get(identifier);
-        } else if (this.environment == Environment._8_BIT) {
-            function = this.c1FunctionsByCode.get(codePoint);
-        }
-        if (function == null) {
-            return null;
         }
-        var openingDelimiters = C1ControlFunction.getControlStringOpeningDelimiters();
-        if (function == C1ControlFunction.CSI_CONTROL_SEQUENCE_INTRODUCER) {
-            return new FunctionPair(ControlFunctionType.CONTROL_SEQUENCE, function) ;
-        } else if (openingDelimiters.contains(function)) {
-            return new FunctionPair(ControlFunctionType.CONTROL_STRING, function);
-        } else {
-            return new FunctionPair(ControlFunctionType.C1_SET, function);
+        logger.debug("Added {} C1 functions to index in {}", count(c1Functions), this.environment);
+        //independent
+        for (var f : IndependentControlFunction.values()) {
+            independentFunctions[f.getPattern().charAt(1)] = f;
         }
+        logger.debug("Added {} independent functions to index in {}", count(independentFunctions),
+                this.environment);
     }
 
-    private FunctionPair resolveC0Function(int codePoint) {
-        ControlFunction function = this.c0FunctionsByCode.get(codePoint);
-        if (function != null) {
-            return new FunctionPair(ControlFunctionType.C0_SET, function);
-        } else {
-            return null;
+    private static int count(ControlFunction[] functions) {
+        var count = 0;
+        for (var f : functions) {
+            if (f != null) {
+                count++;
+            }
         }
+        return count;
     }
-
 }
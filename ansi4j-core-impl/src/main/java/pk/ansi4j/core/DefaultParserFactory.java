@@ -16,19 +16,41 @@
 package pk.ansi4j.core;
 
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import pk.ansi4j.core.api.ControlCharacterScanner;
 import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.FileParser;
+import pk.ansi4j.core.api.Fragment;
 import pk.ansi4j.core.api.FunctionFinder;
 import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+import pk.ansi4j.core.api.PushParser;
 import pk.ansi4j.core.api.StreamParser;
 import pk.ansi4j.core.api.StringParser;
 import pk.ansi4j.core.api.function.FunctionType;
+import pk.ansi4j.core.impl.ChannelTextReader;
+import pk.ansi4j.core.impl.FragmentSpliterator;
+import pk.ansi4j.core.impl.IndexedStringParser;
+import pk.ansi4j.core.impl.MappedFileParserImpl;
+import pk.ansi4j.core.impl.ParallelParserImpl;
+import pk.ansi4j.core.impl.PendingLimit;
+import pk.ansi4j.core.impl.PushParserImpl;
 import pk.ansi4j.core.impl.StreamParserImpl;
 import pk.ansi4j.core.impl.StringParserImpl;
+import pk.ansi4j.core.impl.TextUtils;
 import pk.ansi4j.core.api.FunctionHandler;
 import pk.ansi4j.core.api.TextHandler;
 
@@ -48,6 +70,14 @@ public class DefaultParserFactory implements ParserFactory {
 
         private TextHandler textHandler;
 
+        private ControlCharacterScanner preScanner;
+
+        private int maxPendingSize = Integer.MAX_VALUE;
+
+        private PendingOverflowPolicy pendingOverflowPolicy = PendingOverflowPolicy.FAIL;
+
+        private PendingOverflowMetrics pendingOverflowMetrics;
+
         public Builder() {
             //empty constructor
         }
@@ -72,6 +102,44 @@ public class DefaultParserFactory implements ParserFactory {
             return this;
         }
 
+        /**
+         * Turns on pre-scan of string texts. Before parsing the whole text is checked by the scanner, and if it has
+         * no control characters, parser returns it as one text fragment without looking for functions. It is useful
+         * when most texts (for example, log lines) have no functions.
+         *
+         * @param scanner scanner, for example, {@link DefaultControlCharacterScanner}.
+         * @return
+         */
+        public Builder preScanner(ControlCharacterScanner scanner) {
+            this.preScanner = scanner;
+            return this;
+        }
+
+        /**
+         * Limits number of characters of a function that stream and push parsers keep while waiting for the rest of
+         * the input (for example, of a control string without terminator). By default there is no limit.
+         *
+         * @param size maximum number of kept characters.
+         * @param policy policy that is applied when function gets longer.
+         * @return
+         */
+        public Builder maxPendingSize(int size, PendingOverflowPolicy policy) {
+            this.maxPendingSize = size;
+            this.pendingOverflowPolicy = policy;
+            return this;
+        }
+
+        /**
+         * Sets metrics that count how many times pending overflow policy was applied.
+         *
+         * @param metrics
+         * @return
+         */
+        public Builder pendingOverflowMetrics(PendingOverflowMetrics metrics) {
+            this.pendingOverflowMetrics = metrics;
+            return this;
+        }
+
         public ParserFactory build() {
             this.validate();
             var factory = new DefaultParserFactory(this);
@@ -91,6 +159,12 @@ public class DefaultParserFactory implements ParserFactory {
             if (this.textHandler == null) {
                 throw new IllegalStateException("No text handler");
             }
+            if (this.maxPendingSize <= 0) {
+                throw new IllegalStateException("Illegal value of max pending size: " + this.maxPendingSize);
+            }
+            if (this.pendingOverflowPolicy == null) {
+                throw new IllegalStateException("No pending overflow policy");
+            }
         }
     }
 
@@ -102,6 +176,13 @@ public class DefaultParserFactory implements ParserFactory {
 
     private final TextHandler textHandler;
 
+    /**
+     * Scanner for pre-scan of string texts or null.
+     */
+    private final ControlCharacterScanner preScanner;
+
+    private final PendingLimit pendingLimit;
+
     /**
      * {@inheritDoc}
      */
@@ -134,7 +215,16 @@ public class DefaultParserFactory implements ParserFactory {
         if (text == null) {
             throw new IllegalArgumentException("No text provided");
         }
-        return new StringParserImpl(text, this);
+        return new StringParserImpl(text, this, this.preScanner);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StringParser createParser(CharSequence text) {
+        TextUtils.checkText(text, this);
+        return new StringParserImpl(text, this, this.preScanner);
     }
 
     /**
@@ -151,7 +241,111 @@ public class DefaultParserFactory implements ParserFactory {
         if (bufferSize <= 0) {
             throw new IllegalArgumentException("Illegal value of buffer size: " + bufferSize);
         }
-        return new StreamParserImpl(stream, encoding, bufferSize, this);
+        return new StreamParserImpl(stream, encoding, bufferSize, this, this.pendingLimit, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamParser createParser(InputStream stream, Charset encoding, int bufferSize,
+            Duration idleTimeout) {
+        if (stream == null) {
+            throw new IllegalArgumentException("No stream provided");
+        }
+        if (encoding == null) {
+            throw new IllegalArgumentException("No encoding provided");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Illegal value of buffer size: " + bufferSize);
+        }
+        if (idleTimeout == null) {
+            throw new IllegalArgumentException("No idle timeout provided");
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Illegal value of idle timeout: " + idleTimeout);
+        }
+        return new StreamParserImpl(stream, encoding, bufferSize, this, this.pendingLimit, idleTimeout.toNanos());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamParser createParser(ReadableByteChannel channel, Charset encoding, int bufferSize) {
+        if (channel == null) {
+            throw new IllegalArgumentException("No channel provided");
+        }
+        if (encoding == null) {
+            throw new IllegalArgumentException("No encoding provided");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Illegal value of buffer size: " + bufferSize);
+        }
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("Non-blocking channel is not supported");
+        }
+        return new StreamParserImpl(new ChannelTextReader(channel, encoding, bufferSize), this,
+                this.pendingLimit);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>File can be parsed only in 7-bit environment.
+     */
+    @Override
+    public FileParser createFileParser(FileChannel channel, int windowSize) {
+        if (channel == null) {
+            throw new IllegalArgumentException("No channel provided");
+        }
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Illegal value of window size: " + windowSize);
+        }
+        var text = new Utf8Text(new byte[0]);
+        TextUtils.checkText(text, this);
+        return new MappedFileParserImpl(channel, windowSize, new StringParserImpl(text, this, this.preScanner));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PushParser createPushParser(Charset encoding, Consumer<Fragment> consumer) {
+        if (encoding == null) {
+            throw new IllegalArgumentException("No encoding provided");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("No consumer provided");
+        }
+        return new PushParserImpl(encoding, consumer, this, this.pendingLimit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Fragment> parseParallel(CharSequence text, ForkJoinPool pool, int chunkCount) {
+        TextUtils.checkText(text, this);
+        if (pool == null) {
+            throw new IllegalArgumentException("No pool provided");
+        }
+        if (chunkCount <= 0) {
+            throw new IllegalArgumentException("Illegal value of chunk count: " + chunkCount);
+        }
+        return new ParallelParserImpl(text, this.getTextHandler(), this::createIndexedParser).parse(pool, chunkCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>When the stream is split, the whole text is parsed in parallel by chunks and the list of fragments is split.
+     */
+    @Override
+    public Stream<Fragment> stream(CharSequence text) {
+        TextUtils.checkText(text, this);
+        var spliterator = new FragmentSpliterator(text, this.getTextHandler(), this::createIndexedParser);
+        return StreamSupport.stream(spliterator, false);
     }
 
     /**
@@ -162,6 +356,10 @@ public class DefaultParserFactory implements ParserFactory {
         return this.environment;
     }
 
+    private IndexedStringParser createIndexedParser() {
+        return new StringParserImpl("", this, this.preScanner);
+    }
+
     private DefaultParserFactory(Builder builder) {
         this.environment = builder.environment;
         this.functionFinder = builder.functionFinder;
@@ -170,5 +368,11 @@ public class DefaultParserFactory implements ParserFactory {
         this.functionHandlersByType.values().forEach(p -> p.initialize(this.environment));
         this.textHandler = builder.textHandler;
         this.textHandler.initialize(this.environment);
+        this.preScanner = builder.preScanner;
+        this.pendingLimit = new PendingLimit(builder.maxPendingSize, builder.pendingOverflowPolicy,
+                builder.pendingOverflowMetrics);
+        if (this.preScanner != null) {
+            this.preScanner.initialize(this.environment);
+        }
     }
 }
@@ -16,10 +16,8 @@
 package pk.ansi4j.core;
 
 import java.util.Optional;
-import pk.ansi4j.core.api.Environment;
 import pk.ansi4j.core.impl.TextFragmentImpl;
 import pk.ansi4j.core.impl.TextHandlerResultImpl;
-import pk.ansi4j.core.api.TextHandler;
 import pk.ansi4j.core.api.TextHandlerResult;
 
 /**
@@ -27,9 +25,7 @@ import pk.ansi4j.core.api.TextHandlerResult;
  *
  * @author Pavel Kastornyy
  */
-public class DefaultTextHandler implements TextHandler {
-
-    private Environment environment;
+public class DefaultTextHandler extends AbstractTextHandler {
 
     /**
      * {@inheritDoc}
@@ -43,8 +39,8 @@ public class DefaultTextHandler implements TextHandler {
      * {@inheritDoc}
      */
     @Override
-    public void initialize(Environment environment) {
-        this.environment = environment;
+    public TextHandlerResult handle(CharSequence text, int startIndex, int endIndex, int currentIndex) {
+        return new TextHandlerResultImpl(Optional.of(new TextFragmentImpl(text, startIndex, endIndex, currentIndex)),
+                null);
     }
-
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Char sequence that is backed by bytes in ISO-8859-1 (Latin-1) encoding, so every byte is one char. As ASCII is
+ * a subset of Latin-1, ASCII bytes can be used too. Bytes are not copied, so they must not be modified while
+ * the text is used. Strings are created only when {@link #toString()} is called.
+ *
+ * <p>{@link DefaultControlCharacterScanner} checks such text by eight bytes at a time.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class Latin1Text implements CharSequence {
+
+    private final byte[] bytes;
+
+    private final int startIndex;
+
+    private final int endIndex;
+
+    /**
+     * Constructor for all bytes of the array.
+     *
+     * @param bytes
+     */
+    public Latin1Text(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bytes the array that must not be modified.
+     * @param startIndex start index in the array, inclusive.
+     * @param endIndex end index in the array, exclusive.
+     */
+    public Latin1Text(byte[] bytes, int startIndex, int endIndex) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("No bytes provided");
+        }
+        if (startIndex < 0 || endIndex > bytes.length || startIndex > endIndex) {
+            throw new IndexOutOfBoundsException("Illegal range [" + startIndex + ", " + endIndex + ") for length "
+                    + bytes.length);
+        }
+        this.bytes = bytes;
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length() {
+        return endIndex - startIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= endIndex - startIndex) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of length " + (endIndex - startIndex));
+        }
+        return (char) (bytes[startIndex + index] & 0xFF);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > endIndex - startIndex || start > end) {
+            throw new IndexOutOfBoundsException("Illegal range [" + start + ", " + end + ") for length "
+                    + (endIndex - startIndex));
+        }
+        return new Latin1Text(bytes, startIndex + start, startIndex + end);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, startIndex, endIndex - startIndex, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the backing array, that is not a copy.
+     *
+     * @return
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns index in the backing array of the first char.
+     *
+     * @return
+     */
+    int getStartIndex() {
+        return startIndex;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.util.concurrent.atomic.LongAdder;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+
+/**
+ * Counts how many times stream and push parsers applied pending overflow policy. One instance can be given to
+ * several factories, counters can be read by any thread at any time.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class PendingOverflowMetrics {
+
+    private final LongAdder[] counters = new LongAdder[PendingOverflowPolicy.values().length];
+
+    public PendingOverflowMetrics() {
+        for (var i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registers one application of the policy. This method is called by parsers.
+     *
+     * @param policy
+     */
+    public void increment(PendingOverflowPolicy policy) {
+        this.counters[policy.ordinal()].increment();
+    }
+
+    /**
+     * Returns how many times the policy was applied.
+     *
+     * @param policy
+     * @return
+     */
+    public long getCount(PendingOverflowPolicy policy) {
+        return this.counters[policy.ordinal()].sum();
+    }
+
+    /**
+     * Returns how many times any policy was applied.
+     *
+     * @return
+     */
+    public long getTotalCount() {
+        var count = 0L;
+        for (var counter : counters) {
+            count += counter.sum();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PushParser;
+
+/**
+ * Processor that parses byte chunks by a push parser and publishes fragments. The next chunk is requested only when
+ * all fragments of the previous one are passed and the subscriber has requested more, so only fragments of one chunk
+ * are kept and a slow subscriber slows down the publisher of chunks. Processor has only one subscriber. Errors of the
+ * upstream publisher are passed to the subscriber at once, without kept fragments.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class PushParserProcessor implements Flow.Processor<ByteBuffer, Fragment> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushParserProcessor.class);
+
+    private final class SubscriptionImpl implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Illegal value of requested count: " + n);
+            } else {
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+    }
+
+    private final PushParser parser;
+
+    private final Queue<Fragment> fragments = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong demand = new AtomicLong();
+
+    /**
+     * Number of drain requests, only one thread drains.
+     */
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    private volatile Flow.Subscription upstream;
+
+    private final AtomicReference<Flow.Subscriber<? super Fragment>> subscriber = new AtomicReference<>();
+
+    /**
+     * Subscriber that has got its subscription, so it can get other signals.
+     */
+    private volatile Flow.Subscriber<? super Fragment> subscribedSubscriber;
+
+    /**
+     * If true, then a chunk was requested, but it hasn't come yet.
+     */
+    private volatile boolean chunkRequested = false;
+
+    private volatile boolean upstreamDone = false;
+
+    private volatile Throwable upstreamError;
+
+    private volatile Throwable requestError;
+
+    private volatile boolean cancelled = false;
+
+    /**
+     * If true, then onComplete or onError was called or subscription was cancelled. Used only by the draining thread.
+     */
+    private boolean terminated = false;
+
+    /**
+     * Constructor.
+     *
+     * @param factory factory that creates push parser.
+     * @param encoding encoding of chunks.
+     */
+    public PushParserProcessor(ParserFactory factory, Charset encoding) {
+        if (factory == null) {
+            throw new IllegalArgumentException("No factory provided");
+        }
+        this.parser = factory.createPushParser(encoding, this.fragments::add);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Fragment> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("No subscriber provided");
+        }
+        if (this.subscriber.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new SubscriptionImpl());
+            this.subscribedSubscriber = subscriber;
+            this.drain();
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+
+            @Override
+            public void request(long n) { }
+
+            @Override
+            public void cancel() { }
+        });
+        subscriber.onError(new IllegalStateException("Processor has already a subscriber"));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.upstream != null || this.cancelled) {
+            subscription.cancel();
+            return;
+        }
+        this.upstream = subscription;
+        this.drain();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onNext(ByteBuffer chunk) {
+        try {
+            this.parser.feed(chunk);
+        } catch (RuntimeException ex) {
+            this.upstream.cancel();
+            this.onError(ex);
+            return;
+        }
+        this.chunkRequested = false;
+        this.drain();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        this.upstreamError = throwable;
+        this.upstreamDone = true;
+        this.drain();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onComplete() {
+        this.parser.endOfInput();
+        this.upstreamDone = true;
+        this.drain();
+    }
+
+    private void drain() {
+        if (this.drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        var missed = 1;
+        while (true) {
+            var subscriber = this.subscribedSubscriber;
+            if (subscriber != null && !this.terminated) {
+                this.drain(subscriber);
+            }
+            missed = this.drainRequests.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void drain(Flow.Subscriber<? super Fragment> subscriber) {
+        if (this.cancelled || this.requestError != null) {
+            this.terminated = true;
+            this.fragments.clear();
+            if (this.upstream != null) {
+                this.upstream.cancel();
+            }
+            if (this.requestError != null) {
+                subscriber.onError(this.requestError);
+            }
+            return;
+        }
+        if (this.upstreamError != null) {
+            this.terminated = true;
+            this.fragments.clear();
+            subscriber.onError(this.upstreamError);
+            return;
+        }
+        Fragment fragment = null;
+        while (this.demand.get() > 0 && (fragment = this.fragments.poll()) != null) {
+            this.demand.decrementAndGet();
+            try {
+                subscriber.onNext(fragment);
+            } catch (Throwable ex) {
+                logger.error("Error passing fragment to subscriber", ex);
+                this.terminated = true;
+                this.fragments.clear();
+                this.upstream.cancel();
+                return;
+            }
+        }
+        if (this.fragments.isEmpty()) {
+            if (this.upstreamDone) {
+                this.terminated = true;
+                subscriber.onComplete();
+            } else if (this.demand.get() > 0 && !this.chunkRequested && this.upstream != null) {
+                this.chunkRequested = true;
+                this.upstream.request(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import pk.ansi4j.core.api.AnsiCursor;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.ControlStringVisitor;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.FileParser;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentVisitor;
+import pk.ansi4j.core.api.FunctionFinder;
+import pk.ansi4j.core.api.FunctionHandler;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+import pk.ansi4j.core.api.PushParser;
+import pk.ansi4j.core.api.StreamParser;
+import pk.ansi4j.core.api.StringParser;
+import pk.ansi4j.core.api.TextHandler;
+import pk.ansi4j.core.api.function.FunctionType;
+import pk.ansi4j.core.impl.ChannelTextReader;
+import pk.ansi4j.core.impl.FragmentSpliterator;
+import pk.ansi4j.core.impl.IndexedStringParser;
+import pk.ansi4j.core.impl.MappedFileParserImpl;
+import pk.ansi4j.core.impl.ParallelParserImpl;
+import pk.ansi4j.core.impl.PendingLimit;
+import pk.ansi4j.core.impl.StateMachineCursorImpl;
+import pk.ansi4j.core.impl.StateMachinePushParserImpl;
+import pk.ansi4j.core.impl.StateMachineStreamParserImpl;
+import pk.ansi4j.core.impl.StateMachineStringParserImpl;
+import pk.ansi4j.core.impl.StateMachineTable;
+import pk.ansi4j.core.impl.TextUtils;
+import pk.ansi4j.core.iso6429.C0ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.C1ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.ControlSequenceHandler;
+import pk.ansi4j.core.iso6429.ControlStringHandler;
+import pk.ansi4j.core.iso6429.IndependentControlFunctionHandler;
+
+/**
+ * Factory of parsers that find and parse functions in one pass using a state machine with precomputed transition
+ * tables. Parsers of this factory don't use a finder and function handlers, they create the same fragments as
+ * {@link DefaultFunctionFinder} with all default function handlers do. Finder and handlers are still provided by
+ * this factory, so code that uses them directly works as with default factory. Text is given to the text handler.
+ *
+ * @author Pavel Kastornyy
+ */
+public class StateMachineParserFactory implements ParserFactory {
+
+    public static class Builder {
+
+        private Environment environment;
+
+        private TextHandler textHandler;
+
+        private ControlCharacterScanner preScanner;
+
+        private int maxPendingSize = Integer.MAX_VALUE;
+
+        private PendingOverflowPolicy pendingOverflowPolicy = PendingOverflowPolicy.FAIL;
+
+        private PendingOverflowMetrics pendingOverflowMetrics;
+
+        public Builder() {
+            //empty constructor
+        }
+
+        public Builder environment(Environment environment) {
+            this.environment = environment;
+            return this;
+        }
+
+        public Builder textHandler(TextHandler handler) {
+            this.textHandler = handler;
+            return this;
+        }
+
+        /**
+         * Turns on pre-scan of string texts. Before parsing the whole text is checked by the scanner, and if it has
+         * no control characters, parser returns it as one text fragment without looking for functions. It is useful
+         * when most texts (for example, log lines) have no functions.
+         *
+         * @param scanner scanner, for example, {@link DefaultControlCharacterScanner}.
+         * @return
+         */
+        public Builder preScanner(ControlCharacterScanner scanner) {
+            this.preScanner = scanner;
+            return this;
+        }
+
+        /**
+         * Limits number of characters of a function that stream and push parsers keep while waiting for the rest of
+         * the input (for example, of a control string without terminator). By default there is no limit.
+         *
+         * @param size maximum number of kept characters.
+         * @param policy policy that is applied when function gets longer.
+         * @return
+         */
+        public Builder maxPendingSize(int size, PendingOverflowPolicy policy) {
+            this.maxPendingSize = size;
+            this.pendingOverflowPolicy = policy;
+            return this;
+        }
+
+        /**
+         * Sets metrics that count how many times pending overflow policy was applied.
+         *
+         * @param metrics
+         * @return
+         */
+        public Builder pendingOverflowMetrics(PendingOverflowMetrics metrics) {
+            this.pendingOverflowMetrics = metrics;
+            return this;
+        }
+
+        public ParserFactory build() {
+            this.validate();
+            var factory = new StateMachineParserFactory(this);
+            return factory;
+        }
+
+        private void validate() {
+            if (environment == null) {
+                throw new IllegalStateException("No environment");
+            }
+            if (this.textHandler == null) {
+                throw new IllegalStateException("No text handler");
+            }
+            if (this.maxPendingSize <= 0) {
+                throw new IllegalStateException("Illegal value of max pending size: " + this.maxPendingSize);
+            }
+            if (this.pendingOverflowPolicy == null) {
+                throw new IllegalStateException("No pending overflow policy");
+            }
+        }
+    }
+
+    private final Environment environment;
+
+    private final StateMachineTable table;
+
+    private final FunctionFinder functionFinder;
+
+    private final Map<FunctionType, FunctionHandler> functionHandlersByType = new HashMap<>();
+
+    private final TextHandler textHandler;
+
+    /**
+     * Scanner for pre-scan of string texts or null.
+     */
+    private final ControlCharacterScanner preScanner;
+
+    private final PendingLimit pendingLimit;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FunctionFinder getFunctionFinder() {
+        return this.functionFinder;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<FunctionType, FunctionHandler> getFunctionHandlersByType() {
+        return Collections.unmodifiableMap(this.functionHandlersByType);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TextHandler getTextHandler() {
+        return this.textHandler;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StringParser createParser(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        return new StateMachineStringParserImpl(text, this, this.table, this.preScanner);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StringParser createParser(CharSequence text) {
+        TextUtils.checkText(text, this);
+        return new StateMachineStringParserImpl(text, this, this.table, this.preScanner);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If {@link DefaultTextHandler} is used, then no objects are created per token.
+     */
+    @Override
+    public AnsiCursor createCursor(CharSequence text) {
+        if (this.textHandler.getClass() != DefaultTextHandler.class) {
+            //text handler can change text
+            return ParserFactory.super.createCursor(text);
+        }
+        TextUtils.checkText(text, this);
+        return new StateMachineCursorImpl(text, this, this.table, this.preScanner);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If {@link DefaultTextHandler} is used, then no fragments and argument objects are created.
+     */
+    @Override
+    public void parse(CharSequence text, FragmentVisitor visitor) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("No visitor provided");
+        }
+        if (this.textHandler.getClass() != DefaultTextHandler.class) {
+            //text handler can change text
+            ParserFactory.super.parse(text, visitor);
+            return;
+        }
+        ((StateMachineStringParserImpl) this.createParser(text)).visit(visitor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamParser createParser(InputStream stream, Charset encoding, int bufferSize) {
+        if (stream == null) {
+            throw new IllegalArgumentException("No stream provided");
+        }
+        if (encoding == null) {
+            throw new IllegalArgumentException("No encoding provided");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Illegal value of buffer size: " + bufferSize);
+        }
+        return new StateMachineStreamParserImpl(stream, encoding, bufferSize, this, this.table,
+                this.pendingLimit, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamParser createParser(InputStream stream, Charset encoding, int bufferSize,
+            Duration idleTimeout) {
+        if (stream == null) {
+            throw new IllegalArgumentException("No stream provided");
+        }
+        if (encoding == null) {
+            throw new IllegalArgumentException("No encoding provided");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Illegal value of buffer size: " + bufferSize);
+        }
+        if (idleTimeout == null) {
+            throw new IllegalArgumentException("No idle timeout provided");
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Illegal value of idle timeout: " + idleTimeout);
+        }
+        return new StateMachineStreamParserImpl(stream, encoding, bufferSize, this, this.table,
+                this.pendingLimit, idleTimeout.toNanos());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamParser createParser(ReadableByteChannel channel, Charset encoding, int bufferSize) {
+        if (channel == null) {
+            throw new IllegalArgumentException("No channel provided");
+        }
+        if (encoding == null) {
+            throw new IllegalArgumentException("No encoding provided");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Illegal value of buffer size: " + bufferSize);
+        }
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("Non-blocking channel is not supported");
+        }
+        return new StateMachineStreamParserImpl(new ChannelTextReader(channel, encoding, bufferSize), this,
+                this.table, this.pendingLimit);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>File can be parsed only in 7-bit environment.
+     */
+    @Override
+    public FileParser createFileParser(FileChannel channel, int windowSize) {
+        if (channel == null) {
+            throw new IllegalArgumentException("No channel provided");
+        }
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Illegal value of window size: " + windowSize);
+        }
+        var text = new Utf8Text(new byte[0]);
+        TextUtils.checkText(text, this);
+        return new MappedFileParserImpl(channel, windowSize,
+                new StateMachineStringParserImpl(text, this, this.table, this.preScanner));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PushParser createPushParser(Charset encoding, Consumer<Fragment> consumer) {
+        if (encoding == null) {
+            throw new IllegalArgumentException("No encoding provided");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("No consumer provided");
+        }
+        return new StateMachinePushParserImpl(encoding, consumer, this, this.table, this.pendingLimit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PushParser createPushParser(Charset encoding, ControlStringVisitor visitor) {
+        if (encoding == null) {
+            throw new IllegalArgumentException("No encoding provided");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("No visitor provided");
+        }
+        return new StateMachinePushParserImpl(encoding, visitor, this, this.table, this.pendingLimit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Fragment> parseParallel(CharSequence text, ForkJoinPool pool, int chunkCount) {
+        TextUtils.checkText(text, this);
+        if (pool == null) {
+            throw new IllegalArgumentException("No pool provided");
+        }
+        if (chunkCount <= 0) {
+            throw new IllegalArgumentException("Illegal value of chunk count: " + chunkCount);
+        }
+        return new ParallelParserImpl(text, this.getTextHandler(), this::createIndexedParser).parse(pool, chunkCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>When the stream is split, the whole text is parsed in parallel by chunks and the list of fragments is split.
+     */
+    @Override
+    public Stream<Fragment> stream(CharSequence text) {
+        TextUtils.checkText(text, this);
+        var spliterator = new FragmentSpliterator(text, this.getTextHandler(), this::createIndexedParser);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Environment getEnvironment() {
+        return this.environment;
+    }
+
+    private IndexedStringParser createIndexedParser() {
+        return new StateMachineStringParserImpl("", this, this.table, this.preScanner);
+    }
+
+    private StateMachineParserFactory(Builder builder) {
+        this.environment = builder.environment;
+        this.table = new StateMachineTable(this.environment);
+        this.functionFinder = new DefaultFunctionFinder();
+        this.functionFinder.initialize(this.environment);
+        List.of(new C0ControlFunctionHandler(),
+                new C1ControlFunctionHandler(),
+                new ControlSequenceHandler(),
+                new IndependentControlFunctionHandler(),
+                new ControlStringHandler()).forEach(p -> {
+                    p.initialize(this.environment);
+                    this.functionHandlersByType.put(p.getTargetFunctionType(), p);
+                });
+        this.textHandler = builder.textHandler;
+        this.textHandler.initialize(this.environment);
+        this.preScanner = builder.preScanner;
+        this.pendingLimit = new PendingLimit(builder.maxPendingSize, builder.pendingOverflowPolicy,
+                builder.pendingOverflowMetrics);
+        if (this.preScanner != null) {
+            this.preScanner.initialize(this.environment);
+        }
+    }
+}
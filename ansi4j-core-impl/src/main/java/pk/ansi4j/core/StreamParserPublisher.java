@@ -0,0 +1,201 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.StreamParser;
+
+/**
+ * Publisher of fragments of a stream parser. Parser is called only when the subscriber has requested fragments, so
+ * input is read only as much as it is needed. Fragments are parsed and passed to the subscriber by the executor.
+ * Publisher has only one subscriber, the parser is closed when all fragments are passed or subscription is cancelled.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class StreamParserPublisher implements Flow.Publisher<Fragment> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamParserPublisher.class);
+
+    private final class SubscriptionImpl implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super Fragment> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * Number of drain requests, only one thread drains.
+         */
+        private final AtomicInteger drainRequests = new AtomicInteger();
+
+        /**
+         * If true, then onSubscribe has returned, so the subscriber can get other signals.
+         */
+        private volatile boolean subscribed = false;
+
+        private volatile boolean cancelled = false;
+
+        private volatile Throwable error;
+
+        SubscriptionImpl(Flow.Subscriber<? super Fragment> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.error = new IllegalArgumentException("Illegal value of requested count: " + n);
+            } else {
+                this.demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            }
+            this.drain();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.drain();
+        }
+
+        @Override
+        public void run() {
+            var missed = 1;
+            while (true) {
+                if (this.cancelled) {
+                    closeParser();
+                    return;
+                }
+                if (this.error != null) {
+                    this.cancelled = true;
+                    closeParser();
+                    this.subscriber.onError(this.error);
+                    return;
+                }
+                while (this.demand.get() > 0 && !this.cancelled) {
+                    Fragment fragment = null;
+                    try {
+                        fragment = parser.parse();
+                    } catch (RuntimeException ex) {
+                        //for example, pending overflow with FAIL policy
+                        this.cancelled = true;
+                        closeParser();
+                        this.subscriber.onError(ex);
+                        return;
+                    }
+                    if (fragment == null) {
+                        this.cancelled = true;
+                        closeParser();
+                        this.subscriber.onComplete();
+                        return;
+                    }
+                    this.demand.decrementAndGet();
+                    try {
+                        this.subscriber.onNext(fragment);
+                    } catch (Throwable ex) {
+                        logger.error("Error passing fragment to subscriber", ex);
+                        //subscription is cancelled, there can be no more drain requests to close the parser
+                        this.cancelled = true;
+                        closeParser();
+                        return;
+                    }
+                }
+                missed = this.drainRequests.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void drain() {
+            if (!this.subscribed) {
+                return;
+            }
+            if (this.drainRequests.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (Throwable ex) {
+                    this.cancelled = true;
+                    closeParser();
+                    this.subscriber.onError(ex);
+                }
+            }
+        }
+    }
+
+    private final StreamParser parser;
+
+    private final Executor executor;
+
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Constructor.
+     *
+     * @param parser
+     * @param executor executor that parses fragments and calls the subscriber.
+     */
+    public StreamParserPublisher(StreamParser parser, Executor executor) {
+        if (parser == null) {
+            throw new IllegalArgumentException("No parser provided");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("No executor provided");
+        }
+        this.parser = parser;
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Fragment> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("No subscriber provided");
+        }
+        if (!this.subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                @Override
+                public void request(long n) { }
+
+                @Override
+                public void cancel() { }
+            });
+            subscriber.onError(new IllegalStateException("Publisher has already a subscriber"));
+            return;
+        }
+        var subscription = new SubscriptionImpl(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.subscribed = true;
+        subscription.drain();
+    }
+
+    private void closeParser() {
+        try {
+            this.parser.close();
+        } catch (IOException ex) {
+            logger.error("Error closing parser", ex);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import pk.ansi4j.core.api.AnsiCursor;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.StringParser;
+
+/**
+ * Pool that keeps one string parser and one cursor per thread and resets them to new text instead of creating new
+ * ones. It is useful when many short texts (for example, log lines) are parsed. The returned parser (cursor) can be
+ * used only by the calling thread and only until the next call of the same method in this thread.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class StringParserPool {
+
+    private final ParserFactory factory;
+
+    private final ThreadLocal<StringParser> parsers = new ThreadLocal<>();
+
+    private final ThreadLocal<AnsiCursor> cursors = new ThreadLocal<>();
+
+    public StringParserPool(ParserFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("No factory provided");
+        }
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the parser of the current thread reset to the text.
+     *
+     * @param text
+     * @return
+     */
+    public StringParser getParser(CharSequence text) {
+        var parser = this.parsers.get();
+        if (parser == null) {
+            parser = this.factory.createParser(text);
+            this.parsers.set(parser);
+        } else {
+            parser.reset(text);
+        }
+        return parser;
+    }
+
+    /**
+     * Returns the cursor of the current thread reset to the text.
+     *
+     * @param text
+     * @return
+     */
+    public AnsiCursor getCursor(CharSequence text) {
+        var cursor = this.cursors.get();
+        if (cursor == null) {
+            cursor = this.factory.createCursor(text);
+            this.cursors.set(cursor);
+        } else {
+            cursor.reset(text);
+        }
+        return cursor;
+    }
+
+    /**
+     * Returns the factory that creates parsers of this pool.
+     *
+     * @return
+     */
+    public ParserFactory getFactory() {
+        return factory;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.FunctionFinder;
+import pk.ansi4j.core.api.FunctionHandler;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.function.FunctionType;
+import pk.ansi4j.core.impl.FunctionScanner;
+import pk.ansi4j.core.impl.StateMachineCursorImpl;
+import pk.ansi4j.core.impl.TextView;
+
+/**
+ * Computes display width (number of terminal columns) of text that contains control functions. Functions are
+ * skipped as {@link AnsiStripper} does, East Asian Wide and Fullwidth characters take two columns, combining marks,
+ * format and control characters take no columns, all other characters, including ambiguous ones, take one column.
+ *
+ * <p>Width of a code point is read from a two-stage table: the first stage keeps the number of the block of 256 code
+ * points, the second stage keeps widths of every unique block. The table is built once, when the class is
+ * initialized. Text is checked in one pass till the first control character, so text without functions is measured
+ * without creating objects.
+ *
+ * <p>If the factory is a {@link StateMachineParserFactory} with {@link DefaultTextHandler}, then the rest of the text
+ * is read by the cursor of the current thread, that skips functions without creating objects per function. With
+ * other factories functions are found by the finder and their ends are found by the handlers, as {@link AnsiStripper}
+ * does, and handlers create a result for every function. Object is thread-safe if the finder and the handlers are
+ * thread-safe.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class TextWidth {
+
+    private static final int BLOCK_SHIFT = 8;
+
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    /**
+     * Ranges of East Asian Wide (W) and Fullwidth (F) characters, pairs of the first and the last code points.
+     */
+    private static final int[] WIDE_RANGES = {
+        0x1100, 0x115F, 0x231A, 0x231B, 0x2329, 0x232A, 0x23E9, 0x23EC, 0x23F0, 0x23F0, 0x23F3, 0x23F3,
+        0x25FD, 0x25FE, 0x2614, 0x2615, 0x2648, 0x2653, 0x267F, 0x267F, 0x2693, 0x2693, 0x26A1, 0x26A1,
+        0x26AA, 0x26AB, 0x26BD, 0x26BE, 0x26C4, 0x26C5, 0x26CE, 0x26CE, 0x26D4, 0x26D4, 0x26EA, 0x26EA,
+        0x26F2, 0x26F3, 0x26F5, 0x26F5, 0x26FA, 0x26FA, 0x26FD, 0x26FD, 0x2705, 0x2705, 0x270A, 0x270B,
+        0x2728, 0x2728, 0x274C, 0x274C, 0x274E, 0x274E, 0x2753, 0x2755, 0x2757, 0x2757, 0x2795, 0x2797,
+        0x27B0, 0x27B0, 0x27BF, 0x27BF, 0x2B1B, 0x2B1C, 0x2B50, 0x2B50, 0x2B55, 0x2B55, 0x2E80, 0x303E,
+        0x3041, 0x33FF, 0x3400, 0x4DBF, 0x4E00, 0x9FFF, 0xA000, 0xA4CF, 0xA960, 0xA97F, 0xAC00, 0xD7A3,
+        0xF900, 0xFAFF, 0xFE10, 0xFE19, 0xFE30, 0xFE6F, 0xFF00, 0xFF60, 0xFFE0, 0xFFE6,
+        0x16FE0, 0x16FE4, 0x16FF0, 0x16FF1, 0x17000, 0x187F7, 0x18800, 0x18CD5, 0x18D00, 0x18D08,
+        0x1AFF0, 0x1B2FB, 0x1F004, 0x1F004, 0x1F0CF, 0x1F0CF, 0x1F18E, 0x1F18E, 0x1F191, 0x1F19A,
+        0x1F200, 0x1F202, 0x1F210, 0x1F23B, 0x1F240, 0x1F248, 0x1F250, 0x1F251, 0x1F260, 0x1F265,
+        0x1F300, 0x1F320, 0x1F32D, 0x1F335, 0x1F337, 0x1F37C, 0x1F37E, 0x1F393, 0x1F3A0, 0x1F3CA,
+        0x1F3CF, 0x1F3D3, 0x1F3E0, 0x1F3F0, 0x1F3F4, 0x1F3F4, 0x1F3F8, 0x1F43E, 0x1F440, 0x1F440,
+        0x1F442, 0x1F4FC, 0x1F4FF, 0x1F53D, 0x1F54B, 0x1F54E, 0x1F550, 0x1F567, 0x1F57A, 0x1F57A,
+        0x1F595, 0x1F596, 0x1F5A4, 0x1F5A4, 0x1F5FB, 0x1F64F, 0x1F680, 0x1F6C5, 0x1F6CC, 0x1F6CC,
+        0x1F6D0, 0x1F6D2, 0x1F6D5, 0x1F6D7, 0x1F6DC, 0x1F6DF, 0x1F6EB, 0x1F6EC, 0x1F6F4, 0x1F6FC,
+        0x1F7E0, 0x1F7EB, 0x1F7F0, 0x1F7F0, 0x1F90C, 0x1F93A, 0x1F93C, 0x1F945, 0x1F947, 0x1F9FF,
+        0x1FA70, 0x1FA7C, 0x1FA80, 0x1FA88, 0x1FA90, 0x1FABD, 0x1FABF, 0x1FAC5, 0x1FACE, 0x1FADB,
+        0x1FAE0, 0x1FAE8, 0x1FAF0, 0x1FAF8, 0x20000, 0x2FFFD, 0x30000, 0x3FFFD
+    };
+
+    /**
+     * The first stage: number of the block by the code point shifted by block size.
+     */
+    private static final char[] BLOCK_NUMBERS = new char[(Character.MAX_CODE_POINT + 1) >> BLOCK_SHIFT];
+
+    /**
+     * The second stage: widths of unique blocks, one after another.
+     */
+    private static final byte[] BLOCK_WIDTHS;
+
+    static {
+        Map<ByteBuffer, Integer> numbersByBlock = new HashMap<>();
+        var widths = new byte[BLOCK_SIZE];
+        var blockWidths = new byte[0];
+        var rangeIndex = 0;
+        for (var i = 0; i < BLOCK_NUMBERS.length; i++) {
+            var first = i << BLOCK_SHIFT;
+            var last = first + BLOCK_SIZE - 1;
+            //code points after plane 3 are not assigned or are private use, except tags and selectors of plane 14
+            if (first > 0x40000 && (first < 0xE0000 || first >= 0xE1000)) {
+                BLOCK_NUMBERS[i] = BLOCK_NUMBERS[0x40000 >> BLOCK_SHIFT];
+                continue;
+            }
+            Arrays.fill(widths, (byte) 1);
+            while (rangeIndex < WIDE_RANGES.length && WIDE_RANGES[rangeIndex + 1] < first) {
+                rangeIndex += 2;
+            }
+            for (var r = rangeIndex; r < WIDE_RANGES.length && WIDE_RANGES[r] <= last; r += 2) {
+                Arrays.fill(widths, Math.max(WIDE_RANGES[r], first) - first,
+                        Math.min(WIDE_RANGES[r + 1], last) - first + 1, (byte) 2);
+            }
+            //marks, format and control characters are only in these planes
+            if (first < 0x20000 || (first >= 0xE0000 && first < 0xE1000)) {
+                for (var j = 0; j < BLOCK_SIZE; j++) {
+                    if (isZeroWidth(first + j)) {
+                        widths[j] = 0;
+                    }
+                }
+            }
+            //most blocks are the same as the previous one, so they are not looked up in the map
+            if (i > 0 && Arrays.equals(widths, 0, BLOCK_SIZE, blockWidths,
+                    BLOCK_NUMBERS[i - 1] << BLOCK_SHIFT, (BLOCK_NUMBERS[i - 1] + 1) << BLOCK_SHIFT)) {
+                BLOCK_NUMBERS[i] = BLOCK_NUMBERS[i - 1];
+                continue;
+            }
+            var number = numbersByBlock.get(ByteBuffer.wrap(widths));
+            if (number == null) {
+                number = numbersByBlock.size();
+                numbersByBlock.put(ByteBuffer.wrap(widths.clone()), number);
+                blockWidths = Arrays.copyOf(blockWidths, blockWidths.length + BLOCK_SIZE);
+                System.arraycopy(widths, 0, blockWidths, number << BLOCK_SHIFT, BLOCK_SIZE);
+            }
+            BLOCK_NUMBERS[i] = (char) number.intValue();
+        }
+        BLOCK_WIDTHS = blockWidths;
+    }
+
+    /**
+     * Returns display width of the code point.
+     *
+     * @param codePoint
+     * @return 0, 1 or 2.
+     */
+    public static int getWidth(int codePoint) {
+        if (codePoint < 0 || codePoint > Character.MAX_CODE_POINT) {
+            throw new IllegalArgumentException("Illegal value of code point: " + codePoint);
+        }
+        return BLOCK_WIDTHS[(BLOCK_NUMBERS[codePoint >> BLOCK_SHIFT] << BLOCK_SHIFT) + (codePoint & (BLOCK_SIZE - 1))];
+    }
+
+    private static boolean isZeroWidth(int codePoint) {
+        //soft hyphen is shown when a line is broken after it
+        if (codePoint == 0x00AD) {
+            return false;
+        }
+        //medial vowels and final consonants of Hangul are combined with the initial consonant
+        if (codePoint >= 0x1160 && codePoint <= 0x11FF) {
+            return true;
+        }
+        switch (Character.getType(codePoint)) {
+            case Character.NON_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.FORMAT:
+            case Character.CONTROL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private final FunctionFinder finder;
+
+    private final Map<FunctionType, FunctionHandler> handlersByType;
+
+    /**
+     * Pool with cursors that skip functions without creating objects or null if the factory doesn't create them.
+     */
+    private final StringParserPool cursorPool;
+
+    public TextWidth(ParserFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("No factory provided");
+        }
+        this.finder = factory.getFunctionFinder();
+        this.handlersByType = factory.getFunctionHandlersByType();
+        if (factory.createCursor("") instanceof StateMachineCursorImpl) {
+            this.cursorPool = new StringParserPool(factory);
+        } else {
+            this.cursorPool = null;
+        }
+    }
+
+    /**
+     * Returns display width of text without control functions.
+     *
+     * @param text
+     * @return
+     */
+    public int getWidth(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        return this.getWidth(text, 0, text.length());
+    }
+
+    /**
+     * Returns display width of a part of text without control functions. Functions are searched only in this part.
+     *
+     * @param text
+     * @param startIndex
+     * @param endIndex exclusive.
+     * @return
+     */
+    public int getWidth(CharSequence text, int startIndex, int endIndex) {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        if (startIndex < 0 || startIndex > endIndex || endIndex > text.length()) {
+            throw new IllegalArgumentException("Illegal value of indexes: " + startIndex + ", " + endIndex);
+        }
+        var index = startIndex;
+        while (index < endIndex) {
+            var c = text.charAt(index);
+            if (c < 0x20 || (c >= 0x7F && c <= 0x9F)) {
+                break;
+            }
+            index++;
+        }
+        var width = measure(text, startIndex, index);
+        if (index < endIndex) {
+            if (this.cursorPool != null) {
+                width += this.getWidthByCursor(text, index, endIndex);
+            } else {
+                width += this.getWidthByScanner(text, index, endIndex);
+            }
+        }
+        return width;
+    }
+
+    private int getWidthByCursor(CharSequence text, int startIndex, int endIndex) {
+        var cursor = this.cursorPool.getCursor(new TextView(text, startIndex, endIndex));
+        var width = 0;
+        //indexes of the cursor are in the view
+        var index = 0;
+        FragmentType type;
+        while ((type = cursor.next()) != null) {
+            if (type == FragmentType.TEXT) {
+                width += measure(text, startIndex + cursor.getStartIndex(), startIndex + cursor.getEndIndex());
+            }
+            index = cursor.getEndIndex();
+        }
+        //cursor stops when a function can't be parsed, the rest of the text is checked as the stripper does it
+        if (startIndex + index < endIndex) {
+            width += this.getWidthByScanner(text, startIndex + index, endIndex);
+        }
+        return width;
+    }
+
+    private int getWidthByScanner(CharSequence text, int startIndex, int endIndex) {
+        var scanner = new FunctionScanner(finder, handlersByType, text, endIndex);
+        var width = 0;
+        var index = startIndex;
+        while (scanner.find(index)) {
+            width += measure(text, index, scanner.getFunctionStartIndex());
+            index = scanner.getFunctionEndIndex();
+        }
+        return width + measure(text, index, endIndex);
+    }
+
+    private static int measure(CharSequence text, int startIndex, int endIndex) {
+        var width = 0;
+        var index = startIndex;
+        while (index < endIndex) {
+            var c = text.charAt(index);
+            if (Character.isHighSurrogate(c) && index + 1 < endIndex
+                    && Character.isLowSurrogate(text.charAt(index + 1))) {
+                width += getWidth(Character.toCodePoint(c, text.charAt(index + 1)));
+                index += 2;
+            } else {
+                width += BLOCK_WIDTHS[(BLOCK_NUMBERS[c >> BLOCK_SHIFT] << BLOCK_SHIFT) + (c & (BLOCK_SIZE - 1))];
+                index++;
+            }
+        }
+        return width;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Char sequence that is backed by UTF-8 bytes of a heap or direct buffer. Every byte is one char, so all ISO 6429
+ * functions of the 7-bit environment, that consist of ASCII bytes, are found and parsed without decoding, and
+ * indexes of fragments are indexes of bytes. Bytes of text are decoded only when {@link #toString()} is called,
+ * for example, when {@code Fragment.getText()} is called. Pipelines that only forward bytes can use
+ * {@link #slice(int, int)} instead.
+ *
+ * <p>As bytes 0x80..0x9F are parts of multi-byte UTF-8 characters, such text can't be parsed in the 8-bit
+ * environment. Bytes are not copied, so they must not be modified while the text is used.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class Utf8Text implements CharSequence {
+
+    /**
+     * Independent view of the buffer, so position and limit of the original buffer are not used.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Array of heap buffer or null, chars are read from array directly as it is faster.
+     */
+    private final byte[] array;
+
+    /**
+     * Index in array of the first byte of the buffer.
+     */
+    private final int arrayOffset;
+
+    private final int startIndex;
+
+    private final int endIndex;
+
+    /**
+     * Constructor for all bytes of the array.
+     *
+     * @param bytes
+     */
+    public Utf8Text(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Constructor for remaining bytes of the buffer. Position and limit of the buffer are not changed.
+     *
+     * @param buffer
+     */
+    public Utf8Text(ByteBuffer buffer) {
+        this(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN), buffer.position(), buffer.limit());
+    }
+
+    private Utf8Text(ByteBuffer buffer, int startIndex, int endIndex) {
+        this.buffer = buffer;
+        if (buffer.hasArray()) {
+            this.array = buffer.array();
+            this.arrayOffset = buffer.arrayOffset();
+        } else {
+            this.array = null;
+            this.arrayOffset = 0;
+        }
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length() {
+        return endIndex - startIndex;
+    }
+
+    /**
+     * Returns byte with the given index as char, so chars that are greater than 0x7F are parts of UTF-8 sequences.
+     *
+     * @param index
+     * @return
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= endIndex - startIndex) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of length " + (endIndex - startIndex));
+        }
+        if (array != null) {
+            return (char) (array[arrayOffset + startIndex + index] & 0xFF);
+        }
+        return (char) (buffer.get(startIndex + index) & 0xFF);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        this.checkRange(start, end);
+        return new Utf8Text(buffer, startIndex + start, startIndex + end);
+    }
+
+    /**
+     * Returns read-only buffer with the bytes of the given range. Bytes are not copied.
+     *
+     * @param start start index, inclusive.
+     * @param end end index, exclusive.
+     * @return
+     */
+    public ByteBuffer slice(int start, int end) {
+        this.checkRange(start, end);
+        return buffer.asReadOnlyBuffer().limit(startIndex + end).position(startIndex + start).slice();
+    }
+
+    /**
+     * Decodes bytes. Malformed sequences are replaced with the replacement character.
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        if (array != null) {
+            return new String(array, arrayOffset + startIndex, endIndex - startIndex, StandardCharsets.UTF_8);
+        }
+        var bytes = new byte[endIndex - startIndex];
+        buffer.duplicate().position(startIndex).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns buffer with little-endian byte order, that must not be modified.
+     *
+     * @return
+     */
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns index in the buffer of the first char.
+     *
+     * @return
+     */
+    int getStartIndex() {
+        return startIndex;
+    }
+
+    private void checkRange(int start, int end) {
+        if (start < 0 || end > endIndex - startIndex || start > end) {
+            throw new IndexOutOfBoundsException("Illegal range [" + start + ", " + end + ") for length "
+                    + (endIndex - startIndex));
+        }
+    }
+}
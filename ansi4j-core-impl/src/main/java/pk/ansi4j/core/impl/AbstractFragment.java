@@ -26,17 +26,48 @@ abstract class AbstractFragment implements Fragment {
 
     private final FragmentType type;
 
-    private final String text;
+    /**
+     * The text that contains fragment text. It can be the whole text or a piece of it. It is released when the string
+     * is created, so a kept fragment doesn't keep the whole text. It is written after the string, so if it is null,
+     * then the string is visible.
+     */
+    private volatile CharSequence source;
+
+    /**
+     * Start index of the fragment text in source, inclusive.
+     */
+    private final int sourceStartIndex;
 
     private final int startIndex;
 
     private final int endIndex;
 
+    /**
+     * String is created only when it is requested.
+     */
+    private String text;
+
     public AbstractFragment(FragmentType type, String text, int currentIndex) {
-        this.type = type;
+        this(type, text, 0, text.length(), currentIndex);
         this.text = text;
+    }
+
+    /**
+     * Constructor that doesn't copy fragment text.
+     *
+     * @param type
+     * @param source text that contains fragment text, it must not be modified.
+     * @param sourceStartIndex start index of fragment text in source, inclusive.
+     * @param sourceEndIndex end index of fragment text in source, exclusive.
+     * @param currentIndex index of fragment in the whole text.
+     */
+    public AbstractFragment(FragmentType type, CharSequence source, int sourceStartIndex, int sourceEndIndex,
+            int currentIndex) {
+        this.type = type;
+        this.source = source;
+        this.sourceStartIndex = sourceStartIndex;
         this.startIndex = currentIndex;
-        this.endIndex = currentIndex + text.length();
+        this.endIndex = currentIndex + (sourceEndIndex - sourceStartIndex);
     }
 
     /**
@@ -68,7 +99,35 @@ abstract class AbstractFragment implements Fragment {
      */
     @Override
     public String getText() {
-        return text;
+        //race is possible but harmless as strings are equal
+        var t = this.text;
+        if (t != null) {
+            return t;
+        }
+        var s = this.source;
+        if (s == null) {
+            return this.text;
+        }
+        t = s.subSequence(sourceStartIndex, sourceStartIndex + (endIndex - startIndex)).toString();
+        this.text = t;
+        this.source = null;
+        return t;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence getTextView() {
+        var t = this.text;
+        if (t != null) {
+            return t;
+        }
+        var s = this.source;
+        if (s == null) {
+            return this.text;
+        }
+        return new TextView(s, sourceStartIndex, sourceStartIndex + (endIndex - startIndex));
     }
 
     /**
@@ -76,7 +135,7 @@ abstract class AbstractFragment implements Fragment {
      */
     @Override
     public String toString() {
-        return "AbstractFragmentImpl{" + "type=" + type + ", text=" + text + ", startIndex=" + startIndex
+        return "AbstractFragmentImpl{" + "type=" + type + ", text=" + getText() + ", startIndex=" + startIndex
                 + ", endIndex=" + endIndex + '}';
     }
 }
@@ -17,20 +17,20 @@ package pk.ansi4j.core.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.ControlCharacterScanner;
 import pk.ansi4j.core.api.FailureReason;
 import pk.ansi4j.core.api.Fragment;
-import pk.ansi4j.core.api.FunctionFinderResult;
 import pk.ansi4j.core.api.FunctionFragment;
-import pk.ansi4j.core.api.Parser;
 import pk.ansi4j.core.api.ParserFactory;
-import pk.ansi4j.core.api.FunctionHandler;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
 import pk.ansi4j.core.api.FunctionHandlerResult;
+import pk.ansi4j.core.api.utils.Characters;
 
 /**
  *
  * @author Pavel Kastornyy
  */
-abstract class AbstractParser implements Parser {
+abstract class AbstractParser {
 
     protected static enum FunctionProcessingResult {
 
@@ -40,32 +40,88 @@ abstract class AbstractParser implements Parser {
     private static final Logger logger = LoggerFactory.getLogger(AbstractParser.class);
 
     /**
-     * Text can never be null.
+     * Text can never be null. This text is never modified by the parser, parsing position is kept in the offset.
      */
-    private String text;
+    private CharSequence text;
+
+    /**
+     * Index in text field. Everything before offset has been parsed, everything after offset hasn't been parsed.
+     */
+    private int offset = 0;
 
     private final ParserFactory factory;
 
-    private FunctionFinderResult functionFinderResult;
+    /**
+     * Finder saves found function in this holder, so nothing is created for every found function.
+     */
+    private final MutableFunctionFinderResultImpl finderResult = new MutableFunctionFinderResultImpl();
+
+    /**
+     * If true, then finder result holds found function that hasn't been returned yet.
+     */
+    private boolean functionFound = false;
 
     private FunctionHandlerResult functionHandlerResult;
 
     /**
-     * As found function changes as text before function is parsed we use this variable.
+     * As found function changes as text before function is parsed we use this variable. This is an index in
+     * text field.
      */
     private int foundFunctionIndex = -1;
 
     private int currentIndex = 0;
 
-    public AbstractParser(String text, ParserFactory factory) {
+    /**
+     * Finder finds ESC at the end of text as ESC function, so when text is appended by pieces such ESC is kept till
+     * the next piece, where it can start an escape sequence.
+     */
+    private boolean escapeKept = false;
+
+    /**
+     * Scanner that checks the whole text before parsing or null if there is no pre-scan.
+     */
+    private final ControlCharacterScanner preScanner;
+
+    /**
+     * If true, then pre-scan found no control characters and the whole text is returned as one fragment.
+     */
+    private boolean plainText;
+
+    private final PendingLimit pendingLimit;
+
+    /**
+     * Index in text field of the function that exceeded pending limit and must be parsed without waiting for the
+     * rest of the text or -1.
+     */
+    private int overflowIndex = -1;
+
+    /**
+     * Index in text field of the function which handler threw exception and which must be parsed as text or -1.
+     */
+    private int skippedFunctionIndex = -1;
+
+    public AbstractParser(CharSequence text, ParserFactory factory) {
+        this(text, factory, null);
+    }
+
+    public AbstractParser(CharSequence text, ParserFactory factory, ControlCharacterScanner preScanner) {
+        this(text, factory, preScanner, PendingLimit.NONE);
+    }
+
+    public AbstractParser(CharSequence text, ParserFactory factory, ControlCharacterScanner preScanner,
+            PendingLimit pendingLimit) {
         this.text = text;
         this.factory = factory;
+        this.preScanner = preScanner;
+        this.plainText = TextUtils.isPlainText(text, preScanner);
+        this.pendingLimit = pendingLimit;
     }
 
     /**
-     * {@inheritDoc}
+     * Returns index in the whole text of the first character that hasn't been returned.
+     *
+     * @return
      */
-    @Override
     public int getCurrentIndex() {
         return currentIndex;
     }
@@ -82,14 +138,21 @@ abstract class AbstractParser implements Parser {
      * @return
      */
     protected Fragment doParse() {
+        if (plainText) {
+            //there are no functions, finder isn't used
+            this.plainText = false;
+            var t = TextUtils.createPlainTextFragment(text, currentIndex, factory.getTextHandler());
+            this.updateTextData(text.length());
+            return t;
+        }
         if (functionHandlerResult != null) {
             var functionFragment = this.functionHandlerResult.getFragment().get();
-            this.updateTextData(functionFragment.getText().length());
-            this.functionFinderResult = null;
+            this.updateTextData(functionFragment.getEndIndex() - functionFragment.getStartIndex());
+            this.functionFound = false;
             this.functionHandlerResult = null;
             return functionFragment;
         }
-        if (text.length() == 0) {
+        if (offset == text.length()) {
             return null;
         }
         var functionProcessingResult = this.findAndParseFunction();
@@ -97,36 +160,37 @@ abstract class AbstractParser implements Parser {
         var currentIndex = this.getCurrentIndex();
         if (functionProcessingResult == FunctionProcessingResult.NOT_FOUND) {
             //there are no functions
-            var t = factory.getTextHandler().handle(text, currentIndex).getFragment().get();
-            this.updateTextData(text.length());
+            var t = factory.getTextHandler().handle(text, offset, text.length(), currentIndex).getFragment().get();
+            this.updateTextData(text.length() - offset);
             return t;
         } else if (functionProcessingResult == FunctionProcessingResult.FOUND_BUT_DELAYED) {
             var functionIndex = foundFunctionIndex;
-            if (functionIndex > 0) {
+            if (functionIndex > offset) {
                 //there is a text before function
-                var piece = text.substring(0, functionIndex);
-                var textFragment = factory.getTextHandler().handle(piece, currentIndex).getFragment().get();
-                this.updateTextData(piece.length());
-                foundFunctionIndex = 0;
+                var textFragment = factory.getTextHandler().handle(text, offset, functionIndex, currentIndex)
+                        .getFragment().get();
+                this.updateTextData(functionIndex - offset);
                 return textFragment;
+            } else if (this.pendingLimit.isExceeded(text.length() - offset)) {
+                return this.handlePendingOverflow();
             } else {
                 return null;
             }
         } else {
             //there is a function
             var functionIndex = foundFunctionIndex;
-            if (functionIndex == 0) {
+            if (functionIndex == offset) {
                 //there is no text before function
                 var functionFragment = this.functionHandlerResult.getFragment().get();
-                this.updateTextData(functionFragment.getText().length());
-                this.functionFinderResult = null;
+                this.updateTextData(functionFragment.getEndIndex() - functionFragment.getStartIndex());
+                this.functionFound = false;
                 this.functionHandlerResult = null;
                 return functionFragment;
             } else {
                 //there is a text before function
-                var piece = text.substring(0, functionIndex);
-                var textFragment = factory.getTextHandler().handle(piece, currentIndex).getFragment().get();
-                this.updateTextData(piece.length());
+                var textFragment = factory.getTextHandler().handle(text, offset, functionIndex, currentIndex)
+                        .getFragment().get();
+                this.updateTextData(functionIndex - offset);
                 return textFragment;
             }
         }
@@ -139,68 +203,183 @@ abstract class AbstractParser implements Parser {
     protected FunctionProcessingResult findAndParseFunction() {
         var finder = factory.getFunctionFinder();
         var handlerByType = factory.getFunctionHandlersByType();
-        int internalIndex = - 1;
+        int internalIndex = offset - 1;
         while (true) {
             internalIndex = internalIndex + 1;
-            FunctionFinderResult finderResult = null;
-            //we can use save finder result not to find again
-            if (functionFinderResult == null) {
+            //we can use saved finder result not to find again
+            if (!this.functionFound) {
                 this.foundFunctionIndex = -1;
-                var finderResultOptional = finder.find(internalIndex, text);
-                if (finderResultOptional.isEmpty()) {
+                if (!finder.find(text, internalIndex, text.length(), this.finderResult)) {
                     return FunctionProcessingResult.NOT_FOUND;
-                } else {
-                    finderResult = finderResultOptional.get();
-                    foundFunctionIndex = finderResult.getFunctionIndex();
                 }
-            } else {
-                finderResult = this.functionFinderResult;
+                this.functionFound = true;
+                this.foundFunctionIndex = this.finderResult.getFunctionIndex();
             }
             internalIndex = foundFunctionIndex;
-            var handler = handlerByType.get(finderResult.getFunctionType());
+            var handler = handlerByType.get(this.finderResult.getFunctionType());
+            if (internalIndex == this.skippedFunctionIndex) {
+                this.skippedFunctionIndex = -1;
+                handler = null;
+            }
             if (handler == null) {
-                this.functionFinderResult = null;
+                this.functionFound = false;
                 continue;
             }
-            var piece = text.substring(internalIndex);
-            var handlerResult = handler.handle(piece, finderResult.getFunction(), internalIndex + currentIndex);
+            var handlerResult = handler.handle(text, internalIndex, text.length(), this.finderResult.getFunction(),
+                    currentIndex + internalIndex - offset);
             var resultFragment = handlerResult.getFragment();
             if (resultFragment.isEmpty()) {
-                if (this.delayFunctionParsing(handlerResult.getFailureReason())) {
-                    this.functionFinderResult = finderResult;
+                if (internalIndex != this.overflowIndex
+                        && this.delayFunctionParsing(handlerResult.getFailureReason())) {
                     this.functionHandlerResult = null;
                     return FunctionProcessingResult.FOUND_BUT_DELAYED;
                 } else {
-                    this.logFunctionFailure(finderResult, handlerResult);
+                    this.logFunctionFailure(handlerResult);
+                    this.functionFound = false;
                     continue;
                 }
             }
-            this.functionFinderResult = finderResult;
             this.functionHandlerResult = handlerResult;
             return FunctionProcessingResult.FOUND_AND_HANDLED;
         }
     }
 
+    /**
+     * Starts parsing of the new text. Finder result holder is kept. The new text is pre-scanned if pre-scan is on.
+     *
+     * @param text
+     */
+    protected void resetText(CharSequence text) {
+        this.resetText(text, 0);
+    }
+
+    /**
+     * Starts parsing of the new text which first character has the given index.
+     *
+     * @param text
+     * @param currentIndex
+     */
+    protected void resetText(CharSequence text, int currentIndex) {
+        this.text = text;
+        this.offset = 0;
+        this.functionFound = false;
+        this.functionHandlerResult = null;
+        this.foundFunctionIndex = -1;
+        this.skippedFunctionIndex = -1;
+        this.escapeKept = false;
+        this.overflowIndex = -1;
+        this.currentIndex = currentIndex;
+        this.plainText = TextUtils.isPlainText(text, preScanner);
+    }
+
+    /**
+     * Moves parsing position forward.
+     *
+     * @param length number of parsed characters.
+     */
     protected void updateTextData(int length) {
-        text = text.substring(length);
+        offset += length;
         currentIndex += length;
     }
 
-    protected String getText() {
-        return text;
+    /**
+     * Adds text to the end of not parsed text. Parsed text is released.
+     *
+     * @param addition
+     */
+    protected void appendText(String addition) {
+        text = text.subSequence(offset, text.length()) + addition;
+        if (foundFunctionIndex != -1) {
+            foundFunctionIndex -= offset;
+        }
+        offset = 0;
+    }
+
+    /**
+     * Adds piece of text that can be followed by other pieces. ESC at the end of the piece is kept.
+     *
+     * @param piece
+     */
+    protected void appendPiece(String piece) {
+        if (this.escapeKept) {
+            piece = Characters.ESC + piece;
+            this.escapeKept = false;
+        }
+        if (!piece.isEmpty() && piece.charAt(piece.length() - 1) == Characters.ESC) {
+            piece = piece.substring(0, piece.length() - 1);
+            this.escapeKept = true;
+        }
+        if (!piece.isEmpty()) {
+            this.appendText(piece);
+        }
     }
 
-    protected void setText(String text) {
-        this.text = text;
+    /**
+     * Adds kept ESC to text, when there will be no more pieces.
+     *
+     * @return true if ESC was kept.
+     */
+    protected boolean releaseEscape() {
+        if (!this.escapeKept) {
+            return false;
+        }
+        this.escapeKept = false;
+        this.appendText(String.valueOf(Characters.ESC));
+        return true;
+    }
+
+    /**
+     * Returns true if there is text that waits for the rest of the function, including kept ESC.
+     *
+     * @return
+     */
+    protected boolean hasPendingText() {
+        return this.escapeKept || offset < text.length();
     }
 
     protected ParserFactory getFactory() {
         return factory;
     }
 
-    protected void logFunctionFailure(FunctionFinderResult finderResult, FunctionHandlerResult handlerResult) {
+    /**
+     * Makes parsing continue after an exception thrown by the handler of the found function: the function is
+     * skipped, so its first character becomes text.
+     *
+     * @return true if there was a function that is skipped.
+     */
+    protected boolean skipFailedFunction() {
+        if (!this.functionFound || this.functionHandlerResult != null) {
+            return false;
+        }
+        this.skippedFunctionIndex = foundFunctionIndex;
+        return true;
+    }
+
+    /**
+     * Applies pending limit to the function at offset that waits for the rest of the text.
+     *
+     * @return fragment or null if function was dropped.
+     */
+    private Fragment handlePendingOverflow() {
+        var pendingSize = text.length() - offset;
+        var policy = this.pendingLimit.apply(pendingSize, currentIndex);
+        this.functionFound = false;
+        if (policy == PendingOverflowPolicy.DROP_FUNCTION) {
+            this.updateTextData(pendingSize);
+            return null;
+        }
+        //function is parsed as if there were no more text
+        this.overflowIndex = offset;
+        try {
+            return this.doParse();
+        } finally {
+            this.overflowIndex = -1;
+        }
+    }
+
+    protected void logFunctionFailure(FunctionHandlerResult handlerResult) {
         logger.warn("Couldn't parse function={} at index={}. Reason is {}",
-                finderResult.getFunction(), this.getCurrentIndex() + finderResult.getFunctionIndex(),
+                finderResult.getFunction(), this.getCurrentIndex() + foundFunctionIndex - offset,
                 handlerResult.getFailureReason());
     }
 }
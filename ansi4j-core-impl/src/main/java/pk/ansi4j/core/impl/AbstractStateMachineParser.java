@@ -0,0 +1,969 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.ArgumentView;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.ControlStringVisitor;
+import pk.ansi4j.core.api.FailureReason;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.FragmentVisitor;
+import pk.ansi4j.core.api.FunctionFailureReason;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowException;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+import pk.ansi4j.core.api.function.FunctionArgument;
+import pk.ansi4j.core.api.iso6429.C0ControlFunction;
+import pk.ansi4j.core.api.iso6429.ControlFunction;
+import pk.ansi4j.core.api.iso6429.ControlFunctionType;
+import pk.ansi4j.core.function.impl.FunctionArgumentImpl;
+import static pk.ansi4j.core.impl.StateMachineTable.*;
+
+/**
+ * Parser that finds and parses functions in one pass. Every character is processed once by the action from
+ * {@link StateMachineTable} for the current state. Characters are processed again only when a function turns out to
+ * be unknown or not terminated, as in this case the first character of the function is text and parsing is
+ * continued from the next character. Fragments are the same as ones that are created by the default handlers.
+ *
+ * Scanning reports events (text or function) that are either converted to fragments or passed to
+ * {@link FragmentVisitor} or read by cursor with a reusable view of arguments, so no objects are created for them.
+ * In streaming mode control strings are reported by parts: opening delimiter, chunks of payload that were scanned
+ * and the end, so payload is released as soon as it is reported.
+ *
+ * @author Pavel Kastornyy
+ */
+abstract class AbstractStateMachineParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractStateMachineParser.class);
+
+    private static final int NO_EVENT = 0;
+
+    private static final int TEXT_EVENT = 1;
+
+    private static final int FUNCTION_EVENT = 2;
+
+    private static final int STRING_START_EVENT = 3;
+
+    private static final int STRING_CHUNK_EVENT = 4;
+
+    private static final int STRING_END_EVENT = 5;
+
+    private static final int NO_ARGUMENTS = 0;
+
+    private static final int SEQUENCE_ARGUMENTS = 1;
+
+    private static final int STRING_ARGUMENTS = 2;
+
+    /**
+     * Control sequence argument with more digits can be out of int range.
+     */
+    private static final int MAX_SAFE_DIGIT_COUNT = 9;
+
+    private final ParserFactory factory;
+
+    private final StateMachineTable table;
+
+    /**
+     * Text can never be null. This text is never modified by the parser, parsing position is kept in the offset.
+     */
+    private CharSequence text;
+
+    /**
+     * Index in text field. Everything before offset has been returned as fragments.
+     */
+    private int offset = 0;
+
+    /**
+     * Index in text field of the next character that will be processed.
+     */
+    private int scanIndex = 0;
+
+    private int state = GROUND;
+
+    /**
+     * Index in text field of the function that is being parsed.
+     */
+    private int functionIndex = -1;
+
+    /**
+     * Introducer of the function that is being parsed, for example, CSI or opening delimiter.
+     */
+    private ControlFunction function;
+
+    /**
+     * Index in text field where arguments of the function start.
+     */
+    private int argumentIndex;
+
+    /**
+     * Last intermediate byte of control sequence or 0.
+     */
+    private char intermediateByte;
+
+    /**
+     * Indexes of argument separators of the function in text field.
+     */
+    private int[] separatorIndexes = new int[16];
+
+    private int separatorCount;
+
+    /**
+     * If true, then the function was found after a text and it is returned after the text.
+     */
+    private boolean functionPending;
+
+    /**
+     * Parsed function.
+     */
+    private ControlFunction parsedFunction;
+
+    /**
+     * Index in text field where parsed function ends, exclusive.
+     */
+    private int parsedFunctionEndIndex;
+
+    /**
+     * Type of arguments of parsed function.
+     */
+    private int argumentType;
+
+    /**
+     * Index in text field where the last argument of parsed function ends, exclusive.
+     */
+    private int argumentEndIndex;
+
+    /**
+     * The last event.
+     */
+    private int event = NO_EVENT;
+
+    /**
+     * Start index of the last event in text field, inclusive.
+     */
+    private int eventStartIndex;
+
+    /**
+     * End index of the last event in text field, exclusive.
+     */
+    private int eventEndIndex;
+
+    /**
+     * Index of the last event in the whole text.
+     */
+    private int eventCurrentIndex;
+
+    private final ArgumentView argumentView = new ArgumentViewImpl();
+
+    private int currentIndex = 0;
+
+    /**
+     * Scanner that checks the whole text before parsing or null if there is no pre-scan.
+     */
+    private final ControlCharacterScanner preScanner;
+
+    /**
+     * If true, then pre-scan found no control characters and the whole text is one text event.
+     */
+    private boolean plainText;
+
+    private final PendingLimit pendingLimit;
+
+    /**
+     * If true, then control strings are reported by parts (start, chunks of payload, end) and are not kept.
+     */
+    private final boolean streamingStrings;
+
+    /**
+     * If true, then the start of control string was found after a text and it is reported after the text.
+     */
+    private boolean stringStartPending;
+
+    /**
+     * If true, then the end of control string was found after a chunk and it is reported after the chunk.
+     */
+    private boolean stringEndPending;
+
+    /**
+     * Index in text field where the control string that is being ended ends, exclusive.
+     */
+    private int stringEndIndex;
+
+    /**
+     * If true, then the last ended control string had terminator.
+     */
+    private boolean stringTerminated;
+
+    AbstractStateMachineParser(CharSequence text, ParserFactory factory, StateMachineTable table) {
+        this(text, factory, table, null);
+    }
+
+    AbstractStateMachineParser(CharSequence text, ParserFactory factory, StateMachineTable table,
+            ControlCharacterScanner preScanner) {
+        this(text, factory, table, preScanner, PendingLimit.NONE);
+    }
+
+    AbstractStateMachineParser(CharSequence text, ParserFactory factory, StateMachineTable table,
+            ControlCharacterScanner preScanner, PendingLimit pendingLimit) {
+        this(text, factory, table, preScanner, pendingLimit, false);
+    }
+
+    AbstractStateMachineParser(CharSequence text, ParserFactory factory, StateMachineTable table,
+            ControlCharacterScanner preScanner, PendingLimit pendingLimit, boolean streamingStrings) {
+        this.text = text;
+        this.factory = factory;
+        this.table = table;
+        this.preScanner = preScanner;
+        this.plainText = TextUtils.isPlainText(text, preScanner);
+        this.pendingLimit = pendingLimit;
+        this.streamingStrings = streamingStrings;
+    }
+
+    /**
+     * Returns index in the whole text of the first character that hasn't been returned.
+     *
+     * @return
+     */
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Returns true if there will be no more text, so, function that isn't terminated can't be parsed.
+     *
+     * @return
+     */
+    protected abstract boolean isEndOfText();
+
+    /**
+     * Parses text field and returns next fragment.
+     *
+     * @return fragment or null if there are no complete fragments in text field.
+     */
+    protected Fragment doParse() {
+        if (this.plainText) {
+            this.plainText = false;
+            scanIndex = text.length();
+            this.setEvent(scanIndex);
+            this.event = TEXT_EVENT;
+            return TextUtils.createPlainTextFragment(text, eventCurrentIndex, factory.getTextHandler());
+        }
+        var event = this.scan();
+        if (event == TEXT_EVENT) {
+            return factory.getTextHandler().handle(text, eventStartIndex, eventEndIndex, eventCurrentIndex)
+                    .getFragment().get();
+        } else if (event == FUNCTION_EVENT) {
+            return new FunctionFragmentImpl(text, eventStartIndex, eventEndIndex, eventCurrentIndex,
+                    parsedFunction, this.createArguments());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Parses text field and passes all complete text and functions to visitor. Errors of parsing are logged and
+     * parsing is stopped, exceptions of visitor are thrown.
+     *
+     * @param visitor
+     */
+    protected void doVisit(FragmentVisitor visitor) {
+        while (true) {
+            var type = this.doNext();
+            if (type == FragmentType.TEXT) {
+                visitor.onText(text, eventStartIndex, eventEndIndex);
+            } else if (type == FragmentType.FUNCTION) {
+                visitor.onFunction(parsedFunction, eventStartIndex, eventEndIndex, argumentView);
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parses text field and passes all complete text and functions to visitor, control strings are passed by parts
+     * as soon as they are scanned. Errors of parsing are logged and the failed function is parsed as text,
+     * exceptions of visitor are thrown.
+     *
+     * @param visitor
+     */
+    protected void doStream(ControlStringVisitor visitor) {
+        while (true) {
+            try {
+                this.scan();
+            } catch (PendingOverflowException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Error parsing text", ex);
+                if (this.skipFailedFunction()) {
+                    continue;
+                }
+                return;
+            }
+            switch (this.event) {
+                case TEXT_EVENT:
+                    visitor.onText(text, eventStartIndex, eventEndIndex);
+                    break;
+                case FUNCTION_EVENT:
+                    visitor.onFunction(parsedFunction, eventStartIndex, eventEndIndex, argumentView);
+                    break;
+                case STRING_START_EVENT:
+                    visitor.onControlStringStart(function);
+                    break;
+                case STRING_CHUNK_EVENT:
+                    visitor.onControlStringChunk(text, eventStartIndex, eventEndIndex);
+                    break;
+                case STRING_END_EVENT:
+                    visitor.onControlStringEnd(stringTerminated);
+                    break;
+                default:
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Parses text field till the next complete text or function, that can be read by getters. Errors of parsing are
+     * logged and parsing is stopped.
+     *
+     * @return type of fragment or null if there are no complete fragments in text field.
+     */
+    protected FragmentType doNext() {
+        try {
+            this.scan();
+        } catch (Exception ex) {
+            logger.error("Error parsing text", ex);
+            this.event = NO_EVENT;
+        }
+        if (this.event == TEXT_EVENT) {
+            return FragmentType.TEXT;
+        } else if (this.event == FUNCTION_EVENT) {
+            return FragmentType.FUNCTION;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns function of the last event or null.
+     *
+     * @return
+     */
+    protected ControlFunction getEventFunction() {
+        return event == FUNCTION_EVENT ? parsedFunction : null;
+    }
+
+    /**
+     * Returns start index of the last event in the whole text.
+     *
+     * @return
+     */
+    protected int getEventStartIndex() {
+        return eventCurrentIndex;
+    }
+
+    /**
+     * Returns end index of the last event in the whole text.
+     *
+     * @return
+     */
+    protected int getEventEndIndex() {
+        return eventCurrentIndex + eventEndIndex - eventStartIndex;
+    }
+
+    /**
+     * Returns view of arguments of the last event, that is empty for text.
+     *
+     * @return
+     */
+    protected ArgumentView getEventArguments() {
+        return argumentView;
+    }
+
+    /**
+     * Scans text field till the next event.
+     *
+     * @return event or NO_EVENT if there are no complete fragments in text field.
+     */
+    private int scan() {
+        this.event = this.scanEvent();
+        return this.event;
+    }
+
+    private int scanEvent() {
+        if (this.functionPending) {
+            this.functionPending = false;
+            return this.handleFunction();
+        }
+        if (this.stringStartPending) {
+            this.stringStartPending = false;
+            return this.handleStringStart();
+        }
+        if (this.stringEndPending) {
+            this.stringEndPending = false;
+            return this.handleStringEnd();
+        }
+        final var length = text.length();
+        if (this.plainText) {
+            //there are no functions, table isn't used
+            this.plainText = false;
+            scanIndex = length;
+        }
+        while (true) {
+            if (scanIndex == length) {
+                if (state == GROUND) {
+                    return scanIndex > offset ? this.handleText(scanIndex) : NO_EVENT;
+                }
+                if (this.streamingStrings && (state == CONTROL_STRING || state == CONTROL_STRING_ESCAPE)) {
+                    if (this.isEndOfText()) {
+                        return this.endString(length, length, false);
+                    }
+                    //ESC can start string terminator, so it waits for the next character
+                    var chunkEndIndex = state == CONTROL_STRING_ESCAPE ? length - 1 : length;
+                    return chunkEndIndex > offset ? this.handleStringChunk(chunkEndIndex) : NO_EVENT;
+                }
+                if (!this.isEndOfText()) {
+                    //text before function is returned, function waits for the rest of the text
+                    if (functionIndex > offset) {
+                        return this.handleText(functionIndex);
+                    }
+                    if (!this.pendingLimit.isExceeded(length - functionIndex)) {
+                        return NO_EVENT;
+                    }
+                    var policy = this.pendingLimit.apply(length - functionIndex, currentIndex);
+                    if (policy == PendingOverflowPolicy.DROP_FUNCTION) {
+                        state = GROUND;
+                        functionIndex = -1;
+                        this.updateTextData(length - offset);
+                        return NO_EVENT;
+                    }
+                    this.handleFailure(FunctionFailureReason.PENDING_OVERFLOW);
+                    continue;
+                }
+                if (state == ESCAPE) {
+                    //there is nothing after ESC
+                    return this.handleFunction(C0ControlFunction.ESC_ESCAPE, functionIndex + 1, NO_ARGUMENTS, 0);
+                }
+                this.handleFailure(FunctionFailureReason.NO_END_OF_FUNCTION);
+                continue;
+            }
+            final char c = text.charAt(scanIndex);
+            final byte action = table.getAction(state, c);
+            switch (state) {
+                case GROUND:
+                    if (action == NONE) {
+                        scanIndex++;
+                    } else if (action == FUNCTION) {
+                        functionIndex = scanIndex;
+                        return this.handleFunction(table.getFunction(state, c), scanIndex + 1, NO_ARGUMENTS, 0);
+                    } else {
+                        this.startFunction(table.getFunction(state, c), action);
+                        if (this.streamingStrings && state == CONTROL_STRING) {
+                            return this.startString();
+                        }
+                    }
+                    break;
+                case ESCAPE:
+                    if (action == NONE) {
+                        //ESC is C0 function and the character is processed again in ground state
+                        return this.handleFunction(C0ControlFunction.ESC_ESCAPE, scanIndex, NO_ARGUMENTS, 0);
+                    } else if (action == FUNCTION) {
+                        return this.handleFunction(table.getFunction(state, c), scanIndex + 1, NO_ARGUMENTS, 0);
+                    } else {
+                        this.startFunction(table.getFunction(state, c), action);
+                        if (this.streamingStrings && state == CONTROL_STRING) {
+                            return this.startString();
+                        }
+                    }
+                    break;
+                case CONTROL_SEQUENCE:
+                    if (action == SEPARATOR) {
+                        this.addSeparator(scanIndex);
+                    } else if (action == INTERMEDIATE_BYTE) {
+                        intermediateByte = c;
+                    } else if (action == FINAL_BYTE) {
+                        var sequence = table.getControlSequence(intermediateByte, c);
+                        if (sequence == null) {
+                            this.handleFailure(FunctionFailureReason.UNKNOWN_FUNCTION);
+                            break;
+                        }
+                        this.checkSequenceArguments(sequence, scanIndex);
+                        return this.handleFunction(sequence, scanIndex + 1, SEQUENCE_ARGUMENTS, scanIndex);
+                    }
+                    scanIndex++;
+                    break;
+                case CONTROL_STRING:
+                    if (action == SEPARATOR) {
+                        this.addSeparator(scanIndex);
+                    } else if (action == STRING_ESCAPE) {
+                        state = CONTROL_STRING_ESCAPE;
+                    } else if (action == STRING_TERMINATOR) {
+                        if (this.streamingStrings) {
+                            return this.endString(scanIndex, scanIndex + 1, true);
+                        }
+                        return this.handleFunction(function, scanIndex + 1, STRING_ARGUMENTS, scanIndex + 1);
+                    }
+                    scanIndex++;
+                    break;
+                case CONTROL_STRING_ESCAPE:
+                    if (action == STRING_TERMINATOR) {
+                        if (this.streamingStrings) {
+                            return this.endString(scanIndex - 1, scanIndex + 1, true);
+                        }
+                        return this.handleFunction(function, scanIndex + 1, STRING_ARGUMENTS, scanIndex + 1);
+                    }
+                    //the character is processed again in control string state
+                    state = CONTROL_STRING;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown state " + state);
+            }
+        }
+    }
+
+    /**
+     * Starts parsing of the new text. Array of separator indexes is kept. The new text is pre-scanned if pre-scan
+     * is on.
+     *
+     * @param text
+     */
+    protected void resetText(CharSequence text) {
+        this.resetText(text, 0);
+    }
+
+    /**
+     * Starts parsing of the new text which first character has the given index.
+     *
+     * @param text
+     * @param currentIndex
+     */
+    protected void resetText(CharSequence text, int currentIndex) {
+        this.text = text;
+        this.offset = 0;
+        this.scanIndex = 0;
+        this.state = GROUND;
+        this.functionIndex = -1;
+        this.function = null;
+        this.argumentIndex = 0;
+        this.intermediateByte = 0;
+        this.separatorCount = 0;
+        this.functionPending = false;
+        this.stringStartPending = false;
+        this.stringEndPending = false;
+        this.parsedFunction = null;
+        this.event = NO_EVENT;
+        this.currentIndex = currentIndex;
+        this.plainText = TextUtils.isPlainText(text, preScanner);
+    }
+
+    /**
+     * Adds text to the end of not parsed text. Returned text is released.
+     *
+     * @param addition
+     */
+    protected void appendText(String addition) {
+        text = text.subSequence(offset, text.length()) + addition;
+        scanIndex -= offset;
+        if (functionIndex != -1) {
+            functionIndex -= offset;
+        }
+        argumentIndex -= offset;
+        for (var i = 0; i < separatorCount; i++) {
+            separatorIndexes[i] -= offset;
+        }
+        offset = 0;
+    }
+
+    /**
+     * Returns true if there is text that wasn't returned as events, for example, a function that waits for the rest.
+     *
+     * @return
+     */
+    protected boolean hasPendingText() {
+        return offset < text.length();
+    }
+
+    protected ParserFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Makes parsing continue after an exception thrown while the function was being parsed: the function is
+     * treated as failed, so its first character becomes text. Control string that has been started by parts can't
+     * be skipped.
+     *
+     * @return true if there was a function that is skipped.
+     */
+    protected boolean skipFailedFunction() {
+        if (state == GROUND || (this.streamingStrings
+                && (state == CONTROL_STRING || state == CONTROL_STRING_ESCAPE))) {
+            return false;
+        }
+        this.skipFunction();
+        return true;
+    }
+
+    private void startFunction(ControlFunction function, byte action) {
+        if (state == GROUND) {
+            functionIndex = scanIndex;
+        }
+        if (action == START_ESCAPE) {
+            state = ESCAPE;
+        } else if (action == START_CONTROL_SEQUENCE) {
+            state = CONTROL_SEQUENCE;
+            intermediateByte = 0;
+        } else if (action == START_CONTROL_STRING) {
+            state = CONTROL_STRING;
+        } else {
+            throw new IllegalStateException("Unknown action " + action + " in state " + state);
+        }
+        this.function = function;
+        this.separatorCount = 0;
+        scanIndex++;
+        this.argumentIndex = scanIndex;
+    }
+
+    private void addSeparator(int index) {
+        if (separatorCount == separatorIndexes.length) {
+            separatorIndexes = Arrays.copyOf(separatorIndexes, separatorCount * 2);
+        }
+        separatorIndexes[separatorCount++] = index;
+    }
+
+    /**
+     * Saves parsed function. If there is a text before function, then text is returned and function is pending.
+     */
+    private int handleFunction(ControlFunction function, int endIndex, int argumentType, int argumentEndIndex) {
+        this.parsedFunction = function;
+        this.parsedFunctionEndIndex = endIndex;
+        this.argumentType = argumentType;
+        this.argumentEndIndex = argumentEndIndex;
+        state = GROUND;
+        scanIndex = endIndex;
+        if (functionIndex > offset) {
+            this.functionPending = true;
+            return this.handleText(functionIndex);
+        }
+        return this.handleFunction();
+    }
+
+    /**
+     * Returns saved function that starts at offset.
+     */
+    private int handleFunction() {
+        this.setEvent(parsedFunctionEndIndex);
+        return FUNCTION_EVENT;
+    }
+
+    /**
+     * Reports the start of control string. If there is a text before it, then text is reported and start is pending.
+     */
+    private int startString() {
+        if (functionIndex > offset) {
+            this.stringStartPending = true;
+            return this.handleText(functionIndex);
+        }
+        return this.handleStringStart();
+    }
+
+    /**
+     * Returns event of the opening delimiter that starts at offset.
+     */
+    private int handleStringStart() {
+        this.setEvent(argumentIndex);
+        return STRING_START_EVENT;
+    }
+
+    /**
+     * Returns event of payload from offset to the given index. Reported payload is released with the next text.
+     */
+    private int handleStringChunk(int endIndex) {
+        //separators are not used, they are a part of payload
+        this.separatorCount = 0;
+        this.setEvent(endIndex);
+        return STRING_CHUNK_EVENT;
+    }
+
+    /**
+     * Reports the end of control string. If there is payload before terminator, then payload is reported and end is
+     * pending.
+     */
+    private int endString(int terminatorIndex, int endIndex, boolean terminated) {
+        this.stringEndIndex = endIndex;
+        this.stringTerminated = terminated;
+        state = GROUND;
+        scanIndex = endIndex;
+        functionIndex = -1;
+        if (terminatorIndex > offset) {
+            this.stringEndPending = true;
+            return this.handleStringChunk(terminatorIndex);
+        }
+        return this.handleStringEnd();
+    }
+
+    /**
+     * Returns event of string terminator that starts at offset, terminator can be empty.
+     */
+    private int handleStringEnd() {
+        this.setEvent(stringEndIndex);
+        return STRING_END_EVENT;
+    }
+
+    /**
+     * Function can't be parsed, so its first character is text and parsing is continued from the next character.
+     */
+    private void handleFailure(FailureReason reason) {
+        logger.warn("Couldn't parse function={} at index={}. Reason is {}",
+                this.function, currentIndex + functionIndex - offset, reason);
+        this.skipFunction();
+    }
+
+    private void skipFunction() {
+        state = GROUND;
+        scanIndex = functionIndex + 1;
+        functionIndex = -1;
+    }
+
+    private int handleText(int endIndex) {
+        this.setEvent(endIndex);
+        return TEXT_EVENT;
+    }
+
+    /**
+     * Saves event that starts at offset and moves offset to its end.
+     */
+    private void setEvent(int endIndex) {
+        this.eventStartIndex = offset;
+        this.eventEndIndex = endIndex;
+        this.eventCurrentIndex = currentIndex;
+        this.updateTextData(endIndex - offset);
+    }
+
+    private void updateTextData(int length) {
+        offset += length;
+        currentIndex += length;
+    }
+
+    private List<FunctionArgument> createArguments() {
+        if (argumentType == SEQUENCE_ARGUMENTS) {
+            return this.createSequenceArguments(parsedFunction, argumentEndIndex);
+        } else if (argumentType == STRING_ARGUMENTS) {
+            return this.createStringArguments(argumentEndIndex);
+        } else {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Throws exception in the same cases when ControlSequenceHandler fails: there is no default value for empty
+     * argument or number is too big.
+     *
+     * @param sequence
+     * @param endIndex index of the final byte.
+     */
+    private void checkSequenceArguments(ControlFunction sequence, int endIndex) {
+        if (argumentIndex == endIndex) {
+            return;
+        }
+        var defaultValues = sequence.getDefaultValues();
+        var startIndex = argumentIndex;
+        for (var i = 0; i <= separatorCount; i++) {
+            var argumentEndIndex = i < separatorCount ? separatorIndexes[i] : endIndex;
+            if (startIndex == argumentEndIndex) {
+                if (defaultValues == null || defaultValues.size() - 1 < i) {
+                    throw new IllegalArgumentException("Not default value with index " + i + " for " + sequence
+                            + " arguments [" + text.subSequence(argumentIndex, endIndex) + "]");
+                }
+            } else if (argumentEndIndex - startIndex > MAX_SAFE_DIGIT_COUNT
+                    && isNumber(text, startIndex, argumentEndIndex)) {
+                Integer.parseInt(text, startIndex, argumentEndIndex, 10);
+            }
+            startIndex = argumentEndIndex + 1;
+        }
+    }
+
+    /**
+     * Creates arguments of control sequence in the same way as ControlSequenceHandler does. Arguments must be
+     * checked.
+     *
+     * @param sequence
+     * @param endIndex index of the final byte.
+     * @return
+     */
+    private List<FunctionArgument> createSequenceArguments(ControlFunction sequence, int endIndex) {
+        List<FunctionArgument> arguments = new ArrayList<>();
+        var defaultValues = sequence.getDefaultValues();
+        if (argumentIndex == endIndex) {
+            if (defaultValues != null) {
+                arguments.add(new FunctionArgumentImpl(defaultValues.get(0), true));
+            }
+            return arguments;
+        }
+        var startIndex = argumentIndex;
+        for (var i = 0; i <= separatorCount; i++) {
+            var argumentEndIndex = i < separatorCount ? separatorIndexes[i] : endIndex;
+            if (startIndex == argumentEndIndex) {
+                //it is default value
+                arguments.add(new FunctionArgumentImpl(defaultValues.get(i), true));
+            } else {
+                var value = text.subSequence(startIndex, argumentEndIndex).toString();
+                if (isNumber(value, 0, value.length())) {
+                    arguments.add(new FunctionArgumentImpl(Integer.valueOf(value), false));
+                } else {
+                    arguments.add(new FunctionArgumentImpl(value, false));
+                }
+            }
+            startIndex = argumentEndIndex + 1;
+        }
+        return arguments;
+    }
+
+    /**
+     * Creates arguments of control string in the same way as ControlStringHandler does.
+     *
+     * @param endIndex index where the function ends, exclusive.
+     * @return
+     */
+    private List<FunctionArgument> createStringArguments(int endIndex) {
+        var arguments = new ArrayList<FunctionArgument>();
+        var startIndex = argumentIndex;
+        var notEmptyCount = 0;
+        for (var i = 0; i <= separatorCount; i++) {
+            var argumentEndIndex = i < separatorCount ? separatorIndexes[i] : endIndex;
+            arguments.add(new FunctionArgumentImpl(text.subSequence(startIndex, argumentEndIndex).toString(), false));
+            if (argumentEndIndex > startIndex) {
+                notEmptyCount = arguments.size();
+            }
+            startIndex = argumentEndIndex + 1;
+        }
+        //trailing empty arguments are omitted
+        if (arguments.size() > 1) {
+            arguments.subList(notEmptyCount, arguments.size()).clear();
+        }
+        return arguments;
+    }
+
+    private static boolean isNumber(CharSequence str, int startIndex, int endIndex) {
+        for (var i = startIndex; i < endIndex; i++) {
+            if (!Character.isDigit(str.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * View of arguments of parsed function, that reads them from text field in the same way as arguments are
+     * created.
+     */
+    private class ArgumentViewImpl implements ArgumentView {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getCount() {
+            if (event != FUNCTION_EVENT) {
+                return 0;
+            } else if (argumentType == SEQUENCE_ARGUMENTS) {
+                if (argumentIndex == argumentEndIndex) {
+                    return parsedFunction.getDefaultValues() != null ? 1 : 0;
+                }
+                return separatorCount + 1;
+            } else if (argumentType == STRING_ARGUMENTS) {
+                if (separatorCount == 0) {
+                    return 1;
+                }
+                //trailing empty arguments are omitted
+                for (var i = separatorCount; i >= 0; i--) {
+                    if (this.getEndIndex(i) > this.getStartIndex(i)) {
+                        return i + 1;
+                    }
+                }
+                return 0;
+            } else {
+                return 0;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isDefault(int index) {
+            this.checkIndex(index);
+            return argumentType == SEQUENCE_ARGUMENTS && this.getStartIndex(index) == this.getEndIndex(index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isNumber(int index) {
+            if (this.isDefault(index)) {
+                return parsedFunction.getDefaultValues().get(index) instanceof Integer;
+            }
+            return argumentType == SEQUENCE_ARGUMENTS
+                    && AbstractStateMachineParser.isNumber(text, this.getStartIndex(index), this.getEndIndex(index));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getInt(int index) {
+            if (!this.isNumber(index)) {
+                throw new IllegalStateException("Argument " + index + " is not a number: " + this.getValue(index));
+            }
+            if (this.isDefault(index)) {
+                return (Integer) parsedFunction.getDefaultValues().get(index);
+            }
+            return Integer.parseInt(text, this.getStartIndex(index), this.getEndIndex(index), 10);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object getValue(int index) {
+            if (this.isDefault(index)) {
+                return parsedFunction.getDefaultValues().get(index);
+            }
+            if (this.isNumber(index)) {
+                return this.getInt(index);
+            }
+            return text.subSequence(this.getStartIndex(index), this.getEndIndex(index)).toString();
+        }
+
+        private int getStartIndex(int index) {
+            return index == 0 ? argumentIndex : separatorIndexes[index - 1] + 1;
+        }
+
+        private int getEndIndex(int index) {
+            return index < separatorCount ? separatorIndexes[index] : argumentEndIndex;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= this.getCount()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of count " + this.getCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads text from channel into one byte buffer and decodes it with one decoder, so there is no intermediate
+ * buffering of streams and readers. Heap buffer is used because decoders work with arrays of heap buffers several
+ * times faster than with direct buffers.
+ *
+ * @author Pavel Kastornyy
+ */
+public class ChannelTextReader implements TextReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelTextReader.class);
+
+    private final ReadableByteChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final ChunkDecoder decoder;
+
+    public ChannelTextReader(ReadableByteChannel channel, Charset encoding, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.decoder = new ChunkDecoder(encoding);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Null is returned when channel reaches the end of stream, channel must be blocking. At the end of stream
+     * kept bytes of a not complete character are decoded as malformed.
+     */
+    @Override
+    public String read() {
+        try {
+            while (true) {
+                int count = channel.read(buffer);
+                if (count == -1) {
+                    var piece = decoder.flush();
+                    return piece.isEmpty() ? null : piece;
+                }
+                buffer.flip();
+                var piece = decoder.decode(buffer);
+                buffer.clear();
+                //piece is empty if all bytes belong to one not complete character
+                if (!piece.isEmpty()) {
+                    return piece;
+                }
+            }
+        } catch (IOException ex) {
+            logger.error("Error reading channel", ex);
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
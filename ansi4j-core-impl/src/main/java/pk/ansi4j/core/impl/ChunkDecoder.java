@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Converts chunks of input to pieces of text. Bytes of a character that is split between chunks are kept till the
+ * next chunk. A piece never ends with a high surrogate, such surrogate is kept till the next piece. Malformed and
+ * unmappable bytes are replaced.
+ *
+ * @author Pavel Kastornyy
+ */
+class ChunkDecoder {
+
+    private final CharsetDecoder decoder;
+
+    /**
+     * Decoder of US-ASCII and ISO-8859-1 or null.
+     */
+    private final SingleByteDecoder singleByteDecoder;
+
+    /**
+     * Bytes of the character that is split between chunks. Buffer is in write mode.
+     */
+    private ByteBuffer leftover = ByteBuffer.allocate(16);
+
+    /**
+     * Decoded characters, buffer is reused for every chunk.
+     */
+    private CharBuffer decoded = CharBuffer.allocate(1024);
+
+    /**
+     * Surrogate that doesn't have pair.
+     */
+    private Character highSurrogate = null;
+
+    ChunkDecoder(Charset encoding) {
+        this.decoder = encoding.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.singleByteDecoder = SingleByteDecoder.of(encoding);
+    }
+
+    /**
+     * Returns piece of text of the chunk.
+     *
+     * @param chunk
+     * @return piece of text, can be empty.
+     */
+    String decode(CharSequence chunk) {
+        return this.toPiece(chunk);
+    }
+
+    /**
+     * Decodes all remaining bytes of the chunk.
+     *
+     * @param chunk
+     * @return piece of text, can be empty.
+     */
+    String decode(ByteBuffer chunk) {
+        if (singleByteDecoder != null) {
+            return singleByteDecoder.decode(chunk);
+        }
+        decoded.clear();
+        //finishing the character that was split, byte by byte
+        while (leftover.position() > 0 && chunk.hasRemaining()) {
+            this.putLeftover(chunk.get());
+            leftover.flip();
+            this.decode(leftover, false);
+            leftover.compact();
+        }
+        this.decode(chunk, false);
+        while (chunk.hasRemaining()) {
+            this.putLeftover(chunk.get());
+        }
+        decoded.flip();
+        return this.toPiece(decoded);
+    }
+
+    /**
+     * Returns all kept characters, kept bytes are decoded as the end of input. After this call decoder can be used
+     * for new input.
+     *
+     * @return piece of text, can be empty.
+     */
+    String flush() {
+        decoded.clear();
+        leftover.flip();
+        this.decode(leftover, true);
+        leftover.clear();
+        while (decoder.flush(decoded).isOverflow()) {
+            this.growDecoded();
+        }
+        decoder.reset();
+        decoded.flip();
+        var piece = decoded.toString();
+        if (highSurrogate != null) {
+            piece = highSurrogate + piece;
+            highSurrogate = null;
+        }
+        return piece;
+    }
+
+    private void decode(ByteBuffer bytes, boolean endOfInput) {
+        while (decoder.decode(bytes, decoded, endOfInput).isOverflow()) {
+            this.growDecoded();
+        }
+    }
+
+    private void growDecoded() {
+        var buffer = CharBuffer.allocate(decoded.capacity() * 2);
+        decoded.flip();
+        buffer.put(decoded);
+        decoded = buffer;
+    }
+
+    private void putLeftover(byte b) {
+        if (!leftover.hasRemaining()) {
+            var buffer = ByteBuffer.allocate(leftover.capacity() * 2);
+            leftover.flip();
+            buffer.put(leftover);
+            leftover = buffer;
+        }
+        leftover.put(b);
+    }
+
+    private String toPiece(CharSequence chars) {
+        var piece = chars.toString();
+        if (highSurrogate != null) {
+            piece = highSurrogate + piece;
+            highSurrogate = null;
+        }
+        if (!piece.isEmpty()) {
+            var lastChar = piece.charAt(piece.length() - 1);
+            if (Character.isHighSurrogate(lastChar)) {
+                piece = piece.substring(0, piece.length() - 1);
+                highSurrogate = lastChar;
+            }
+        }
+        return piece;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.TextHandler;
+
+/**
+ * Spliterator of fragments that parses text lazily by one parser till it is split. Parallel parts of text can't be
+ * parsed independently, because parsing is stopped by the first function that can't be parsed and fragments after it
+ * must not be returned, but a part after that function can be parsed before it is found. So when the spliterator is
+ * split, the whole text is parsed by {@link ParallelParserImpl} in the pool of the current task and the list of
+ * fragments is split, so a parallel stream returns the same fragments as sequential parsing.
+ *
+ * @author Pavel Kastornyy
+ */
+public class FragmentSpliterator implements Spliterator<Fragment> {
+
+    /**
+     * Texts that are shorter are not split, it is also the minimal length of a chunk.
+     */
+    static final int MIN_SPLIT_LENGTH = 1024;
+
+    /**
+     * Average length of a fragment to estimate the number of fragments.
+     */
+    private static final int AVERAGE_FRAGMENT_LENGTH = 16;
+
+    private final CharSequence text;
+
+    private final TextHandler textHandler;
+
+    private final Supplier<IndexedStringParser> parserSupplier;
+
+    /**
+     * Parser is created when the first fragment is parsed, after it the spliterator can't be split.
+     */
+    private IndexedStringParser parser;
+
+    /**
+     * Spliterator of fragments of the whole text, that were parsed in parallel when this spliterator was split.
+     */
+    private Spliterator<Fragment> fragments;
+
+    private boolean parsed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param text the whole text that must not be modified.
+     * @param textHandler handler that creates joined text fragments.
+     * @param parserSupplier supplier of new parsers.
+     */
+    public FragmentSpliterator(CharSequence text, TextHandler textHandler,
+            Supplier<IndexedStringParser> parserSupplier) {
+        this.text = text;
+        this.textHandler = textHandler;
+        this.parserSupplier = parserSupplier;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super Fragment> action) {
+        if (this.fragments != null) {
+            return this.fragments.tryAdvance(action);
+        }
+        if (this.parsed) {
+            return false;
+        }
+        if (this.parser == null) {
+            this.parser = this.createParser();
+        }
+        var fragment = this.parser.parse();
+        if (fragment == null) {
+            this.parsed = true;
+            this.parser = null;
+            return false;
+        }
+        action.accept(fragment);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super Fragment> action) {
+        if (this.fragments != null) {
+            this.fragments.forEachRemaining(action);
+            return;
+        }
+        if (this.parsed) {
+            return;
+        }
+        if (this.parser == null) {
+            this.parser = this.createParser();
+        }
+        Fragment fragment = null;
+        while ((fragment = this.parser.parse()) != null) {
+            action.accept(fragment);
+        }
+        this.parsed = true;
+        this.parser = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<Fragment> trySplit() {
+        if (this.fragments != null) {
+            return this.fragments.trySplit();
+        }
+        if (this.parser != null || this.parsed || this.text.length() < MIN_SPLIT_LENGTH) {
+            return null;
+        }
+        var pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+        var chunkCount = Math.min(pool.getParallelism(), this.text.length() / MIN_SPLIT_LENGTH);
+        this.fragments = new ParallelParserImpl(this.text, this.textHandler, this.parserSupplier)
+                .parse(pool, chunkCount).spliterator();
+        return this.fragments.trySplit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long estimateSize() {
+        if (this.fragments != null) {
+            return this.fragments.estimateSize();
+        }
+        if (this.parsed) {
+            return 0;
+        }
+        var startIndex = this.parser == null ? 0 : this.parser.getCurrentIndex();
+        return Math.max(1, (this.text.length() - startIndex) / AVERAGE_FRAGMENT_LENGTH);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    private IndexedStringParser createParser() {
+        var parser = this.parserSupplier.get();
+        parser.reset(this.text, 0, true);
+        return parser;
+    }
+}
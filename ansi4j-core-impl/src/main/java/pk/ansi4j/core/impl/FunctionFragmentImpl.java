@@ -41,11 +41,24 @@ public class FunctionFragmentImpl extends AbstractFragment implements FunctionFr
     public FunctionFragmentImpl(String text, int currentIndex, Function function, List<FunctionArgument> arguments) {
         super(FragmentType.FUNCTION, text, currentIndex);
         this.function = function;
-        if (arguments != null) {
-            this.arguments = Collections.unmodifiableList(arguments);
-        } else {
-            this.arguments = null;
-        }
+        this.arguments = wrapArguments(arguments);
+    }
+
+    /**
+     * Creates fragment without copying its text.
+     *
+     * @param source text that contains function text.
+     * @param sourceStartIndex start index in source, inclusive.
+     * @param sourceEndIndex end index in source, exclusive.
+     * @param currentIndex index of the function in the whole text.
+     * @param function
+     * @param arguments modifiable collection.
+     */
+    public FunctionFragmentImpl(CharSequence source, int sourceStartIndex, int sourceEndIndex, int currentIndex,
+            Function function, List<FunctionArgument> arguments) {
+        super(FragmentType.FUNCTION, source, sourceStartIndex, sourceEndIndex, currentIndex);
+        this.function = function;
+        this.arguments = wrapArguments(arguments);
     }
 
     /**
@@ -72,4 +85,12 @@ public class FunctionFragmentImpl extends AbstractFragment implements FunctionFr
         return "FunctionFragmentImpl{" + "function=" + function + ", arguments=" + arguments + '}'
                 + "->" + super.toString();
     }
+
+    private static List<FunctionArgument> wrapArguments(List<FunctionArgument> arguments) {
+        if (arguments != null) {
+            return Collections.unmodifiableList(arguments);
+        } else {
+            return null;
+        }
+    }
 }
@@ -29,4 +29,13 @@ public interface FunctionMatcher {
      */
     FunctionDescriptor match(int startIndex, String text);
 
+    /**
+     * Matches function in text to one of the supported functions of certain type. Text isn't copied.
+     * @param text
+     * @param startIndex index of the function in text.
+     * @param endIndex index where available text ends, exclusive.
+     * @return descriptor if function was matched, otherwise null.
+     */
+    FunctionDescriptor match(CharSequence text, int startIndex, int endIndex);
+
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.FunctionFinder;
+import pk.ansi4j.core.api.FunctionHandler;
+import pk.ansi4j.core.api.function.FunctionType;
+
+/**
+ * Finds functions of one text that can be parsed. Functions are found by the function finder and their ends are
+ * found by the function handlers, a function that can't be parsed is skipped as the parser does. Only indexes of
+ * functions are kept, so scanner doesn't create fragments.
+ *
+ * @author Pavel Kastornyy
+ */
+public class FunctionScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FunctionScanner.class);
+
+    private final FunctionFinder finder;
+
+    private final Map<FunctionType, FunctionHandler> handlersByType;
+
+    private final CharSequence text;
+
+    private final int endIndex;
+
+    private final MutableFunctionFinderResultImpl result = new MutableFunctionFinderResultImpl();
+
+    private int functionStartIndex;
+
+    private int functionEndIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param finder
+     * @param handlersByType
+     * @param text
+     * @param endIndex index where text ends, exclusive.
+     */
+    public FunctionScanner(FunctionFinder finder, Map<FunctionType, FunctionHandler> handlersByType,
+            CharSequence text, int endIndex) {
+        this.finder = finder;
+        this.handlersByType = handlersByType;
+        this.text = text;
+        this.endIndex = endIndex;
+    }
+
+    /**
+     * Finds the next function that can be parsed.
+     *
+     * @param fromIndex
+     * @return true if function was found, its indexes are saved.
+     */
+    public boolean find(int fromIndex) {
+        var searchIndex = fromIndex;
+        while (finder.find(text, searchIndex, endIndex, result)) {
+            var functionIndex = result.getFunctionIndex();
+            var handler = handlersByType.get(result.getFunctionType());
+            if (handler != null) {
+                var length = this.parse(handler, functionIndex);
+                if (length > 0) {
+                    this.functionStartIndex = functionIndex;
+                    this.functionEndIndex = functionIndex + length;
+                    return true;
+                }
+            }
+            searchIndex = functionIndex + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Returns start index of the found function.
+     *
+     * @return
+     */
+    public int getFunctionStartIndex() {
+        return functionStartIndex;
+    }
+
+    /**
+     * Returns end index of the found function, exclusive.
+     *
+     * @return
+     */
+    public int getFunctionEndIndex() {
+        return functionEndIndex;
+    }
+
+    /**
+     * Parses the function.
+     *
+     * @return length of the function or -1 if function can't be parsed.
+     */
+    private int parse(FunctionHandler handler, int functionIndex) {
+        try {
+            var handlerResult = handler.handle(text, functionIndex, endIndex, result.getFunction(), functionIndex);
+            var fragment = handlerResult.getFragment();
+            if (fragment.isEmpty()) {
+                logger.debug("Couldn't parse function={} at index={}. Reason is {}", result.getFunction(),
+                        functionIndex, handlerResult.getFailureReason());
+                return -1;
+            }
+            return fragment.get().getEndIndex() - fragment.get().getStartIndex();
+        } catch (Exception ex) {
+            logger.warn("Error parsing function={} at index={}", result.getFunction(), functionIndex, ex);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import pk.ansi4j.core.api.StringParser;
+
+/**
+ * String parser that can parse text that is a part of a longer input, so indexes of fragments are indexes in that
+ * input.
+ *
+ * @author Pavel Kastornyy
+ */
+public interface IndexedStringParser extends StringParser {
+
+    /**
+     * Starts parsing of the new text which first character has the given index.
+     *
+     * @param text
+     * @param startIndex
+     * @param endOfInput if false, then function that isn't terminated at the end of the text is not parsed,
+     * parser returns null before it and {@link #getCurrentIndex()} returns its index.
+     */
+    void reset(CharSequence text, int startIndex, boolean endOfInput);
+
+    /**
+     * Returns true if parser returned null before a function that isn't terminated at the end of the text and waits
+     * for the rest of it. Returns false if all text was parsed or parsing was stopped by an error.
+     *
+     * @return
+     */
+    boolean isFunctionPending();
+}
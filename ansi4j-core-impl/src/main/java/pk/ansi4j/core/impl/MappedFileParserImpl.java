@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.Utf8Text;
+import pk.ansi4j.core.api.FileParser;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.utils.Characters;
+
+/**
+ * Parses file by windows that are mapped into memory. Every window is parsed by string parser as {@link Utf8Text}.
+ * Function that isn't terminated at the end of a window (if it isn't the last one) is not parsed and the next window
+ * starts with it. If such function starts the window, the window is enlarged. Window never ends in the middle of UTF-8
+ * character.
+ *
+ * @author Pavel Kastornyy
+ */
+public class MappedFileParserImpl implements FileParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileParserImpl.class);
+
+    private final FileChannel channel;
+
+    private final int windowSize;
+
+    private final IndexedStringParser parser;
+
+    private long fileSize = -1;
+
+    /**
+     * Position of the current window in the file.
+     */
+    private long windowPosition = 0;
+
+    /**
+     * Size of the current window, it is greater than window size if the window was enlarged.
+     */
+    private int currentWindowSize = 0;
+
+    /**
+     * Number of bytes of the current window that are parsed, it is less than its size at the end of the file or if
+     * the window ends before an incomplete character or ESC.
+     */
+    private int windowLength = 0;
+
+    /**
+     * If true, then the current window is the last one in the file.
+     */
+    private boolean lastWindow = false;
+
+    /**
+     * Offset in the file of index 0.
+     */
+    private long indexOffset = 0;
+
+    private int currentIndex = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param channel
+     * @param windowSize
+     * @param parser parser that is reset to every window.
+     */
+    public MappedFileParserImpl(FileChannel channel, int windowSize, IndexedStringParser parser) {
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.parser = parser;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Fragment parse() {
+        try {
+            return this.doParse();
+        } catch (Exception ex) {
+            logger.error("Error parsing file", ex);
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCurrentIndex() {
+        return this.currentIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getIndexOffset() {
+        return this.indexOffset;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private Fragment doParse() throws IOException {
+        if (this.fileSize == -1) {
+            this.fileSize = this.channel.size();
+            this.mapWindow(this.windowSize);
+        }
+        while (true) {
+            var fragment = this.parser.parse();
+            if (fragment != null) {
+                this.currentIndex = fragment.getEndIndex();
+                return fragment;
+            }
+            if (this.lastWindow) {
+                return null;
+            }
+            var parsedLength = this.parser.getCurrentIndex() - (int) (this.windowPosition - this.indexOffset);
+            if (parsedLength < this.windowLength && !this.parser.isFunctionPending()) {
+                //parsing was stopped by an error, a larger window would be parsed the same way
+                return null;
+            }
+            if (parsedLength == 0) {
+                if (this.currentWindowSize == Integer.MAX_VALUE) {
+                    //function can't be in one window
+                    return null;
+                }
+                //function is longer than window
+                this.mapWindow((int) Math.min(2L * this.currentWindowSize, Integer.MAX_VALUE));
+            } else {
+                this.windowPosition += parsedLength;
+                this.mapWindow(this.windowSize);
+            }
+        }
+    }
+
+    /**
+     * Maps window at window position and resets parser to it.
+     *
+     * @param size
+     */
+    private void mapWindow(int size) throws IOException {
+        var length = (int) Math.min(size, this.fileSize - this.windowPosition);
+        this.currentWindowSize = size;
+        this.lastWindow = this.windowPosition + length == this.fileSize;
+        if (length == 0) {
+            this.windowLength = 0;
+            this.parser.reset("", this.currentIndex, true);
+            return;
+        }
+        MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.windowPosition, length);
+        if (!this.lastWindow) {
+            length = alignToCharacter(buffer, length);
+            if (length > 0 && buffer.get(length - 1) == Characters.ESC) {
+                //finder parses ESC at the end of text as a function, so it is left for the next window
+                length--;
+            }
+            buffer.limit(length);
+        }
+        this.windowLength = length;
+        if (this.windowPosition - this.indexOffset + length > Integer.MAX_VALUE) {
+            this.indexOffset = this.windowPosition;
+        }
+        this.parser.reset(new Utf8Text(buffer), (int) (this.windowPosition - this.indexOffset),
+                this.lastWindow);
+    }
+
+    /**
+     * Returns length without the last UTF-8 character if it isn't complete, so it can be 0.
+     */
+    private static int alignToCharacter(MappedByteBuffer buffer, int length) {
+        var index = length - 1;
+        //skipping continuation bytes
+        while (index > 0 && index > length - 4 && (buffer.get(index) & 0xC0) == 0x80) {
+            index--;
+        }
+        var leadByte = buffer.get(index) & 0xFF;
+        int characterLength;
+        if (leadByte >= 0xF0) {
+            characterLength = 4;
+        } else if (leadByte >= 0xE0) {
+            characterLength = 3;
+        } else if (leadByte >= 0xC0) {
+            characterLength = 2;
+        } else {
+            characterLength = 1;
+        }
+        if (index + characterLength > length) {
+            return index;
+        }
+        return length;
+    }
+}
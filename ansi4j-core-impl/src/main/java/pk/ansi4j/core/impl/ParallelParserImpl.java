@@ -0,0 +1,277 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.TextHandler;
+import pk.ansi4j.core.api.utils.Characters;
+
+/**
+ * Parses text by chunks in parallel and merges fragments, so the result is the same as of sequential parsing.
+ *
+ * <p>Chunk ends before ESC or after line break that is found near the nominal chunk end. Every chunk (except the last
+ * one) is parsed without the end of input, so function that isn't terminated in the chunk is not parsed. In this case
+ * the text is parsed sequentially from that function until a function that was found by the parser of a next chunk,
+ * then fragments of that chunk are used. Text fragments at chunk boundaries are joined.
+ *
+ * @author Pavel Kastornyy
+ */
+public class ParallelParserImpl {
+
+    /**
+     * The maximal number of characters that are checked to find chunk end.
+     */
+    private static final int MAX_SCAN_LENGTH = 4096;
+
+    private static final class Chunk {
+
+        private final int startIndex;
+
+        private final int endIndex;
+
+        private final boolean last;
+
+        private List<Fragment> fragments;
+
+        /**
+         * Index of the first character that wasn't parsed.
+         */
+        private int parsedIndex;
+
+        Chunk(int startIndex, int endIndex, boolean last) {
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+            this.last = last;
+        }
+    }
+
+    private final CharSequence text;
+
+    private final TextHandler textHandler;
+
+    private final Supplier<IndexedStringParser> parserSupplier;
+
+    /**
+     * Constructor.
+     *
+     * @param text
+     * @param textHandler handler that creates joined text fragments.
+     * @param parserSupplier supplier of new parsers, one parser is used by one thread.
+     */
+    public ParallelParserImpl(CharSequence text, TextHandler textHandler,
+            Supplier<IndexedStringParser> parserSupplier) {
+        this.text = text;
+        this.textHandler = textHandler;
+        this.parserSupplier = parserSupplier;
+    }
+
+    /**
+     * Parses the text.
+     *
+     * @param pool
+     * @param chunkCount
+     * @return all fragments of the text.
+     */
+    public List<Fragment> parse(ForkJoinPool pool, int chunkCount) {
+        var chunks = this.createChunks(chunkCount);
+        if (chunks.size() == 1) {
+            var chunk = chunks.get(0);
+            this.parseChunk(chunk);
+            return chunk.fragments;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks.size());
+        for (var chunk : chunks) {
+            tasks.add(pool.submit(() -> this.parseChunk(chunk)));
+        }
+        for (var task : tasks) {
+            task.join();
+        }
+        return this.merge(chunks);
+    }
+
+    private List<Chunk> createChunks(int chunkCount) {
+        var length = this.text.length();
+        chunkCount = Math.max(1, Math.min(chunkCount, length));
+        List<Chunk> chunks = new ArrayList<>(chunkCount);
+        var startIndex = 0;
+        for (var i = 1; i < chunkCount; i++) {
+            var endIndex = this.findChunkEnd(startIndex, (int) ((long) length * i / chunkCount));
+            if (endIndex > startIndex) {
+                chunks.add(new Chunk(startIndex, endIndex, false));
+                startIndex = endIndex;
+            }
+        }
+        chunks.add(new Chunk(startIndex, length, true));
+        return chunks;
+    }
+
+    /**
+     * Returns chunk end that is near the nominal one or start index if there is no chunk end.
+     */
+    private int findChunkEnd(int startIndex, int nominalIndex) {
+        var endIndex = nominalIndex;
+        var minIndex = Math.max(startIndex + 1, nominalIndex - MAX_SCAN_LENGTH);
+        for (var i = nominalIndex; i >= minIndex; i--) {
+            if (this.text.charAt(i) == Characters.ESC || this.text.charAt(i - 1) == '\n') {
+                endIndex = i;
+                break;
+            }
+        }
+        //chunk can't end with ESC because ESC at the end of text is a function and with a part of surrogate pair
+        while (endIndex > startIndex && (this.text.charAt(endIndex - 1) == Characters.ESC
+                || Character.isHighSurrogate(this.text.charAt(endIndex - 1)))) {
+            endIndex--;
+        }
+        return endIndex;
+    }
+
+    private void parseChunk(Chunk chunk) {
+        var parser = this.parserSupplier.get();
+        CharSequence chunkText = this.text;
+        if (chunk.startIndex != 0 || chunk.endIndex != this.text.length()) {
+            chunkText = new TextView(this.text, chunk.startIndex, chunk.endIndex);
+        }
+        parser.reset(chunkText, chunk.startIndex, chunk.last);
+        chunk.fragments = parse(parser);
+        chunk.parsedIndex = parser.getCurrentIndex();
+    }
+
+    private List<Fragment> merge(List<Chunk> chunks) {
+        List<Fragment> fragments = new ArrayList<>();
+        var chunkIndex = 0;
+        var fragmentIndex = 0;
+        while (true) {
+            var chunk = chunks.get(chunkIndex);
+            for (var i = fragmentIndex; i < chunk.fragments.size(); i++) {
+                this.addFragment(fragments, chunk.fragments.get(i));
+            }
+            if (chunk.last) {
+                if (chunk.parsedIndex != chunk.endIndex) {
+                    //parsing was stopped by an error
+                    removeTextBefore(fragments, chunk.parsedIndex);
+                }
+                return fragments;
+            }
+            if (chunk.parsedIndex == chunk.endIndex) {
+                chunkIndex++;
+                fragmentIndex = 0;
+                continue;
+            }
+            //function isn't terminated in the chunk or parsing was stopped by an error
+            var parser = this.parserSupplier.get();
+            parser.reset(new TextView(this.text, chunk.parsedIndex, this.text.length()), chunk.parsedIndex, true);
+            var fragment = parser.parse();
+            if (fragment == null) {
+                //parsing was stopped by an error
+                removeTextBefore(fragments, chunk.parsedIndex);
+                return fragments;
+            }
+            var resynchronized = false;
+            while (!resynchronized && fragment != null) {
+                if (fragment.getType() == FragmentType.FUNCTION && fragment.getStartIndex() >= chunk.endIndex) {
+                    //searching the same function in the next chunks
+                    for (var i = chunkIndex + 1; i < chunks.size(); i++) {
+                        var nextChunk = chunks.get(i);
+                        if (fragment.getStartIndex() >= nextChunk.endIndex) {
+                            continue;
+                        }
+                        var index = findFunction(nextChunk.fragments, fragment);
+                        if (index != -1) {
+                            resynchronized = true;
+                            chunkIndex = i;
+                            fragmentIndex = index;
+                        }
+                        break;
+                    }
+                }
+                if (!resynchronized) {
+                    this.addFragment(fragments, fragment);
+                    fragment = parser.parse();
+                }
+            }
+            if (!resynchronized) {
+                //the rest of the text was parsed sequentially
+                return fragments;
+            }
+        }
+    }
+
+    /**
+     * Adds fragment, if it and the last added fragment are texts, then one text fragment is created for them.
+     */
+    private void addFragment(List<Fragment> fragments, Fragment fragment) {
+        var lastIndex = fragments.size() - 1;
+        if (lastIndex >= 0 && fragment.getType() == FragmentType.TEXT
+                && fragments.get(lastIndex).getType() == FragmentType.TEXT) {
+            var startIndex = fragments.get(lastIndex).getStartIndex();
+            var joined = this.textHandler.handle(this.text, startIndex, fragment.getEndIndex(), startIndex);
+            fragments.set(lastIndex, joined.getFragment().get());
+        } else {
+            fragments.add(fragment);
+        }
+    }
+
+    /**
+     * Removes the last text fragment if it ends at the index where parsing was stopped by an error, because string
+     * parser doesn't return text before the failed function.
+     */
+    private static void removeTextBefore(List<Fragment> fragments, int errorIndex) {
+        var lastIndex = fragments.size() - 1;
+        if (lastIndex >= 0 && fragments.get(lastIndex).getType() == FragmentType.TEXT
+                && fragments.get(lastIndex).getEndIndex() == errorIndex) {
+            fragments.remove(lastIndex);
+        }
+    }
+
+    /**
+     * Returns index of the function fragment with the same start and end indexes or -1.
+     */
+    private static int findFunction(List<Fragment> fragments, Fragment function) {
+        var low = 0;
+        var high = fragments.size() - 1;
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var fragment = fragments.get(middle);
+            if (fragment.getStartIndex() < function.getStartIndex()) {
+                low = middle + 1;
+            } else if (fragment.getStartIndex() > function.getStartIndex()) {
+                high = middle - 1;
+            } else {
+                if (fragment.getType() == FragmentType.FUNCTION
+                        && fragment.getEndIndex() == function.getEndIndex()) {
+                    return middle;
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Fragment> parse(IndexedStringParser parser) {
+        List<Fragment> fragments = new ArrayList<>();
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            fragments.add(fragment);
+        }
+        return fragments;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.PendingOverflowMetrics;
+import pk.ansi4j.core.api.PendingOverflowException;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+
+/**
+ * Maximum number of characters of a function that stream or push parser keeps while waiting for the rest of the
+ * input, and the policy that is applied when the function gets longer.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class PendingLimit {
+
+    /**
+     * Function can wait for the rest of the input without limit.
+     */
+    public static final PendingLimit NONE = new PendingLimit(Integer.MAX_VALUE, PendingOverflowPolicy.FAIL, null);
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingLimit.class);
+
+    private final int maxSize;
+
+    private final PendingOverflowPolicy policy;
+
+    /**
+     * Metrics or null.
+     */
+    private final PendingOverflowMetrics metrics;
+
+    public PendingLimit(int maxSize, PendingOverflowPolicy policy, PendingOverflowMetrics metrics) {
+        this.maxSize = maxSize;
+        this.policy = policy;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Checks if the function with the given number of kept characters must not wait any more.
+     *
+     * @param pendingSize
+     * @return
+     */
+    boolean isExceeded(int pendingSize) {
+        return pendingSize > this.maxSize;
+    }
+
+    /**
+     * Registers overflow and returns the policy that parser must apply.
+     *
+     * @param pendingSize number of kept characters of the function.
+     * @param index index of the function in the whole text.
+     * @return policy other than {@link PendingOverflowPolicy#FAIL}.
+     * @throws PendingOverflowException if policy is {@link PendingOverflowPolicy#FAIL}.
+     */
+    PendingOverflowPolicy apply(int pendingSize, int index) {
+        if (this.metrics != null) {
+            this.metrics.increment(this.policy);
+        }
+        logger.warn("Function at index={} has pending size={} that exceeds maximum={}, policy is {}",
+                index, pendingSize, this.maxSize, this.policy);
+        if (this.policy == PendingOverflowPolicy.FAIL) {
+            throw new PendingOverflowException(pendingSize, this.maxSize);
+        }
+        return this.policy;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public PendingOverflowPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes US-ASCII and ISO-8859-1 without CharsetDecoder. Every byte is one character, so there are never bytes of
+ * a not complete character or surrogates, and pieces of text are created from bytes directly. With compact strings
+ * such piece keeps the bytes as they are, so they are copied once and are not widened to characters and narrowed
+ * back. Bytes that are not ASCII are replaced in US-ASCII as CharsetDecoder does.
+ *
+ * @author Pavel Kastornyy
+ */
+final class SingleByteDecoder {
+
+    /**
+     * Returns decoder for the encoding.
+     *
+     * @param encoding
+     * @return decoder or null if the encoding is not a supported single byte encoding.
+     */
+    static SingleByteDecoder of(Charset encoding) {
+        if (StandardCharsets.ISO_8859_1.equals(encoding) || StandardCharsets.US_ASCII.equals(encoding)) {
+            return new SingleByteDecoder(encoding);
+        } else {
+            return null;
+        }
+    }
+
+    private final Charset encoding;
+
+    private byte[] array = new byte[0];
+
+    private SingleByteDecoder(Charset encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Decodes bytes of array.
+     *
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return piece of text.
+     */
+    String decode(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, encoding);
+    }
+
+    /**
+     * Decodes all remaining bytes of the buffer.
+     *
+     * @param bytes
+     * @return piece of text.
+     */
+    String decode(ByteBuffer bytes) {
+        var length = bytes.remaining();
+        String piece;
+        if (bytes.hasArray()) {
+            piece = this.decode(bytes.array(), bytes.arrayOffset() + bytes.position(), length);
+            bytes.position(bytes.limit());
+        } else {
+            if (array.length < length) {
+                array = new byte[length];
+            }
+            bytes.get(array, 0, length);
+            piece = this.decode(array, 0, length);
+        }
+        return piece;
+    }
+}
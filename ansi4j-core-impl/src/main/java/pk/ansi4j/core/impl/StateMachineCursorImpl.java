@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import pk.ansi4j.core.api.AnsiCursor;
+import pk.ansi4j.core.api.ArgumentView;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.function.Function;
+
+/**
+ * Cursor that reads tokens from the state of the parser, so no objects are created per token.
+ *
+ * @author Pavel Kastornyy
+ */
+public class StateMachineCursorImpl extends AbstractStateMachineParser implements AnsiCursor {
+
+    private FragmentType type;
+
+    public StateMachineCursorImpl(CharSequence text, ParserFactory factory, StateMachineTable table) {
+        super(text, factory, table);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param text
+     * @param factory
+     * @param table
+     * @param preScanner scanner that checks the whole text before parsing or null if there is no pre-scan.
+     */
+    public StateMachineCursorImpl(CharSequence text, ParserFactory factory, StateMachineTable table,
+            ControlCharacterScanner preScanner) {
+        super(text, factory, table, preScanner);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset(CharSequence text) {
+        TextUtils.checkText(text, this.getFactory());
+        this.resetText(text);
+        this.type = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FragmentType next() {
+        this.type = this.doNext();
+        return this.type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Function getFunction() {
+        this.checkToken();
+        return this.getEventFunction();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStartIndex() {
+        this.checkToken();
+        return this.getEventStartIndex();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getEndIndex() {
+        this.checkToken();
+        return this.getEventEndIndex();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ArgumentView getArguments() {
+        this.checkToken();
+        return this.getEventArguments();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isEndOfText() {
+        return true;
+    }
+
+    private void checkToken() {
+        if (this.type == null) {
+            throw new IllegalStateException("No current token");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.ControlStringVisitor;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowException;
+import pk.ansi4j.core.api.PushParser;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class StateMachinePushParserImpl extends AbstractStateMachineParser implements PushParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateMachinePushParserImpl.class);
+
+    private final ChunkDecoder decoder;
+
+    /**
+     * Consumer of fragments or null if visitor is used.
+     */
+    private final Consumer<Fragment> consumer;
+
+    /**
+     * Visitor that receives control strings by parts or null if consumer is used.
+     */
+    private final ControlStringVisitor visitor;
+
+    private boolean endOfInput = false;
+
+    public StateMachinePushParserImpl(Charset encoding, Consumer<Fragment> consumer, ParserFactory factory,
+            StateMachineTable table, PendingLimit pendingLimit) {
+        super("", factory, table, null, pendingLimit);
+        this.decoder = new ChunkDecoder(encoding);
+        this.consumer = consumer;
+        this.visitor = null;
+    }
+
+    public StateMachinePushParserImpl(Charset encoding, ControlStringVisitor visitor, ParserFactory factory,
+            StateMachineTable table, PendingLimit pendingLimit) {
+        super("", factory, table, null, pendingLimit, true);
+        this.decoder = new ChunkDecoder(encoding);
+        this.consumer = null;
+        this.visitor = visitor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void feed(CharSequence chunk) {
+        this.checkFeed(chunk);
+        this.appendPiece(this.decoder.decode(chunk));
+        this.push();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void feed(char[] chunk, int offset, int length) {
+        this.checkFeed(chunk);
+        this.appendPiece(this.decoder.decode(CharBuffer.wrap(chunk, offset, length)));
+        this.push();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void feed(ByteBuffer chunk) {
+        this.checkFeed(chunk);
+        this.appendPiece(this.decoder.decode(chunk));
+        this.push();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endOfInput() {
+        this.checkFeed("");
+        this.endOfInput = true;
+        this.appendPiece(this.decoder.flush());
+        this.push();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isEndOfText() {
+        return this.endOfInput;
+    }
+
+    private void appendPiece(String piece) {
+        if (!piece.isEmpty()) {
+            this.appendText(piece);
+        }
+    }
+
+    private void checkFeed(Object chunk) {
+        if (chunk == null) {
+            throw new IllegalArgumentException("No chunk provided");
+        }
+        if (this.endOfInput) {
+            throw new IllegalStateException("End of input has been reached");
+        }
+    }
+
+    /**
+     * Passes all complete fragments to consumer or events to visitor. Errors of parsing are logged and the
+     * failed function is parsed as text, exceptions of consumer and visitor are thrown.
+     */
+    private void push() {
+        if (this.visitor != null) {
+            this.doStream(this.visitor);
+            return;
+        }
+        while (true) {
+            Fragment fragment = null;
+            try {
+                fragment = this.doParse();
+            } catch (PendingOverflowException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Error parsing text", ex);
+                if (this.skipFailedFunction()) {
+                    //the first character of the function will be returned as text
+                    continue;
+                }
+            }
+            if (fragment == null) {
+                return;
+            }
+            this.consumer.accept(fragment);
+        }
+    }
+}
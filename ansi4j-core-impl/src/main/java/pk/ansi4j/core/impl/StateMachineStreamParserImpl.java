@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowException;
+import pk.ansi4j.core.api.StreamParser;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class StateMachineStreamParserImpl extends AbstractStateMachineParser implements StreamParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateMachineStreamParserImpl.class);
+
+    private final TextReader reader;
+
+    private boolean endOfText = false;
+
+    /**
+     * Idle timeout in nanoseconds after which pending text is parsed as at the end of input, 0 if there is no timeout.
+     */
+    private final long idleTimeout;
+
+    /**
+     * Pending text is parsed as at the end of input till it is parsed.
+     */
+    private boolean flushing = false;
+
+    public StateMachineStreamParserImpl(InputStream stream, Charset encoding, int bufferSize, ParserFactory factory,
+            StateMachineTable table, PendingLimit pendingLimit, long idleTimeout) {
+        this(new StreamTextReader(stream, encoding, bufferSize), factory, table, pendingLimit, idleTimeout);
+    }
+
+    public StateMachineStreamParserImpl(TextReader reader, ParserFactory factory, StateMachineTable table,
+            PendingLimit pendingLimit) {
+        this(reader, factory, table, pendingLimit, 0);
+    }
+
+    public StateMachineStreamParserImpl(TextReader reader, ParserFactory factory, StateMachineTable table,
+            PendingLimit pendingLimit, long idleTimeout) {
+        super("", factory, table, null, pendingLimit);
+        this.reader = reader;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Fragment parse() {
+        try {
+            //there can text, saved function etc
+            var fragment = this.doParse();
+            if (fragment == null) {
+                this.flushing = false;
+            }
+            while (fragment == null && !this.endOfText) {
+                if (this.idleTimeout > 0 && this.hasPendingText() && !this.reader.awaitInput(this.idleTimeout)) {
+                    //no input during timeout, so pending text is parsed as at the end of input
+                    this.flushing = true;
+                    fragment = this.doParse();
+                    if (fragment != null) {
+                        return fragment;
+                    }
+                    this.flushing = false;
+                }
+                var readString = this.reader.read();
+                if (readString == null) {
+                    //not terminated function is parsed as text
+                    this.endOfText = true;
+                } else {
+                    this.appendText(readString);
+                }
+                fragment = this.doParse();
+            }
+            return fragment;
+        } catch (PendingOverflowException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Error parsing text", ex);
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isEndOfText() {
+        return this.endOfText || this.flushing;
+    }
+}
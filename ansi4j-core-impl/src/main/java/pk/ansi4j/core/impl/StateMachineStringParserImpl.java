@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentVisitor;
+import pk.ansi4j.core.api.ParserFactory;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class StateMachineStringParserImpl extends AbstractStateMachineParser implements IndexedStringParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateMachineStringParserImpl.class);
+
+    private boolean endOfInput = true;
+
+    /**
+     * If true, then parsing was stopped by an error.
+     */
+    private boolean failed = false;
+
+    public StateMachineStringParserImpl(CharSequence text, ParserFactory factory, StateMachineTable table) {
+        super(text, factory, table);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param text
+     * @param factory
+     * @param table
+     * @param preScanner scanner that checks the whole text before parsing or null if there is no pre-scan.
+     */
+    public StateMachineStringParserImpl(CharSequence text, ParserFactory factory, StateMachineTable table,
+            ControlCharacterScanner preScanner) {
+        super(text, factory, table, preScanner);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset(CharSequence text) {
+        TextUtils.checkText(text, this.getFactory());
+        this.endOfInput = true;
+        this.failed = false;
+        this.resetText(text);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset(CharSequence text, int startIndex, boolean endOfInput) {
+        TextUtils.checkText(text, this.getFactory());
+        this.endOfInput = endOfInput;
+        this.failed = false;
+        this.resetText(text, startIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFunctionPending() {
+        return !this.failed && this.hasPendingText();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Fragment parse() {
+        try {
+            return this.doParse();
+        } catch (Exception ex) {
+            logger.error("Error parsing text", ex);
+            this.failed = true;
+            return null;
+        }
+    }
+
+    /**
+     * Parses the whole text and passes text and functions to visitor without creating fragments.
+     *
+     * @param visitor
+     */
+    public void visit(FragmentVisitor visitor) {
+        this.doVisit(visitor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isEndOfText() {
+        return this.endOfInput;
+    }
+}
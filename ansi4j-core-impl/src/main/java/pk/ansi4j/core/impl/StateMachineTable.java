@@ -0,0 +1,292 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.function.FunctionType;
+import pk.ansi4j.core.api.iso6429.C0ControlFunction;
+import pk.ansi4j.core.api.iso6429.C1ControlFunction;
+import pk.ansi4j.core.api.iso6429.ControlFunction;
+import pk.ansi4j.core.api.iso6429.ControlFunctionType;
+import pk.ansi4j.core.api.iso6429.ControlSequenceFunction;
+import pk.ansi4j.core.api.iso6429.IndependentControlFunction;
+import pk.ansi4j.core.api.utils.Characters;
+
+/**
+ * Precomputed transition tables of the state machine parser. For every state and character (up to the end of C1
+ * set) there is an action that tells the parser what to do with the character. Characters that are not in the tables
+ * have {@link #NONE} action. Tables are filled once for an environment and are never modified after that, so one
+ * table can be shared by all parsers.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class StateMachineTable {
+
+    /* STATES */
+
+    /**
+     * Characters are text.
+     */
+    static final int GROUND = 0;
+
+    /**
+     * ESC was found.
+     */
+    static final int ESCAPE = 1;
+
+    /**
+     * Control sequence introducer was found, parameters and intermediate bytes are read till the final byte.
+     */
+    static final int CONTROL_SEQUENCE = 2;
+
+    /**
+     * Opening delimiter of control string was found, characters are read till the string terminator.
+     */
+    static final int CONTROL_STRING = 3;
+
+    /**
+     * ESC was found in control string, it can be the first character of the string terminator in 7-bit environment.
+     */
+    static final int CONTROL_STRING_ESCAPE = 4;
+
+    private static final int STATE_COUNT = 5;
+
+    /* ACTIONS */
+
+    /**
+     * The character doesn't change state. In ground state it is text. In escape state it means that ESC is a C0
+     * function and the character must be processed again in ground state. In control string escape state it means
+     * that the character must be processed again in control string state.
+     */
+    static final byte NONE = 0;
+
+    /**
+     * The character completes a function that has no arguments.
+     */
+    static final byte FUNCTION = 1;
+
+    /**
+     * The character is ESC.
+     */
+    static final byte START_ESCAPE = 2;
+
+    /**
+     * The character starts control sequence.
+     */
+    static final byte START_CONTROL_SEQUENCE = 3;
+
+    /**
+     * The character is the opening delimiter of control string.
+     */
+    static final byte START_CONTROL_STRING = 4;
+
+    /**
+     * The character is the argument separator.
+     */
+    static final byte SEPARATOR = 5;
+
+    /**
+     * The character is an intermediate byte of control sequence.
+     */
+    static final byte INTERMEDIATE_BYTE = 6;
+
+    /**
+     * The character is the final byte of control sequence.
+     */
+    static final byte FINAL_BYTE = 7;
+
+    /**
+     * The character is the last character of string terminator.
+     */
+    static final byte STRING_TERMINATOR = 8;
+
+    /**
+     * The character is ESC in control string.
+     */
+    static final byte STRING_ESCAPE = 9;
+
+    /**
+     * All control characters are less than this size.
+     */
+    private static final int TABLE_SIZE = 0xA0;
+
+    private final Environment environment;
+
+    private final byte[][] actions = new byte[STATE_COUNT][TABLE_SIZE];
+
+    /**
+     * Functions without arguments and opening delimiters by state and character.
+     */
+    private final ControlFunction[][] functions = new ControlFunction[STATE_COUNT][TABLE_SIZE];
+
+    /**
+     * Types of functions, indexes are the same as in functions.
+     */
+    private final FunctionType[][] functionTypes = new FunctionType[STATE_COUNT][TABLE_SIZE];
+
+    /**
+     * Control sequences without intermediate byte by the final byte.
+     */
+    private final ControlFunction[] controlSequences = new ControlFunction[TABLE_SIZE];
+
+    /**
+     * Control sequences with space intermediate byte by the final byte.
+     */
+    private final ControlFunction[] spaceControlSequences = new ControlFunction[TABLE_SIZE];
+
+    public StateMachineTable(Environment environment) {
+        if (environment == null) {
+            throw new IllegalArgumentException("No environment");
+        }
+        this.environment = environment;
+        this.fillGround();
+        this.fillEscape();
+        this.fillControlSequence();
+        this.fillControlString();
+    }
+
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    byte getAction(int state, char c) {
+        if (c < TABLE_SIZE) {
+            return this.actions[state][c];
+        } else {
+            return NONE;
+        }
+    }
+
+    ControlFunction getFunction(int state, char c) {
+        return this.functions[state][c];
+    }
+
+    FunctionType getFunctionType(int state, char c) {
+        return this.functionTypes[state][c];
+    }
+
+    /**
+     * Returns control sequence by its identifier.
+     *
+     * @param intermediateByte last intermediate byte or 0 if there was no intermediate byte.
+     * @param finalByte
+     * @return function or null if there is no such function.
+     */
+    ControlFunction getControlSequence(char intermediateByte, char finalByte) {
+        if (intermediateByte == 0) {
+            return this.controlSequences[finalByte];
+        } else if (intermediateByte == ' ') {
+            return this.spaceControlSequences[finalByte];
+        } else {
+            return null;
+        }
+    }
+
+    private void fillGround() {
+        //C0, the same as in DefaultFunctionFinder
+        for (var f : C0ControlFunction.values()) {
+            this.setFunction(GROUND, f.getPattern().charAt(0), f, ControlFunctionType.C0_SET);
+        }
+        if (this.environment == Environment._7_BIT) {
+            var f = C0ControlFunction.SO_SHIFT_OUT;
+            this.setFunction(GROUND, f.getPattern().charAt(0), f, ControlFunctionType.C0_SET);
+            f = C0ControlFunction.SI_SHIFT_IN;
+            this.setFunction(GROUND, f.getPattern().charAt(0), f, ControlFunctionType.C0_SET);
+        } else {
+            var f = C0ControlFunction.LS0_LOCKING_SHIFT_ZERO;
+            this.setFunction(GROUND, f.getPattern().charAt(0), f, ControlFunctionType.C0_SET);
+            f = C0ControlFunction.LS1_LOCKING_SHIFT_ONE;
+            this.setFunction(GROUND, f.getPattern().charAt(0), f, ControlFunctionType.C0_SET);
+        }
+        //ESC is a C0 function only if it isn't followed by a function character
+        this.actions[GROUND][Characters.ESC] = START_ESCAPE;
+        //C1
+        if (this.environment == Environment._8_BIT) {
+            for (var f : C1ControlFunction.values()) {
+                this.setC1Function(GROUND, f.get8BitPattern().charAt(0), f);
+            }
+        }
+    }
+
+    private void fillEscape() {
+        for (var f : IndependentControlFunction.values()) {
+            this.setFunction(ESCAPE, f.getPattern().charAt(1), f, ControlFunctionType.INDEPENDENT_FUNCTION);
+        }
+        if (this.environment == Environment._7_BIT) {
+            for (var f : C1ControlFunction.values()) {
+                var c = f.getPattern().charAt(1);
+                //independent functions have priority
+                if (this.actions[ESCAPE][c] == NONE) {
+                    this.setC1Function(ESCAPE, c, f);
+                }
+            }
+        }
+    }
+
+    private void fillControlSequence() {
+        for (var c = 0x20; c <= 0x2F; c++) {
+            this.actions[CONTROL_SEQUENCE][c] = INTERMEDIATE_BYTE;
+        }
+        for (var c = 0x40; c <= 0x7E; c++) {
+            this.actions[CONTROL_SEQUENCE][c] = FINAL_BYTE;
+        }
+        this.actions[CONTROL_SEQUENCE][';'] = SEPARATOR;
+        for (var f : ControlSequenceFunction.values()) {
+            var pattern = f.getPattern();
+            var finalByte = pattern.charAt(pattern.length() - 1);
+            if (pattern.length() > 1 && pattern.charAt(pattern.length() - 2) == ' ') {
+                this.spaceControlSequences[finalByte] = f;
+            } else {
+                this.controlSequences[finalByte] = f;
+            }
+        }
+    }
+
+    private void fillControlString() {
+        this.actions[CONTROL_STRING][';'] = SEPARATOR;
+        if (this.environment == Environment._7_BIT) {
+            this.actions[CONTROL_STRING][Characters.ESC] = STRING_ESCAPE;
+            var terminator = C1ControlFunction.ST_STRING_TERMINATOR.getPattern();
+            this.actions[CONTROL_STRING_ESCAPE][terminator.charAt(1)] = STRING_TERMINATOR;
+        } else {
+            var terminator = C1ControlFunction.ST_STRING_TERMINATOR.get8BitPattern();
+            this.actions[CONTROL_STRING][terminator.charAt(0)] = STRING_TERMINATOR;
+        }
+    }
+
+    private void setC1Function(int state, char c, C1ControlFunction f) {
+        if (f == C1ControlFunction.CSI_CONTROL_SEQUENCE_INTRODUCER) {
+            //ControlSequenceHandler parses only 7-bit control sequences (ESC [), so in 8-bit environment CSI is text
+            if (state == ESCAPE) {
+                this.actions[state][c] = START_CONTROL_SEQUENCE;
+                this.functions[state][c] = f;
+                this.functionTypes[state][c] = ControlFunctionType.CONTROL_SEQUENCE;
+            }
+        } else if (C1ControlFunction.getControlStringOpeningDelimiters().contains(f)) {
+            this.actions[state][c] = START_CONTROL_STRING;
+            this.functions[state][c] = f;
+            this.functionTypes[state][c] = ControlFunctionType.CONTROL_STRING;
+        } else {
+            this.setFunction(state, c, f, ControlFunctionType.C1_SET);
+        }
+    }
+
+    private void setFunction(int state, char c, ControlFunction f, FunctionType type) {
+        this.actions[state][c] = FUNCTION;
+        this.functions[state][c] = f;
+        this.functionTypes[state][c] = type;
+    }
+}
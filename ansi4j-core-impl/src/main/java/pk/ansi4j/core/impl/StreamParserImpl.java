@@ -15,20 +15,16 @@
  */
 package pk.ansi4j.core.impl;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.CharBuffer;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pk.ansi4j.core.api.FailureReason;
 import pk.ansi4j.core.api.Fragment;
 import pk.ansi4j.core.api.FunctionFailureReason;
-import pk.ansi4j.core.api.Parser;
 import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowException;
 import pk.ansi4j.core.api.StreamParser;
 
 /**
@@ -39,34 +35,34 @@ public class StreamParserImpl extends AbstractParser implements StreamParser {
 
     private static final Logger logger = LoggerFactory.getLogger(StreamParserImpl.class);
 
-    private final InputStream stream;
-
-    private final InputStreamReader inputStreamReader;
-
-    private final BufferedReader bufferedReader;
-
-    private final Charset encoding;
-
-    private final int bufferSize;
-
-    private final CharBuffer buffer;
+    private final TextReader reader;
 
     private final ParserFactory factory;
 
     /**
-     * Surrogate that doesn't have pair.
+     * Idle timeout in nanoseconds after which pending text is parsed as at the end of input, 0 if there is no timeout.
+     */
+    private final long idleTimeout;
+
+    /**
+     * Pending text is parsed as at the end of input till it is parsed.
      */
-    private Character highSurrogate = null;
+    private boolean flushing = false;
+
+    public StreamParserImpl(InputStream stream, Charset encoding, int bufferSize, ParserFactory factory,
+            PendingLimit pendingLimit, long idleTimeout) {
+        this(new StreamTextReader(stream, encoding, bufferSize), factory, pendingLimit, idleTimeout);
+    }
 
-    public StreamParserImpl(InputStream stream, Charset encoding, int bufferSize, ParserFactory factory) {
-        super("", factory);
-        this.stream = stream;
-        this.encoding = encoding;
-        this.bufferSize = bufferSize;
-        this.buffer = CharBuffer.allocate(bufferSize);
+    public StreamParserImpl(TextReader reader, ParserFactory factory, PendingLimit pendingLimit) {
+        this(reader, factory, pendingLimit, 0);
+    }
+
+    public StreamParserImpl(TextReader reader, ParserFactory factory, PendingLimit pendingLimit, long idleTimeout) {
+        super("", factory, null, pendingLimit);
+        this.reader = reader;
         this.factory = factory;
-        inputStreamReader = new InputStreamReader(stream, StandardCharsets.UTF_8);
-        bufferedReader = new BufferedReader(inputStreamReader);
+        this.idleTimeout = idleTimeout;
     }
 
     /**
@@ -80,17 +76,34 @@ public class StreamParserImpl extends AbstractParser implements StreamParser {
             if (fragment != null) {
                 return fragment;
             }
+            this.flushing = false;
             while(true) {
-                var count = this.readText();
-                if (count == -1) {
-                    return null;
+                if (this.idleTimeout > 0 && this.hasPendingText() && !this.reader.awaitInput(this.idleTimeout)) {
+                    //no input during timeout, so pending text is parsed as at the end of input
+                    this.flushing = true;
+                    this.releaseEscape();
+                    fragment = this.doParse();
+                    if (fragment != null) {
+                        return fragment;
+                    }
+                    this.flushing = false;
+                }
+                var readString = this.reader.read();
+                if (readString == null) {
+                    //there is no more text, so pending text is parsed as at the end of input
+                    this.flushing = true;
+                    this.releaseEscape();
+                    return this.doParse();
                 } else {
+                    this.appendPiece(readString);
                     fragment = this.doParse();
                     if (fragment != null) {
                         return fragment;
                     }
                 }
             }
+        } catch (PendingOverflowException ex) {
+            throw ex;
         } catch (Exception ex) {
             logger.error("Error parsing text", ex);
             return null;
@@ -102,12 +115,7 @@ public class StreamParserImpl extends AbstractParser implements StreamParser {
      */
     @Override
     public void close() throws IOException {
-        if (this.bufferedReader != null) {
-            this.bufferedReader.close();
-        }
-        if (this.inputStreamReader != null) {
-            this.inputStreamReader.close();
-        }
+        this.reader.close();
     }
 
     /**
@@ -115,37 +123,10 @@ public class StreamParserImpl extends AbstractParser implements StreamParser {
      */
     @Override
     protected boolean delayFunctionParsing(FailureReason reason) {
-        if (reason == FunctionFailureReason.NO_END_OF_FUNCTION) {
+        if (reason == FunctionFailureReason.NO_END_OF_FUNCTION && !this.flushing) {
             return true;
         } else {
             return false;
         }
     }
-
-    private int readText() {
-        try {
-            int count = bufferedReader.read(buffer);
-            if (count != -1) {
-                buffer.flip();
-                //we can have high surrogate without low one
-                var readString = buffer.toString();
-                buffer.clear();
-                if (highSurrogate != null) {
-                    readString = highSurrogate + readString;
-                    highSurrogate = null;
-                }
-                var lastChar = readString.charAt(readString.length() - 1);
-                if (Character.isHighSurrogate(lastChar)) {
-                    readString = readString.substring(0, readString.length() - 1);
-                    highSurrogate = lastChar;
-                }
-                this.setText(getText() + readString);
-            }
-            return count;
-        } catch (IOException ex) {
-            logger.error("Error reading stream", ex);
-            return -1;
-        }
-    }
-
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads text from stream by pieces that are not longer than buffer size. A piece never ends with a high surrogate,
+ * such surrogate is kept till the next piece. Malformed and unmappable bytes are replaced.
+ *
+ * <p>Readers of JDK are not used because their read methods are synchronized and a virtual thread that is blocked
+ * in such method pins its carrier thread. This reader decodes bytes itself and has no monitors at all, as parser is
+ * not thread-safe anyway.
+ *
+ * @author Pavel Kastornyy
+ */
+class StreamTextReader implements TextReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamTextReader.class);
+
+    /**
+     * Interval of polling the stream in nanoseconds when input is awaited.
+     */
+    private static final long POLL_INTERVAL = 100_000;
+
+    private final InputStream stream;
+
+    private final CharsetDecoder decoder;
+
+    /**
+     * Decoder of US-ASCII and ISO-8859-1 or null.
+     */
+    private final SingleByteDecoder singleByteDecoder;
+
+    /**
+     * Read bytes that were not decoded yet. Buffer is in write mode.
+     */
+    private final ByteBuffer bytes;
+
+    /**
+     * Decoded characters of the current piece.
+     */
+    private final CharBuffer chars;
+
+    /**
+     * Surrogate that doesn't have pair.
+     */
+    private Character highSurrogate = null;
+
+    StreamTextReader(InputStream stream, Charset encoding, int bufferSize) {
+        this.stream = stream;
+        this.decoder = encoding.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.singleByteDecoder = SingleByteDecoder.of(encoding);
+        //decoder writes surrogate pair at once
+        this.chars = CharBuffer.allocate(Math.max(bufferSize, 2));
+        //there is always space for bytes of a not complete character and for new bytes
+        this.bytes = ByteBuffer.allocate(this.chars.capacity() + 16);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Stream is read till the piece is full or till the stream has no available bytes. Null is returned when the
+     * end of the stream was reached. At the end of stream kept bytes of a not complete character are decoded as
+     * malformed.
+     */
+    @Override
+    public String read() {
+        try {
+            if (singleByteDecoder != null) {
+                return this.readSingleBytes();
+            }
+            while (true) {
+                bytes.flip();
+                var result = decoder.decode(bytes, chars, false);
+                bytes.compact();
+                //overflow with free space means that a surrogate pair doesn't fit into the rest of the piece
+                if (!chars.hasRemaining() || (chars.position() > 0 && (result.isOverflow()
+                        || stream.available() <= 0))) {
+                    var piece = this.toPiece("");
+                    //piece is empty if there is only a high surrogate
+                    if (!piece.isEmpty()) {
+                        return piece;
+                    }
+                }
+                //one byte gives not more than one character, so stream is not read ahead of the piece
+                int count = stream.read(bytes.array(), bytes.position(), Math.min(bytes.remaining(),
+                        chars.remaining()));
+                if (count == -1) {
+                    var piece = this.toPiece(this.flush());
+                    return piece.isEmpty() ? null : piece;
+                }
+                bytes.position(bytes.position() + count);
+            }
+        } catch (IOException ex) {
+            logger.error("Error reading stream", ex);
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Stream is polled by available() without blocking, so the stream must support this method. When the end of
+     * the stream is reached, most streams have no available bytes, so the timeout expires.
+     */
+    @Override
+    public boolean awaitInput(long timeout) {
+        try {
+            var deadline = System.nanoTime() + timeout;
+            while (stream.available() <= 0) {
+                var remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(Math.min(remaining, POLL_INTERVAL));
+            }
+            return true;
+        } catch (IOException ex) {
+            logger.error("Error reading stream", ex);
+            //error will be got by read
+            return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.stream.close();
+    }
+
+    /**
+     * Reads bytes of single byte encoding, every byte is one character.
+     *
+     * @return piece of text or null.
+     */
+    private String readSingleBytes() throws IOException {
+        var array = bytes.array();
+        var capacity = chars.capacity();
+        var length = 0;
+        while (length < capacity && (length == 0 || stream.available() > 0)) {
+            int count = stream.read(array, length, capacity - length);
+            if (count == -1) {
+                break;
+            }
+            length += count;
+        }
+        return length == 0 ? null : singleByteDecoder.decode(array, 0, length);
+    }
+
+    /**
+     * Decodes kept bytes as the end of input.
+     *
+     * @return decoded characters.
+     */
+    private String flush() {
+        bytes.flip();
+        //every malformed byte is replaced by one character
+        var tail = CharBuffer.allocate(bytes.remaining() + 2);
+        decoder.decode(bytes, tail, true);
+        decoder.flush(tail);
+        decoder.reset();
+        bytes.clear();
+        tail.flip();
+        return tail.toString();
+    }
+
+    /**
+     * Takes decoded characters as a piece.
+     *
+     * @param tail characters at the end of stream or empty string.
+     * @return
+     */
+    private String toPiece(String tail) {
+        chars.flip();
+        var piece = chars.toString();
+        chars.clear();
+        if (highSurrogate != null) {
+            piece = highSurrogate + piece;
+            highSurrogate = null;
+        }
+        if (!tail.isEmpty()) {
+            return piece + tail;
+        }
+        if (!piece.isEmpty()) {
+            var lastChar = piece.charAt(piece.length() - 1);
+            if (Character.isHighSurrogate(lastChar)) {
+                piece = piece.substring(0, piece.length() - 1);
+                highSurrogate = lastChar;
+            }
+        }
+        return piece;
+    }
+}
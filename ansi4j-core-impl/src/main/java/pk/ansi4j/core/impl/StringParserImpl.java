@@ -17,23 +17,72 @@ package pk.ansi4j.core.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pk.ansi4j.core.api.ControlCharacterScanner;
 import pk.ansi4j.core.api.FailureReason;
 import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FunctionFailureReason;
 import pk.ansi4j.core.api.ParserFactory;
-import pk.ansi4j.core.api.StringParser;
 
 /**
  *
  * @author Pavel Kastornyy
  */
-public class StringParserImpl extends AbstractParser implements StringParser {
+public class StringParserImpl extends AbstractParser implements IndexedStringParser {
 
     private static final Logger logger = LoggerFactory.getLogger(StringParserImpl.class);
 
-    public StringParserImpl(String text, ParserFactory factory) {
+    private boolean endOfInput = true;
+
+    /**
+     * If true, then parsing was stopped by an error.
+     */
+    private boolean failed = false;
+
+    public StringParserImpl(CharSequence text, ParserFactory factory) {
         super(text, factory);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param text
+     * @param factory
+     * @param preScanner scanner that checks the whole text before parsing or null if there is no pre-scan.
+     */
+    public StringParserImpl(CharSequence text, ParserFactory factory, ControlCharacterScanner preScanner) {
+        super(text, factory, preScanner);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset(CharSequence text) {
+        TextUtils.checkText(text, this.getFactory());
+        this.endOfInput = true;
+        this.failed = false;
+        this.resetText(text);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset(CharSequence text, int startIndex, boolean endOfInput) {
+        TextUtils.checkText(text, this.getFactory());
+        this.endOfInput = endOfInput;
+        this.failed = false;
+        this.resetText(text, startIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFunctionPending() {
+        return !this.failed && this.hasPendingText();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -43,6 +92,7 @@ public class StringParserImpl extends AbstractParser implements StringParser {
             return this.doParse();
         } catch (Exception ex) {
             logger.error("Error parsing text", ex);
+            this.failed = true;
             return null;
         }
     }
@@ -52,6 +102,6 @@ public class StringParserImpl extends AbstractParser implements StringParser {
      */
     @Override
     protected boolean delayFunctionParsing(FailureReason reason) {
-        return false;
+        return !this.endOfInput && reason == FunctionFailureReason.NO_END_OF_FUNCTION;
     }
 }
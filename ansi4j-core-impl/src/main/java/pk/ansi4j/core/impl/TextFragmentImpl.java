@@ -28,6 +28,18 @@ public class TextFragmentImpl extends AbstractFragment implements TextFragment {
         super(FragmentType.TEXT, text, currentIndex);
     }
 
+    /**
+     * Creates fragment without copying its text.
+     *
+     * @param source text that contains fragment text.
+     * @param sourceStartIndex start index in source, inclusive.
+     * @param sourceEndIndex end index in source, exclusive.
+     * @param currentIndex index of the fragment in the whole text.
+     */
+    public TextFragmentImpl(CharSequence source, int sourceStartIndex, int sourceEndIndex, int currentIndex) {
+        super(FragmentType.TEXT, source, sourceStartIndex, sourceEndIndex, currentIndex);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.io.Closeable;
+
+/**
+ * Reads text of stream parser by pieces. A piece never ends with a high surrogate, such surrogate is kept till the
+ * next piece.
+ *
+ * @author Pavel Kastornyy
+ */
+public interface TextReader extends Closeable {
+
+    /**
+     * Reads next piece of text.
+     *
+     * @return piece of text or null if there is no more text now.
+     */
+    String read();
+
+    /**
+     * Waits till the next piece can be read without blocking. Readers that can't check it return true at once.
+     *
+     * @param timeout timeout in nanoseconds.
+     * @return true if the next piece can be read, false if the timeout expired.
+     */
+    default boolean awaitInput(long timeout) {
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import pk.ansi4j.core.DefaultTextHandler;
+import pk.ansi4j.core.Utf8Text;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.TextHandler;
+
+/**
+ * Utils for text that is passed to string parsers.
+ *
+ * @author Pavel Kastornyy
+ */
+public final class TextUtils {
+
+    /**
+     * Checks that text can be parsed by parsers of the factory.
+     *
+     * @param text
+     * @param factory
+     * @throws IllegalArgumentException if text is null or can't be parsed in the environment of the factory.
+     */
+    public static void checkText(CharSequence text, ParserFactory factory) {
+        if (text == null) {
+            throw new IllegalArgumentException("No text provided");
+        }
+        if (text instanceof Utf8Text && factory.getEnvironment() == Environment._8_BIT) {
+            throw new IllegalArgumentException("UTF-8 bytes can be parsed only in 7-bit environment");
+        }
+    }
+
+    /**
+     * Checks whether text has no control characters, so it can be returned as one text fragment.
+     *
+     * @param text
+     * @param scanner pre-scanner or null if there is no pre-scan.
+     * @return true if scanner is provided, text isn't empty and has no control characters.
+     */
+    public static boolean isPlainText(CharSequence text, ControlCharacterScanner scanner) {
+        if (scanner == null || text.length() == 0) {
+            return false;
+        }
+        return scanner.indexOfControlCharacter(text, 0, text.length()) < 0;
+    }
+
+    /**
+     * Returns fragment with the whole text that has no functions. If {@link DefaultTextHandler} is used, then
+     * fragment is created without handler and string text is returned by the fragment as it is.
+     *
+     * @param text
+     * @param currentIndex index of the first character of text.
+     * @param handler
+     * @return
+     */
+    public static Fragment createPlainTextFragment(CharSequence text, int currentIndex, TextHandler handler) {
+        if (handler.getClass() != DefaultTextHandler.class) {
+            //text handler can change text
+            return handler.handle(text, 0, text.length(), currentIndex).getFragment().get();
+        }
+        if (text instanceof String) {
+            return new TextFragmentImpl((String) text, currentIndex);
+        }
+        return new TextFragmentImpl(text, 0, text.length(), currentIndex);
+    }
+
+    private TextUtils() {
+        //empty constructor
+    }
+}
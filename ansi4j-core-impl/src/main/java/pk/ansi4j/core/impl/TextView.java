@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+/**
+ * Char sequence that is a view over a part of another char sequence. No characters are copied, string is created
+ * only when {@link #toString()} is called.
+ *
+ * @author Pavel Kastornyy
+ */
+public class TextView implements CharSequence {
+
+    private final CharSequence text;
+
+    private final int startIndex;
+
+    private final int endIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param text the whole text that must not be modified.
+     * @param startIndex start index in the whole text, inclusive.
+     * @param endIndex end index in the whole text, exclusive.
+     */
+    public TextView(CharSequence text, int startIndex, int endIndex) {
+        if (startIndex < 0 || endIndex > text.length() || startIndex > endIndex) {
+            throw new IndexOutOfBoundsException("Illegal range [" + startIndex + ", " + endIndex + ") for length "
+                    + text.length());
+        }
+        this.text = text;
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length() {
+        return endIndex - startIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= endIndex - startIndex) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of length " + (endIndex - startIndex));
+        }
+        return text.charAt(startIndex + index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > endIndex - startIndex || start > end) {
+            throw new IndexOutOfBoundsException("Illegal range [" + start + ", " + end + ") for length "
+                    + (endIndex - startIndex));
+        }
+        return new TextView(text, startIndex + start, startIndex + end);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return text.subSequence(startIndex, endIndex).toString();
+    }
+}
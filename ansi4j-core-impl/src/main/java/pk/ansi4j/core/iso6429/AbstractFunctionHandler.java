@@ -16,7 +16,10 @@
 package pk.ansi4j.core.iso6429;
 
 import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.FunctionFailureReason;
 import pk.ansi4j.core.api.FunctionHandler;
+import pk.ansi4j.core.api.FunctionHandlerResult;
+import pk.ansi4j.core.api.iso6429.ControlFunction;
 
 /**
  *
@@ -24,8 +27,39 @@ import pk.ansi4j.core.api.FunctionHandler;
  */
 public abstract class AbstractFunctionHandler implements FunctionHandler {
 
+    /**
+     * Initial length of the piece that is given to {@link #handle(String, ControlFunction, int)} by the default
+     * implementation of the offset based method. If the end of the function isn't in the piece, the piece is
+     * doubled until it covers all available text.
+     */
+    private static final int PIECE_LENGTH = 64;
+
     private Environment environment;
 
+    /**
+     * {@inheritDoc}
+     *
+     * Default implementation is a bridge for handlers that only implement
+     * {@link #handle(String, ControlFunction, int)}. It gives them a short piece of text starting with the function,
+     * so the whole rest of the text isn't copied for every function. Built-in handlers override this method and
+     * parse the text in place.
+     */
+    @Override
+    public FunctionHandlerResult handle(CharSequence text, int startIndex, int endIndex, ControlFunction function,
+            int currentIndex) {
+        long pieceLength = PIECE_LENGTH;
+        while (true) {
+            var pieceEnd = (int) Math.min(endIndex, startIndex + pieceLength);
+            var piece = text.subSequence(startIndex, pieceEnd).toString();
+            var result = this.handle(piece, function, currentIndex);
+            if (result.getFragment().isPresent() || pieceEnd == endIndex
+                    || result.getFailureReason() != FunctionFailureReason.NO_END_OF_FUNCTION) {
+                return result;
+            }
+            pieceLength = pieceLength * 2;
+        }
+    }
+
     /**
      * Functions checks if whole function is present in text.
      * @param text
@@ -40,6 +74,16 @@ public abstract class AbstractFunctionHandler implements FunctionHandler {
         }
     }
 
+    /**
+     * Functions checks if whole function is present in text.
+     * @param functionEndIndex index where function ends, exclusive.
+     * @param endIndex index where available text ends, exclusive.
+     * @return
+     */
+    protected boolean isEndOfFunctionPresent(int functionEndIndex, int endIndex) {
+        return functionEndIndex <= endIndex;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -44,13 +44,20 @@ public class C0ControlFunctionHandler extends AbstractFunctionHandler {
      */
     @Override
     public FunctionHandlerResult handle(String text, ControlFunction function, int currentIndex) {
-        var startIndex = 0;
-        int endIndex = startIndex + 1;
-        if (!isEndOfFunctionPresent(text, endIndex)) {
+        return this.handle(text, 0, text.length(), function, currentIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FunctionHandlerResult handle(CharSequence text, int startIndex, int endIndex, ControlFunction function,
+            int currentIndex) {
+        int functionEndIndex = startIndex + 1;
+        if (!isEndOfFunctionPresent(functionEndIndex, endIndex)) {
             return new FunctionHandlerResultImpl(Optional.empty(), FunctionFailureReason.NO_END_OF_FUNCTION);
         }
-        var functionText = text.substring(startIndex, endIndex);
-        return new FunctionHandlerResultImpl(Optional.of(
-                new FunctionFragmentImpl(functionText, currentIndex, function, new ArrayList<>())), null);
+        return new FunctionHandlerResultImpl(Optional.of(new FunctionFragmentImpl(text, startIndex, functionEndIndex,
+                currentIndex, function, new ArrayList<>())), null);
     }
 }
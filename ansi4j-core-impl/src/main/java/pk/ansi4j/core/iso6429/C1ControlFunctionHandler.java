@@ -45,18 +45,25 @@ public class C1ControlFunctionHandler extends AbstractFunctionHandler {
      */
     @Override
     public FunctionHandlerResult handle(String text, ControlFunction function, int currentIndex) {
-        var startIndex = 0;
-        int endIndex;
+        return this.handle(text, 0, text.length(), function, currentIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FunctionHandlerResult handle(CharSequence text, int startIndex, int endIndex, ControlFunction function,
+            int currentIndex) {
+        int functionEndIndex;
         if (this.getEnvironment() == Environment._7_BIT) {
-            endIndex = startIndex + 2;
+            functionEndIndex = startIndex + 2;
         } else {
-            endIndex = startIndex + 1;
+            functionEndIndex = startIndex + 1;
         }
-        if (!isEndOfFunctionPresent(text, endIndex)) {
+        if (!isEndOfFunctionPresent(functionEndIndex, endIndex)) {
             return new FunctionHandlerResultImpl(Optional.empty(), FunctionFailureReason.NO_END_OF_FUNCTION);
         }
-        var functionText = text.substring(startIndex, endIndex);
-        return new FunctionHandlerResultImpl(Optional.of(
-                new FunctionFragmentImpl(functionText, currentIndex, function, new ArrayList<>())), null);
+        return new FunctionHandlerResultImpl(Optional.of(new FunctionFragmentImpl(text, startIndex, functionEndIndex,
+                currentIndex, function, new ArrayList<>())), null);
     }
 }
@@ -43,27 +43,33 @@ public class ControlSequenceHandler extends AbstractFunctionHandler {
      */
     @Override
     public FunctionHandlerResult handle(String text, ControlFunction function, int currentIndex) {
-        var startIndex = 0;
-        FunctionDescriptor functionDescriptor = this.matcher.match(startIndex, text);
-        if (functionDescriptor == null) {
-            return new FunctionHandlerResultImpl(Optional.empty(), FunctionFailureReason.UNKNOWN_FUNCTION);
-        }
-        //getting text that will be parsed
-        var codes = functionDescriptor.getCodes();
-        final var finalByteIndex = text.indexOf(codes.get(codes.size() - 1), startIndex);
+        return this.handle(text, 0, text.length(), function, currentIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FunctionHandlerResult handle(CharSequence text, int startIndex, int endIndex, ControlFunction function,
+            int currentIndex) {
+        FunctionDescriptor functionDescriptor = this.matcher.match(text, startIndex, endIndex);
+        //matcher and this index use the same rule, so the final byte is the one of the matched function
+        final var finalByteIndex = ControlSequenceUtils.indexOfFinalByte(text, startIndex + 2, endIndex);
         if (finalByteIndex == -1) {
+            //the text doesn't contain the whole function yet
             return new FunctionHandlerResultImpl(Optional.empty(), FunctionFailureReason.NO_END_OF_FUNCTION);
         }
-        var functionText = text.substring(startIndex, finalByteIndex + 1);
-        String argStr = null;
+        if (functionDescriptor == null) {
+            return new FunctionHandlerResultImpl(Optional.empty(), FunctionFailureReason.UNKNOWN_FUNCTION);
+        }
+        var functionEndIndex = finalByteIndex + 1;
         //getting arguments
-        if (ControlSequenceUtils.isIntermediateByte(functionText.codePointAt(functionText.length() - 1))) {
-            argStr = functionText.substring(2, functionText.length() - 2);
-        } else {
-            argStr = functionText.substring(2, functionText.length() - 1);
+        var argEndIndex = finalByteIndex;
+        if (ControlSequenceUtils.isIntermediateByte(Character.codePointAt(text, finalByteIndex))) {
+            argEndIndex = finalByteIndex - 1;
         }
-        List<FunctionArgument> arguments = this.parseArguments(argStr, functionDescriptor);
-        var fragment = new FunctionFragmentImpl(functionText, currentIndex,
+        List<FunctionArgument> arguments = this.parseArguments(text, startIndex + 2, argEndIndex, functionDescriptor);
+        var fragment = new FunctionFragmentImpl(text, startIndex, functionEndIndex, currentIndex,
                 functionDescriptor.getFunction(), arguments);
         return new FunctionHandlerResultImpl(Optional.of(fragment), null);
     }
@@ -76,13 +82,14 @@ public class ControlSequenceHandler extends AbstractFunctionHandler {
         return ControlFunctionType.CONTROL_SEQUENCE;
     }
 
-    List<FunctionArgument> parseArguments(String argStr, FunctionDescriptor functionDescriptor) {
+    List<FunctionArgument> parseArguments(CharSequence text, int startIndex, int endIndex,
+            FunctionDescriptor functionDescriptor) {
         //no arguments
         if (functionDescriptor.getParameters() == null) {
             return null;
         }
         List<FunctionArgument> arguments = new ArrayList<>();
-        List<String> strArgs = ControlSequenceUtils.parseArguments(argStr);
+        List<String> strArgs = ControlSequenceUtils.parseArguments(text, startIndex, endIndex);
         if (strArgs == null) {
             var function = functionDescriptor.getFunction();
             if (function.getDefaultValues() != null) {
@@ -98,7 +105,8 @@ public class ControlSequenceHandler extends AbstractFunctionHandler {
                     //it is default value
                     if (defaultValues == null || defaultValues.size() - 1 < i) {
                         throw new IllegalArgumentException("Not default value with index " + i + " for "
-                                + functionDescriptor.getFunction() + " arguments [" + argStr + "]");
+                                + functionDescriptor.getFunction() + " arguments ["
+                                + text.subSequence(startIndex, endIndex) + "]");
                     } else {
                         arg = new FunctionArgumentImpl(defaultValues.get(i), true);
                     }
@@ -53,14 +53,22 @@ class ControlSequenceMatcher implements FunctionMatcher {
      */
     @Override
     public FunctionDescriptor match(int startIndex, String functionText) {
-        if (functionText.charAt(startIndex) != Characters.ESC ||
+        return this.match(functionText, startIndex, functionText.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FunctionDescriptor match(CharSequence functionText, int startIndex, int endIndex) {
+        if (startIndex + 1 >= endIndex || functionText.charAt(startIndex) != Characters.ESC ||
                 functionText.charAt(startIndex + 1) != Characters.LEFT_SB) {
             return null;
         }
         String intermediateByte = "";
         String finalByte = null;
-        for (int offset = startIndex + 2; offset < functionText.length();) {
-            final int codepoint = functionText.codePointAt(offset);
+        for (int offset = startIndex + 2; offset < endIndex;) {
+            final int codepoint = Character.codePointAt(functionText, offset);
             if (ControlSequenceUtils.isIntermediateByte(codepoint)) {
                 intermediateByte = new String(Character.toChars(codepoint));
             } else if (ControlSequenceUtils.isFinalByte(codepoint)) {
@@ -56,6 +56,36 @@ class ControlSequenceUtils {
         }
     }
 
+    /**
+     * Returns index of the first final byte in text starting from the given index.
+     *
+     * @param text
+     * @param startIndex
+     * @return index or -1 if there is no final byte.
+     */
+    protected static int indexOfFinalByte(String text, int startIndex) {
+        return indexOfFinalByte(text, startIndex, text.length());
+    }
+
+    /**
+     * Returns index of the first final byte in text between start and end indexes.
+     *
+     * @param text
+     * @param startIndex
+     * @param endIndex
+     * @return index or -1 if there is no final byte.
+     */
+    protected static int indexOfFinalByte(CharSequence text, int startIndex, int endIndex) {
+        for (int offset = startIndex; offset < endIndex;) {
+            final int codepoint = Character.codePointAt(text, offset);
+            if (isFinalByte(codepoint)) {
+                return offset;
+            }
+            offset += Character.charCount(codepoint);
+        }
+        return -1;
+    }
+
     /**
      * Parses arguments separated with semicolon (;) with possible default values. Default values are nulls in
      * result list.
@@ -63,28 +93,37 @@ class ControlSequenceUtils {
      * @return list of null if there are no arguments.
      */
     protected static List<String> parseArguments(String text) {
+        return parseArguments(text, 0, text.length());
+    }
+
+    /**
+     * Parses arguments between start and end indexes. Arguments are separated with semicolon (;) with possible
+     * default values. Default values are nulls in result list.
+     * @param text
+     * @param startIndex
+     * @param endIndex
+     * @return list of null if there are no arguments.
+     */
+    protected static List<String> parseArguments(CharSequence text, int startIndex, int endIndex) {
         List<String> arguments = new ArrayList<>();
-        StringBuilder builder = new StringBuilder();
-        for (int offset = 0; offset < text.length();) {
-            final int codepoint = text.codePointAt(offset);
-            if (isSemicolon(codepoint)) {
-                if (builder.length() > 0) {
-                    arguments.add(builder.toString());
-                    builder.setLength(0);
+        int argumentIndex = startIndex;
+        for (int offset = startIndex; offset < endIndex; offset++) {
+            //semicolon can't be a part of surrogate pair, so we can check chars
+            if (isSemicolon(text.charAt(offset))) {
+                if (offset > argumentIndex) {
+                    arguments.add(text.subSequence(argumentIndex, offset).toString());
                 } else {
                     arguments.add(null);
                 }
                 //is it last semicolon
-                if (offset == text.length() - 1) {
+                if (offset == endIndex - 1) {
                     arguments.add(null);
                 }
-            } else {
-                builder.append(Character.toChars(codepoint));
+                argumentIndex = offset + 1;
             }
-            offset += Character.charCount(codepoint);
         }
-        if (builder.length() > 0) {
-            arguments.add(builder.toString());
+        if (endIndex > argumentIndex) {
+            arguments.add(text.subSequence(argumentIndex, endIndex).toString());
         }
         if (arguments.isEmpty()) {
             return null;
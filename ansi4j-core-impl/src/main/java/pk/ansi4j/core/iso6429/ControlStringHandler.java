@@ -50,7 +50,15 @@ public class ControlStringHandler extends AbstractFunctionHandler {
      */
     @Override
     public FunctionHandlerResult handle(String text, ControlFunction function, int currentIndex) {
-        var startIndex = 0;
+        return this.handle(text, 0, text.length(), function, currentIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FunctionHandlerResult handle(CharSequence text, int startIndex, int endIndex, ControlFunction function,
+            int currentIndex) {
         String openingDelimiter = null;
         String terminatingTerminator = null;
         if (this.getEnvironment() == Environment._7_BIT) {
@@ -60,25 +68,57 @@ public class ControlStringHandler extends AbstractFunctionHandler {
             openingDelimiter = ((C1ControlFunction) function).get8BitPattern();
             terminatingTerminator = C1ControlFunction.ST_STRING_TERMINATOR.get8BitPattern();
         }
-        int endIndex = text.indexOf(terminatingTerminator, startIndex);
-        if (endIndex == -1) {
+        int functionEndIndex = indexOf(text, terminatingTerminator, startIndex, endIndex);
+        if (functionEndIndex == -1) {
             return new FunctionHandlerResultImpl(Optional.empty(), FunctionFailureReason.NO_END_OF_FUNCTION);
         }
-        endIndex += terminatingTerminator.length();
-        var functionText = text.substring(startIndex, endIndex);
-        var argumentString = text.substring(startIndex + openingDelimiter.length(), endIndex);
+        functionEndIndex += terminatingTerminator.length();
+        var argumentStartIndex = startIndex + openingDelimiter.length();
         var arguments = new ArrayList<FunctionArgument>();
-        if (argumentString.indexOf(";") != -1) {
-            var splits = argumentString.split(";");
-            for (var split : splits) {
-                var argument = new FunctionArgumentImpl(split, false);
-                arguments.add(argument);
+        //arguments are separated with `;`, trailing empty arguments are omitted
+        var lastNotEmptyCount = 0;
+        var argumentIndex = argumentStartIndex;
+        for (var i = argumentStartIndex; i <= functionEndIndex; i++) {
+            if (i == functionEndIndex || text.charAt(i) == ';') {
+                var argument = text.subSequence(argumentIndex, i).toString();
+                arguments.add(new FunctionArgumentImpl(argument, false));
+                if (!argument.isEmpty()) {
+                    lastNotEmptyCount = arguments.size();
+                }
+                argumentIndex = i + 1;
+            }
+        }
+        if (arguments.size() > 1) {
+            arguments.subList(lastNotEmptyCount, arguments.size()).clear();
+        }
+        return new FunctionHandlerResultImpl(Optional.of(new FunctionFragmentImpl(text, startIndex, functionEndIndex,
+                currentIndex, function, arguments)), null);
+    }
+
+    /**
+     * Returns index of the string in the text between start and end indexes.
+     *
+     * @param text
+     * @param str
+     * @param startIndex
+     * @param endIndex
+     * @return index or -1 if text doesn't contain the string.
+     */
+    private static int indexOf(CharSequence text, String str, int startIndex, int endIndex) {
+        var first = str.charAt(0);
+        var lastIndex = endIndex - str.length();
+        for (var i = startIndex; i <= lastIndex; i++) {
+            if (text.charAt(i) != first) {
+                continue;
+            }
+            var j = 1;
+            while (j < str.length() && text.charAt(i + j) == str.charAt(j)) {
+                j++;
+            }
+            if (j == str.length()) {
+                return i;
             }
-        } else {
-            var argument = new FunctionArgumentImpl(argumentString, false);
-            arguments.add(argument);
         }
-        return new FunctionHandlerResultImpl(Optional.of(
-                new FunctionFragmentImpl(functionText, currentIndex, function, arguments)), null);
+        return -1;
     }
 }
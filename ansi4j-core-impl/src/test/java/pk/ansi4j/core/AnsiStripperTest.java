@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.utils.Characters;
+import pk.ansi4j.core.iso6429.C0ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.C1ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.ControlSequenceHandler;
+import pk.ansi4j.core.iso6429.ControlStringHandler;
+import pk.ansi4j.core.iso6429.IndependentControlFunctionHandler;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class AnsiStripperTest {
+
+    private static final String ESC = String.valueOf(Characters.ESC);
+
+    private static final String ALPHABET = ESC + ESC + ESC + "[[;;0123 !m@HZ]P\\\\\u0007\n abc\u0085\u009b\u009c\u009d";
+
+    @Test
+    public void strip_randomTexts_sameAsParserTexts() throws IOException {
+        var random = new Random(42);
+        for (var environment : Environment.values()) {
+            var factory = createFactory(environment);
+            var stripper = new AnsiStripper(factory);
+            for (var i = 0; i < 1000; i++) {
+                var text = createText(random);
+                var fragments = parse(factory, text);
+                var length = fragments.stream().mapToInt(f -> f.getEndIndex() - f.getStartIndex()).sum();
+                if (length != text.length()) {
+                    //parsing was stopped by an error
+                    continue;
+                }
+                var builder = new StringBuilder();
+                for (var fragment : fragments) {
+                    if (fragment.getType() == FragmentType.TEXT) {
+                        builder.append(fragment.getText());
+                    }
+                }
+                var expected = builder.toString();
+                assertThat(text, stripper.strip(text), equalTo(expected));
+                var writer = new StringWriter();
+                stripper.strip(text, writer);
+                assertThat(text, writer.toString(), equalTo(expected));
+                var array = new char[text.length() + 2];
+                var count = stripper.strip(text, array, 2);
+                assertThat(text, new String(array, 2, count), equalTo(expected));
+            }
+        }
+    }
+
+    @Test
+    public void strip_latin1Text_functionsRemoved() {
+        var text = "café " + ESC + "[1;31mred" + ESC + "[m " + ESC + "]0;title" + ESC + "\\end" + ESC + "[1;2";
+        var stripper = new AnsiStripper(createFactory(Environment._7_BIT));
+        var latin1Text = new Latin1Text(text.getBytes(StandardCharsets.ISO_8859_1));
+        assertThat(stripper.strip(latin1Text), equalTo("café red end" + ESC + "[1;2"));
+        var array = new char[text.length()];
+        var count = stripper.strip(latin1Text, array, 0);
+        assertThat(new String(array, 0, count), equalTo("café red end" + ESC + "[1;2"));
+    }
+
+    @Test
+    public void strip_smallArray_exception() {
+        var stripper = new AnsiStripper(createFactory(Environment._7_BIT));
+        assertThrows(IllegalArgumentException.class, () -> stripper.strip("abc", new char[3], 1));
+    }
+
+    private static String createText(Random random) {
+        var builder = new StringBuilder();
+        var length = random.nextInt(30);
+        for (var j = 0; j < length; j++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    private static List<Fragment> parse(ParserFactory factory, String text) {
+        List<Fragment> fragments = new ArrayList<>();
+        var parser = factory.createParser(text);
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            fragments.add(fragment);
+        }
+        return fragments;
+    }
+
+    private static ParserFactory createFactory(Environment environment) {
+        return new DefaultParserFactory.Builder()
+                .environment(environment)
+                .textHandler(new DefaultTextHandler())
+                .functionFinder(new DefaultFunctionFinder())
+                .functionHandlers(new C0ControlFunctionHandler(),
+                        new C1ControlFunctionHandler(),
+                        new ControlSequenceHandler(),
+                        new IndependentControlFunctionHandler(),
+                        new ControlStringHandler())
+                .build();
+    }
+}
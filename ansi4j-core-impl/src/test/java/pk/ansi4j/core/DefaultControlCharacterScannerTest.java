@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class DefaultControlCharacterScannerTest {
+
+    @Test
+    public void indexOfControlCharacter_latin1Text7Bit_sameAsString() {
+        this.checkLatin1SameAsString(Environment._7_BIT);
+    }
+
+    @Test
+    public void indexOfControlCharacter_latin1Text8Bit_sameAsString() {
+        this.checkLatin1SameAsString(Environment._8_BIT);
+    }
+
+    @Test
+    public void indexOfControlCharacter_latin1TextWithOffset_success() {
+        var scanner = new DefaultControlCharacterScanner();
+        scanner.initialize(Environment._8_BIT);
+        var bytes = "\u001b0123456789abcdef\u009b0123\u0007".getBytes(StandardCharsets.ISO_8859_1);
+        var text = new Latin1Text(bytes, 1, bytes.length - 1);
+        assertThat(scanner.indexOfControlCharacter(text, 0, text.length()), equalTo(16));
+        assertThat(scanner.indexOfControlCharacter(text, 17, text.length()), equalTo(-1));
+        assertThat(scanner.indexOfControlCharacter(text.subSequence(3, text.length()), 0, 14), equalTo(13));
+    }
+
+    private void checkLatin1SameAsString(Environment environment) {
+        var scanner = new DefaultControlCharacterScanner();
+        scanner.initialize(environment);
+        var random = new Random(42);
+        for (var i = 0; i < 2000; i++) {
+            var bytes = new byte[random.nextInt(100)];
+            for (var j = 0; j < bytes.length; j++) {
+                //most bytes are printable ASCII
+                bytes[j] = (byte) (random.nextInt(20) == 0 ? random.nextInt(256) : 0x20 + random.nextInt(0x5F));
+            }
+            var string = new String(bytes, StandardCharsets.ISO_8859_1);
+            var text = new Latin1Text(bytes);
+            assertThat(text.toString(), equalTo(string));
+            var startIndex = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            var endIndex = startIndex + random.nextInt(bytes.length - startIndex + 1);
+            assertThat(string, scanner.indexOfControlCharacter(text, startIndex, endIndex),
+                    equalTo(scanner.indexOfControlCharacter(string, startIndex, endIndex)));
+        }
+    }
+}
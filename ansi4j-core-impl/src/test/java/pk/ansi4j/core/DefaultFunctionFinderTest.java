@@ -25,6 +25,7 @@ import pk.ansi4j.core.api.iso6429.C1ControlFunction;
 import pk.ansi4j.core.api.iso6429.ControlFunctionType;
 import pk.ansi4j.core.api.iso6429.IndependentControlFunction;
 import pk.ansi4j.core.api.utils.Characters;
+import pk.ansi4j.core.impl.MutableFunctionFinderResultImpl;
 
 /**
  *
@@ -161,4 +162,26 @@ public class DefaultFunctionFinderTest {
         assertThat(result.getFunction(), equalTo(C1ControlFunction.PM_PRIVACY_MESSAGE));
     }
 
+    /* RESULT HOLDER */
+
+    @Test
+    public void find_holderReused_success() {
+        var result = new MutableFunctionFinderResultImpl();
+        var text = "ab" + Characters.ESC + "[20mcd" + Characters.ESC + "c";
+        assertThat(finder7Bit.find(text, 0, text.length(), result), equalTo(true));
+        assertThat(result.getFunctionIndex(), equalTo(2));
+        assertThat(result.getFunctionType(), equalTo(ControlFunctionType.CONTROL_SEQUENCE));
+        assertThat(result.getFunction(), equalTo(C1ControlFunction.CSI_CONTROL_SEQUENCE_INTRODUCER));
+        assertThat(finder7Bit.find(text, 3, text.length(), result), equalTo(true));
+        assertThat(result.getFunctionIndex(), equalTo(9));
+        assertThat(result.getFunctionType(), equalTo(ControlFunctionType.INDEPENDENT_FUNCTION));
+        assertThat(result.getFunction(), equalTo(IndependentControlFunction.RIS_RESET_TO_INITIAL_STATE));
+    }
+
+    @Test
+    public void find_functionAfterEndIndex_notFound() {
+        var result = new MutableFunctionFinderResultImpl();
+        var text = "abc" + Characters.ESC + "[20m";
+        assertThat(finder7Bit.find(text, 0, 3, result), equalTo(false));
+    }
 }
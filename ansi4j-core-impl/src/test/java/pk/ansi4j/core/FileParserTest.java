@@ -0,0 +1,201 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static pk.ansi4j.core.ParserTestUtils.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+
+/**
+ * Checks that file parsers create the same fragments as string parsers.
+ *
+ * @author Pavel Kastornyy
+ */
+public class FileParserTest {
+
+    @Test
+    public void createFileParser_smallWindows_sameFunctions() throws IOException {
+        var file = Files.createTempFile("ansi4j", ".log");
+        try {
+            for (var factory : List.of(createDefaultFactory(Environment._7_BIT),
+                    createStateMachineFactory(Environment._7_BIT))) {
+                for (var text : createTexts()) {
+                    text = text + text + text;
+                    var bytes = text.getBytes(StandardCharsets.UTF_8);
+                    var expected = parse(factory.createParser(new Utf8Text(bytes)));
+                    //if parsing is stopped by an error, file parser stops there too, but it can return text pieces
+                    //before the failed function
+                    var stopped = !joinTexts(expected).equals(text);
+                    Files.write(file, bytes);
+                    //window is enlarged if function or UTF-8 character is longer than it
+                    for (var windowSize = 1; windowSize < 8; windowSize++) {
+                        try (var parser = factory.createFileParser(FileChannel.open(file), windowSize)) {
+                            var actual = parse(parser);
+                            var message = factory.getClass().getSimpleName() + " " + text + " by " + windowSize;
+                            assertThat(message, describeFunctions(actual), equalTo(describeFunctions(expected)));
+                            assertThat(message, text, startsWith(joinTexts(actual)));
+                            assertThat(message, joinTexts(actual), startsWith(joinTexts(expected)));
+                            if (!stopped) {
+                                assertThat(message, parser.getCurrentIndex(), equalTo(bytes.length));
+                            }
+                            assertThat(message, parser.getIndexOffset(), equalTo(0L));
+                        }
+                    }
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void createFileParser_errorInFunction_windowNotEnlarged() throws IOException {
+        var file = Files.createTempFile("ansi4j", ".log");
+        try {
+            var text = "ab" + ESC + "[99999999999m" + "cd".repeat(1000);
+            var bytes = text.getBytes(StandardCharsets.UTF_8);
+            Files.write(file, bytes);
+            for (var factory : List.of(createDefaultFactory(Environment._7_BIT),
+                    createStateMachineFactory(Environment._7_BIT))) {
+                var expected = parse(factory.createParser(text));
+                var channel = new CountingChannel(FileChannel.open(file));
+                try (var parser = factory.createFileParser(channel, 4)) {
+                    var actual = parse(parser);
+                    assertThat(describeFunctions(actual), equalTo(describeFunctions(expected)));
+                    assertThat(text, startsWith(joinTexts(actual)));
+                }
+                //window is enlarged only till the function is in it
+                assertThat(channel.mapCount, lessThan(8));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Channel that counts mapped windows.
+     */
+    private static final class CountingChannel extends FileChannel {
+
+        private final FileChannel channel;
+
+        private int mapCount = 0;
+
+        CountingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            this.mapCount++;
+            return this.channel.map(mode, position, size);
+        }
+
+        @Override
+        public long size() throws IOException {
+            return this.channel.size();
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return this.channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return this.channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return this.channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return this.channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return this.channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            this.channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            this.channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            this.channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return this.channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return this.channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return this.channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return this.channel.write(src, position);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return this.channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return this.channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            this.channel.close();
+        }
+    }
+}
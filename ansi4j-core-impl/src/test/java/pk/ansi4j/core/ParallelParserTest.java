@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static pk.ansi4j.core.ParserTestUtils.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+
+/**
+ * Checks that parallel parsing creates the same fragments as sequential parsing.
+ *
+ * @author Pavel Kastornyy
+ */
+public class ParallelParserTest {
+
+    @Test
+    public void parseParallel_chunks_sameAsSequential() {
+        var texts = new ArrayList<String>();
+        for (var text : createTexts()) {
+            texts.add(text + "\n" + text + text + "\n" + text);
+        }
+        texts.add(String.join("", createTexts()));
+        for (var environment : Environment.values()) {
+            for (var factory : List.of(createDefaultFactory(environment), createStateMachineFactory(environment))) {
+                for (var text : texts) {
+                    var expected = describe(parse(factory.createParser(text)));
+                    for (var chunkCount = 1; chunkCount < 10; chunkCount++) {
+                        var actual = describe(factory.parseParallel(text, ForkJoinPool.commonPool(), chunkCount));
+                        assertThat(text + " by " + chunkCount, actual, equalTo(expected));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parseParallel_errorInLastChunk_textBeforeRemoved() {
+        //string parser doesn't return text before the function that can't be parsed
+        var text = "@] " + ESC + "[;@ tail";
+        for (var factory : List.of(createDefaultFactory(Environment._7_BIT),
+                createStateMachineFactory(Environment._7_BIT))) {
+            assertThat(parse(factory.createParser(text)), empty());
+            assertThat(factory.parseParallel(text, ForkJoinPool.commonPool(), 2), empty());
+        }
+    }
+
+    @Test
+    public void stream_parallel_sameFunctions() {
+        var texts = new ArrayList<>(createTexts());
+        texts.add(String.join("", createTexts()));
+        texts.add(String.join("", TEXTS).repeat(100));
+        for (var environment : Environment.values()) {
+            for (var factory : List.of(createDefaultFactory(environment), createStateMachineFactory(environment))) {
+                for (var text : texts) {
+                    var expected = parse(factory.createParser(text));
+                    var sequential = factory.stream(text).collect(Collectors.toList());
+                    assertThat(text, describe(sequential), equalTo(describe(expected)));
+                    var parallel = factory.stream(text).parallel().collect(Collectors.toList());
+                    assertThat(text, describe(parallel), equalTo(describe(expected)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void stream_errorsInLongText_sameAsSequential() {
+        var random = new Random(42);
+        //stream is parsed in the pool of the task, so there are several chunks even with one CPU
+        var pool = new ForkJoinPool(4);
+        var functions = List.of(ESC + "[1m", ESC + "[99999999999m", ESC + "[;;H", ESC + "]0;title" + ESC + "\\", "\n");
+        for (var environment : Environment.values()) {
+            for (var factory : List.of(createDefaultFactory(environment), createStateMachineFactory(environment))) {
+                for (var i = 0; i < 20; i++) {
+                    var builder = new StringBuilder();
+                    while (builder.length() < 20000) {
+                        builder.append("x".repeat(random.nextInt(50)));
+                        //errors are rare, so they are mostly far from the start
+                        builder.append(functions.get(random.nextInt(30) == 0 ? 1 + random.nextInt(2) : 0));
+                        builder.append(functions.get(3 + random.nextInt(2)));
+                    }
+                    var text = builder.toString();
+                    var expected = describe(parse(factory.createParser(text)));
+                    var parallel = pool.submit(() -> factory.stream(text).parallel().collect(Collectors.toList()))
+                            .join();
+                    assertThat(describe(parallel), equalTo(expected));
+                }
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void stream_longText_split() {
+        var text = ("a" + ESC + "[1mb" + ESC + "]0;title" + ESC + "\\\n").repeat(1000);
+        var spliterator = createStateMachineFactory(Environment._7_BIT).stream(text).spliterator();
+        assertThat(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL), equalTo(true));
+        var prefix = spliterator.trySplit();
+        assertThat(prefix, notNullValue());
+        assertThat(prefix.estimateSize() + spliterator.estimateSize(), greaterThan(1000L));
+    }
+
+    @Test
+    public void stream_escapeInControlSequence_notSplitInside() {
+        //control sequence ends with the final byte after ESC
+        var text = "x".repeat(1000) + ESC + "[1" + ESC + "m" + "y".repeat(1010);
+        for (var environment : Environment.values()) {
+            for (var factory : List.of(createDefaultFactory(environment), createStateMachineFactory(environment))) {
+                var expected = parse(factory.createParser(text));
+                var spliterator = factory.stream(text).spliterator();
+                var prefix = spliterator.trySplit();
+                assertThat(prefix, notNullValue());
+                List<Fragment> actual = new ArrayList<>();
+                prefix.forEachRemaining(actual::add);
+                spliterator.forEachRemaining(actual::add);
+                assertThat(describeFunctions(actual), equalTo(describeFunctions(expected)));
+                assertThat(joinTexts(actual), equalTo(text));
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import pk.ansi4j.core.api.AnsiCursor;
+import pk.ansi4j.core.api.ArgumentView;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.FragmentVisitor;
+import pk.ansi4j.core.api.FunctionFragment;
+import pk.ansi4j.core.api.Parser;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+import pk.ansi4j.core.api.function.Function;
+import pk.ansi4j.core.api.utils.Characters;
+import pk.ansi4j.core.iso6429.C0ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.C1ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.ControlSequenceHandler;
+import pk.ansi4j.core.iso6429.ControlStringHandler;
+import pk.ansi4j.core.iso6429.IndependentControlFunctionHandler;
+
+/**
+ * Utils for tests that compare fragments of different parsers.
+ *
+ * @author Pavel Kastornyy
+ */
+final class ParserTestUtils {
+
+    static final String ESC = String.valueOf(Characters.ESC);
+
+    static final List<String> TEXTS = List.of(
+            "",
+            "abc",
+            ESC,
+            "abc" + ESC,
+            ESC + ESC + "[1m",
+            "a" + ESC + "[33;1mb" + ESC + "[5;Rc",
+            ESC + "[m" + ESC + "[;5H" + ESC + "[2 T" + ESC + "[1;2 D",
+            ESC + "[1!p text",
+            ESC + "[1;2",
+            ESC + "[1\n2m" + "\u0007",
+            ESC + "c" + ESC + "E" + ESC + "a" + ESC + "z",
+            ESC + "]0;title\u0007" + ESC + "]4;6;some text" + ESC + "\\ tail",
+            ESC + "]a;;b;;" + ESC + ESC + "\\",
+            ESC + "P" + ESC + "x",
+            "\u0087a\u0096 \u009b1m\u009d4;6;text\u009c\u009dno end",
+            "😀" + ESC + "[1m😀",
+            ESC + "[12345678901m" + ESC + "[1234567890m");
+
+    static final String ALPHABET = ESC + ESC + ESC + "[[;;0123 !m@HZ]P\\\\\u0007\n abc\u0085\u009b\u009c\u009d";
+
+    static List<String> createTexts() {
+        var texts = new ArrayList<>(TEXTS);
+        var random = new Random(42);
+        for (var i = 0; i < 500; i++) {
+            var builder = new StringBuilder();
+            var length = random.nextInt(30);
+            for (var j = 0; j < length; j++) {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            texts.add(builder.toString());
+        }
+        return texts;
+    }
+
+    static ParserFactory createDefaultFactory(Environment environment) {
+        return new DefaultParserFactory.Builder()
+                .environment(environment)
+                .textHandler(new DefaultTextHandler())
+                .functionFinder(new DefaultFunctionFinder())
+                .functionHandlers(new C0ControlFunctionHandler(),
+                        new C1ControlFunctionHandler(),
+                        new ControlSequenceHandler(),
+                        new IndependentControlFunctionHandler(),
+                        new ControlStringHandler())
+                .build();
+    }
+
+    static ParserFactory createStateMachineFactory(Environment environment) {
+        return new StateMachineParserFactory.Builder()
+                .environment(environment)
+                .textHandler(new DefaultTextHandler())
+                .build();
+    }
+
+    static List<ParserFactory> createPendingLimitFactories(int maxPendingSize, PendingOverflowPolicy policy,
+            PendingOverflowMetrics metrics) {
+        return List.of(
+                new DefaultParserFactory.Builder()
+                    .environment(Environment._7_BIT)
+                    .textHandler(new DefaultTextHandler())
+                    .functionFinder(new DefaultFunctionFinder())
+                    .functionHandlers(new C0ControlFunctionHandler(),
+                            new C1ControlFunctionHandler(),
+                            new ControlSequenceHandler(),
+                            new IndependentControlFunctionHandler(),
+                            new ControlStringHandler())
+                    .maxPendingSize(maxPendingSize, policy)
+                    .pendingOverflowMetrics(metrics)
+                    .build(),
+                new StateMachineParserFactory.Builder()
+                    .environment(Environment._7_BIT)
+                    .textHandler(new DefaultTextHandler())
+                    .maxPendingSize(maxPendingSize, policy)
+                    .pendingOverflowMetrics(metrics)
+                    .build());
+    }
+
+    static List<Fragment> parse(Parser parser) {
+        List<Fragment> fragments = new ArrayList<>();
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            fragments.add(fragment);
+        }
+        return fragments;
+    }
+
+    static List<String> visit(ParserFactory factory, String text) {
+        List<String> descriptions = new ArrayList<>();
+        factory.parse(text, new FragmentVisitor() {
+
+            @Override
+            public void onText(CharSequence source, int startIndex, int endIndex) {
+                descriptions.add(FragmentType.TEXT + "[" + startIndex + ", " + endIndex + ") "
+                        + source.subSequence(startIndex, endIndex));
+            }
+
+            @Override
+            public void onFunction(Function function, int startIndex, int endIndex, ArgumentView arguments) {
+                descriptions.add(describe(text, function, startIndex, endIndex, arguments));
+            }
+        });
+        return descriptions;
+    }
+
+    static List<String> readCursor(AnsiCursor cursor, String text) {
+        List<String> descriptions = new ArrayList<>();
+        FragmentType type = null;
+        while ((type = cursor.next()) != null) {
+            if (type == FragmentType.TEXT) {
+                assertThat(cursor.getFunction(), nullValue());
+                assertThat(cursor.getArguments().getCount(), equalTo(0));
+                descriptions.add(FragmentType.TEXT + "[" + cursor.getStartIndex() + ", " + cursor.getEndIndex() + ") "
+                        + text.substring(cursor.getStartIndex(), cursor.getEndIndex()));
+            } else {
+                descriptions.add(describe(text, cursor.getFunction(), cursor.getStartIndex(), cursor.getEndIndex(),
+                        cursor.getArguments()));
+            }
+        }
+        return descriptions;
+    }
+
+    static String describe(String text, Function function, int startIndex, int endIndex,
+            ArgumentView arguments) {
+        var description = FragmentType.FUNCTION + "[" + startIndex + ", " + endIndex + ") "
+                + text.substring(startIndex, endIndex) + " " + function;
+        for (var i = 0; i < arguments.getCount(); i++) {
+            description += " " + arguments.getValue(i) + "/" + arguments.isDefault(i);
+            if (arguments.isNumber(i)) {
+                assertThat(arguments.getInt(i), equalTo(arguments.getValue(i)));
+            }
+        }
+        return description;
+    }
+
+    static List<String> describe(List<Fragment> fragments) {
+        List<String> descriptions = new ArrayList<>();
+        for (var fragment : fragments) {
+            descriptions.add(describe(fragment));
+        }
+        return descriptions;
+    }
+
+    static List<String> describeFunctions(List<Fragment> fragments) {
+        List<String> descriptions = new ArrayList<>();
+        for (var fragment : fragments) {
+            if (fragment.getType() == FragmentType.FUNCTION) {
+                descriptions.add(describe(fragment));
+            }
+        }
+        return descriptions;
+    }
+
+    static String joinTexts(List<Fragment> fragments) {
+        var builder = new StringBuilder();
+        for (var fragment : fragments) {
+            builder.append(fragment.getText());
+        }
+        return builder.toString();
+    }
+
+    static String describe(Fragment fragment) {
+        var description = fragment.getType() + "[" + fragment.getStartIndex() + ", " + fragment.getEndIndex() + ") "
+                + fragment.getText();
+        if (fragment instanceof FunctionFragment) {
+            var functionFragment = (FunctionFragment) fragment;
+            description += " " + functionFragment.getFunction();
+            if (functionFragment.getArguments() != null) {
+                for (var argument : functionFragment.getArguments()) {
+                    description += " " + argument.getValue() + "/" + argument.isDefault();
+                }
+            }
+        }
+        return description;
+    }
+
+    /**
+     * Checks that the list starts with all elements of the prefix.
+     */
+    static void assertStartsWith(String message, List<String> list, List<String> prefix) {
+        assertThat(message, list, hasSize(greaterThanOrEqualTo(prefix.size())));
+        assertThat(message, list.subList(0, prefix.size()), equalTo(prefix));
+    }
+
+    private ParserTestUtils() {
+        //empty constructor
+    }
+}
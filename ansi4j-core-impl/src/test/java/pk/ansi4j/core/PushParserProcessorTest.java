@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Test;
+import static pk.ansi4j.core.StreamParserPublisherTest.createFactory;
+import static pk.ansi4j.core.StreamParserPublisherTest.describeFunctions;
+import static pk.ansi4j.core.StreamParserPublisherTest.joinTexts;
+import static pk.ansi4j.core.StreamParserPublisherTest.parse;
+import pk.ansi4j.core.api.Fragment;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class PushParserProcessorTest {
+
+    private static final String TEXT = "abc\u001b[1mdef\u001b[33;1m\u001b]0;title\u001b\\tail".repeat(100);
+
+    @Test
+    public void subscribe_smallDemand_chunksRequestedByDemand() {
+        var chunks = new ChunkPublisher(TEXT, 16);
+        var processor = new PushParserProcessor(createFactory(), StandardCharsets.UTF_8);
+        chunks.subscribe(processor);
+        var subscriber = new StreamParserPublisherTest.CollectingSubscriber();
+        processor.subscribe(subscriber);
+        assertThat(chunks.requestCount, equalTo(0L));
+        subscriber.subscription.request(3);
+        assertThat(subscriber.fragments.size(), equalTo(3));
+        assertThat(chunks.requestCount, lessThan(5L));
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.completed, equalTo(true));
+        var expected = parse(createFactory(), TEXT);
+        assertThat(describeFunctions(subscriber.fragments), equalTo(describeFunctions(expected)));
+        assertThat(joinTexts(subscriber.fragments), equalTo(TEXT));
+    }
+
+    @Test
+    public void subscribe_upstreamError_error() {
+        var processor = new PushParserProcessor(createFactory(), StandardCharsets.UTF_8);
+        var subscriber = new StreamParserPublisherTest.CollectingSubscriber();
+        processor.subscribe(subscriber);
+        processor.onSubscribe(new Flow.Subscription() {
+
+            @Override
+            public void request(long n) { }
+
+            @Override
+            public void cancel() { }
+        });
+        var error = new IllegalStateException();
+        processor.onError(error);
+        assertThat(subscriber.error, sameInstance(error));
+    }
+
+    /**
+     * Synchronous publisher of UTF-8 chunks that counts requests.
+     */
+    private static final class ChunkPublisher implements Flow.Publisher<ByteBuffer> {
+
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+
+        private long requestCount = 0;
+
+        ChunkPublisher(String text, int chunkSize) {
+            var bytes = text.getBytes(StandardCharsets.UTF_8);
+            for (var i = 0; i < bytes.length; i += chunkSize) {
+                this.chunks.add(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+            }
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                private int index = 0;
+
+                @Override
+                public void request(long n) {
+                    requestCount += n;
+                    for (var i = 0; i < n && index < chunks.size(); i++) {
+                        subscriber.onNext(chunks.get(index++));
+                    }
+                    if (index == chunks.size()) {
+                        index++;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() { }
+            });
+        }
+    }
+}
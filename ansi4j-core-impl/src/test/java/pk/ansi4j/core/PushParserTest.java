@@ -0,0 +1,282 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static pk.ansi4j.core.ParserTestUtils.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.ArgumentView;
+import pk.ansi4j.core.api.ControlStringVisitor;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.FunctionFragment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+import pk.ansi4j.core.api.function.Function;
+import pk.ansi4j.core.api.iso6429.C1ControlFunction;
+import pk.ansi4j.core.api.utils.Characters;
+
+/**
+ * Checks that push parsers create the same fragments as string parsers.
+ *
+ * @author Pavel Kastornyy
+ */
+public class PushParserTest {
+
+    @Test
+    public void createPushParser_smallChunks_sameFunctions() {
+        for (var environment : Environment.values()) {
+            var defaultFactory = createDefaultFactory(environment);
+            for (var factory : List.of(defaultFactory, createStateMachineFactory(environment))) {
+                for (var text : createTexts()) {
+                    //string parser stops at an error, push parser parses the failed function as text and continues
+                    var sequential = describeFunctions(parse(defaultFactory.createParser(text)));
+                    var expected = push(defaultFactory, text, Math.max(text.length(), 1), 0);
+                    assertStartsWith(text, describeFunctions(expected), sequential);
+                    for (var chunkSize = 1; chunkSize < 8; chunkSize++) {
+                        for (var chunkType = 0; chunkType < 3; chunkType++) {
+                            var actual = push(factory, text, chunkSize, chunkType);
+                            var message = text + " by " + chunkSize + "/" + chunkType;
+                            assertThat(message, describeFunctions(actual), equalTo(describeFunctions(expected)));
+                            assertThat(message, joinTexts(actual), equalTo(text));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void createPushParser_handlerException_parsingContinued() {
+        var chunks = List.of("a " + ESC + "[12345678901m b", "hello", ESC + "[1m world");
+        var text = String.join("", chunks);
+        for (var factory : List.of(createDefaultFactory(Environment._7_BIT),
+                createStateMachineFactory(Environment._7_BIT))) {
+            List<Fragment> fragments = new ArrayList<>();
+            var parser = factory.createPushParser(StandardCharsets.UTF_8, fragments::add);
+            chunks.forEach(parser::feed);
+            parser.endOfInput();
+            assertThat(describeFunctions(fragments), contains(startsWith("FUNCTION[23, 27) " + ESC + "[1m")));
+            assertThat(joinTexts(fragments), equalTo(text));
+            assertThat(parser.getCurrentIndex(), equalTo(text.length()));
+        }
+    }
+
+    @Test
+    public void createPushParser_pendingOverflow_policyApplied() {
+        var text = "ab" + ESC + "]0;" + "x".repeat(100) + ESC + "[1m tail";
+        for (var policy : List.of(PendingOverflowPolicy.PARSE_AS_TEXT, PendingOverflowPolicy.DROP_FUNCTION)) {
+            var metrics = new PendingOverflowMetrics();
+            for (var factory : createPendingLimitFactories(32, policy, metrics)) {
+                List<Fragment> fragments = new ArrayList<>();
+                var parser = factory.createPushParser(StandardCharsets.UTF_8, fragments::add);
+                for (var i = 0; i < text.length(); i += 10) {
+                    parser.feed(text.substring(i, Math.min(i + 10, text.length())));
+                }
+                parser.endOfInput();
+                var functions = describeFunctions(fragments);
+                assertThat(functions, hasSize(1));
+                assertThat(functions.get(0), startsWith("FUNCTION[106, 110) " + ESC + "[1m"));
+                for (var fragment : fragments) {
+                    assertThat(text.substring(fragment.getStartIndex(), fragment.getEndIndex()),
+                            equalTo(fragment.getText()));
+                }
+                if (policy == PendingOverflowPolicy.PARSE_AS_TEXT) {
+                    assertThat(joinTexts(fragments), equalTo(text));
+                } else {
+                    assertThat(joinTexts(fragments).length(), lessThan(text.length() - 32));
+                }
+            }
+            //once for every factory
+            assertThat(metrics.getCount(policy), equalTo(2L));
+            assertThat(metrics.getTotalCount(), equalTo(2L));
+        }
+    }
+
+    @Test
+    public void createPushParser_streamingStrings_sameAsFunctions() {
+        for (var environment : Environment.values()) {
+            var factory = createStateMachineFactory(environment);
+            for (var text : createTexts()) {
+                var expected = describeStrings(push(factory, text, Math.max(text.length(), 1), 0));
+                for (var chunkSize = 1; chunkSize < 8; chunkSize++) {
+                    var visitor = new StreamingVisitor();
+                    var parser = factory.createPushParser(StandardCharsets.UTF_8, visitor);
+                    for (var i = 0; i < text.length(); i += chunkSize) {
+                        parser.feed(text.substring(i, Math.min(i + chunkSize, text.length())));
+                    }
+                    parser.endOfInput();
+                    assertThat(parser.getCurrentIndex(), equalTo(text.length()));
+                    if (visitor.unterminated) {
+                        //string parser parses such string as text
+                        continue;
+                    }
+                    assertThat(text + " by " + chunkSize, visitor.getDescriptions(), equalTo(expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void createPushParser_streamingLongString_payloadNotKept() {
+        var factory = createStateMachineFactory(Environment._7_BIT);
+        var visitor = new StreamingVisitor();
+        var parser = factory.createPushParser(StandardCharsets.UTF_8, visitor);
+        parser.feed("a" + ESC + "]52;c;");
+        var chunk = "QUJD;" + ESC + "x".repeat(1000);
+        for (var i = 0; i < 1000; i++) {
+            parser.feed(chunk);
+            //payload is passed as soon as it is fed
+            assertThat(visitor.payload.length(), equalTo(5 + (i + 1) * chunk.length()));
+        }
+        parser.feed(ESC + "\\b");
+        parser.endOfInput();
+        assertThat(visitor.getDescriptions(), equalTo(List.of("TEXT a",
+                "STRING " + C1ControlFunction.OSC_OPERATING_SYSTEM_COMMAND + " 52;c;" + chunk.repeat(1000),
+                "TEXT b")));
+    }
+
+    @Test
+    public void createPushParser_feedAfterEnd_exception() {
+        var parser = createStateMachineFactory(Environment._7_BIT).createPushParser(StandardCharsets.UTF_8, f -> { });
+        parser.feed("abc");
+        parser.endOfInput();
+        assertThrows(IllegalStateException.class, () -> parser.feed("abc"));
+        assertThat(parser.getCurrentIndex(), equalTo(3));
+    }
+
+    /**
+     * Describes fragments as streaming visitor does.
+     */
+    private static List<String> describeStrings(List<Fragment> fragments) {
+        var visitor = new StreamingVisitor();
+        for (var fragment : fragments) {
+            if (fragment.getType() == FragmentType.TEXT) {
+                visitor.onText(fragment.getText(), 0, fragment.getText().length());
+                continue;
+            }
+            var function = ((FunctionFragment) fragment).getFunction();
+            if (C1ControlFunction.getControlStringOpeningDelimiters().contains(function)) {
+                var functionText = fragment.getText();
+                var startIndex = functionText.charAt(0) == Characters.ESC ? 2 : 1;
+                var endIndex = functionText.length() - (functionText.endsWith(ESC + "\\") ? 2 : 1);
+                visitor.onControlStringStart(function);
+                if (endIndex > startIndex) {
+                    visitor.onControlStringChunk(functionText, startIndex, endIndex);
+                }
+                visitor.onControlStringEnd(true);
+            } else {
+                visitor.onFunction(function, 0, fragment.getText().length(), null);
+            }
+        }
+        return visitor.getDescriptions();
+    }
+
+    /**
+     * Feeds text by chunks: 0 - strings, 1 - char arrays, 2 - UTF-8 bytes.
+     */
+    private static List<Fragment> push(ParserFactory factory, String text, int chunkSize, int chunkType) {
+        List<Fragment> fragments = new ArrayList<>();
+        var parser = factory.createPushParser(StandardCharsets.UTF_8, fragments::add);
+        if (chunkType == 2) {
+            var bytes = text.getBytes(StandardCharsets.UTF_8);
+            var buffer = ByteBuffer.allocate(chunkSize);
+            for (var i = 0; i < bytes.length; i += chunkSize) {
+                buffer.clear();
+                buffer.put(bytes, i, Math.min(chunkSize, bytes.length - i));
+                buffer.flip();
+                parser.feed(buffer);
+            }
+        } else {
+            for (var i = 0; i < text.length(); i += chunkSize) {
+                var end = Math.min(i + chunkSize, text.length());
+                if (chunkType == 0) {
+                    parser.feed(text.substring(i, end));
+                } else {
+                    parser.feed(text.toCharArray(), i, end - i);
+                }
+            }
+        }
+        parser.endOfInput();
+        assertThat(parser.getCurrentIndex(), equalTo(text.length()));
+        return fragments;
+    }
+
+    /**
+     * Describes text, functions and control strings. Adjacent texts are joined, payload of a string is joined.
+     */
+    private static final class StreamingVisitor implements ControlStringVisitor {
+
+        private final List<String> descriptions = new ArrayList<>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        private final StringBuilder payload = new StringBuilder();
+
+        private Function function;
+
+        private boolean unterminated = false;
+
+        @Override
+        public void onText(CharSequence text, int startIndex, int endIndex) {
+            this.text.append(text, startIndex, endIndex);
+        }
+
+        @Override
+        public void onFunction(Function function, int startIndex, int endIndex, ArgumentView arguments) {
+            this.flushText();
+            this.descriptions.add("FUNCTION " + function);
+        }
+
+        @Override
+        public void onControlStringStart(Function function) {
+            this.flushText();
+            this.function = function;
+            this.payload.setLength(0);
+        }
+
+        @Override
+        public void onControlStringChunk(CharSequence text, int startIndex, int endIndex) {
+            assertThat(endIndex, greaterThan(startIndex));
+            this.payload.append(text, startIndex, endIndex);
+        }
+
+        @Override
+        public void onControlStringEnd(boolean terminated) {
+            this.descriptions.add("STRING " + function + " " + payload);
+            this.unterminated |= !terminated;
+        }
+
+        List<String> getDescriptions() {
+            this.flushText();
+            return descriptions;
+        }
+
+        private void flushText() {
+            if (this.text.length() > 0) {
+                this.descriptions.add("TEXT " + text);
+                this.text.setLength(0);
+            }
+        }
+    }
+}
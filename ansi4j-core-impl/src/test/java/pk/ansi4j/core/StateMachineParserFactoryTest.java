@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.util.List;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static pk.ansi4j.core.ParserTestUtils.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.iso6429.C0ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.C1ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.ControlSequenceHandler;
+import pk.ansi4j.core.iso6429.ControlStringHandler;
+import pk.ansi4j.core.iso6429.IndependentControlFunctionHandler;
+
+/**
+ * Checks that state machine parsers create the same fragments as default parsers.
+ *
+ * @author Pavel Kastornyy
+ */
+public class StateMachineParserFactoryTest {
+
+    @Test
+    public void parse_string7Bit_sameAsDefault() {
+        this.checkSameAsDefault(Environment._7_BIT);
+    }
+
+    @Test
+    public void parse_string8Bit_sameAsDefault() {
+        this.checkSameAsDefault(Environment._8_BIT);
+    }
+
+    @Test
+    public void parse_visitor_sameAsFragments() {
+        for (var environment : Environment.values()) {
+            var defaultFactory = createDefaultFactory(environment);
+            var factory = createStateMachineFactory(environment);
+            for (var text : createTexts()) {
+                var expected = describe(parse(defaultFactory.createParser(text)));
+                //default factory uses default visiting through fragments
+                assertThat(text, visit(defaultFactory, text), equalTo(expected));
+                assertThat(text, visit(factory, text), equalTo(expected));
+            }
+        }
+    }
+
+    @Test
+    public void createCursor_allTexts_sameAsFragments() {
+        for (var environment : Environment.values()) {
+            var defaultFactory = createDefaultFactory(environment);
+            var factory = createStateMachineFactory(environment);
+            for (var text : createTexts()) {
+                var expected = describe(parse(defaultFactory.createParser(text)));
+                assertThat(text, readCursor(defaultFactory.createCursor(text), text), equalTo(expected));
+                assertThat(text, readCursor(factory.createCursor(text), text), equalTo(expected));
+            }
+        }
+    }
+
+    @Test
+    public void reset_partiallyParsedText_sameAsNewParser() {
+        for (var environment : Environment.values()) {
+            var defaultFactory = createDefaultFactory(environment);
+            for (var factory : List.of(defaultFactory, createStateMachineFactory(environment))) {
+                var pool = new StringParserPool(factory);
+                var parser = pool.getParser("");
+                var cursor = pool.getCursor("");
+                for (var text : createTexts()) {
+                    var expected = describe(parse(defaultFactory.createParser(text)));
+                    //leaving the previous text in the middle
+                    pool.getParser(text).parse();
+                    pool.getCursor(text).next();
+                    assertThat(pool.getParser(text), sameInstance(parser));
+                    assertThat(text, describe(parse(parser)), equalTo(expected));
+                    assertThat(pool.getCursor(text), sameInstance(cursor));
+                    assertThat(text, readCursor(cursor, text), equalTo(expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parse_preScan_sameAsWithoutPreScan() {
+        for (var environment : Environment.values()) {
+            var defaultFactory = createDefaultFactory(environment);
+            var factories = List.of(
+                    new DefaultParserFactory.Builder()
+                            .environment(environment)
+                            .textHandler(new DefaultTextHandler())
+                            .functionFinder(new DefaultFunctionFinder())
+                            .functionHandlers(new C0ControlFunctionHandler(),
+                                    new C1ControlFunctionHandler(),
+                                    new ControlSequenceHandler(),
+                                    new IndependentControlFunctionHandler(),
+                                    new ControlStringHandler())
+                            .preScanner(new DefaultControlCharacterScanner())
+                            .build(),
+                    new StateMachineParserFactory.Builder()
+                            .environment(environment)
+                            .textHandler(new DefaultTextHandler())
+                            .preScanner(new DefaultControlCharacterScanner())
+                            .build());
+            for (var factory : factories) {
+                var pool = new StringParserPool(factory);
+                for (var text : createTexts()) {
+                    var expected = describe(parse(defaultFactory.createParser(text)));
+                    assertThat(text, describe(parse(factory.createParser(text))), equalTo(expected));
+                    assertThat(text, describe(parse(pool.getParser(text))), equalTo(expected));
+                    assertThat(text, visit(factory, text), equalTo(expected));
+                    assertThat(text, readCursor(factory.createCursor(text), text), equalTo(expected));
+                }
+                var text = "no functions";
+                var fragment = factory.createParser(text).parse();
+                //text is shared, not copied
+                assertThat(fragment.getText(), sameInstance(text));
+            }
+        }
+    }
+
+    private void checkSameAsDefault(Environment environment) {
+        var defaultFactory = createDefaultFactory(environment);
+        var factory = createStateMachineFactory(environment);
+        for (var text : createTexts()) {
+            var expected = describe(parse(defaultFactory.createParser(text)));
+            var actual = describe(parse(factory.createParser(text)));
+            assertThat(text, actual, equalTo(expected));
+        }
+    }
+}
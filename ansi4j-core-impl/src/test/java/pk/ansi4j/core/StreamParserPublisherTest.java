@@ -0,0 +1,246 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.PendingOverflowException;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+import pk.ansi4j.core.api.StreamParser;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class StreamParserPublisherTest {
+
+    private static final String TEXT = "abc\u001b[1mdef\u001b[33;1m\u001b]0;title\u001b\\tail".repeat(1000);
+
+    @Test
+    public void subscribe_requestOneByOne_allFragments() {
+        var factory = createFactory();
+        var fragments = new ArrayList<Fragment>();
+        var completed = new boolean[1];
+        var publisher = new StreamParserPublisher(createParser(factory, new CountingStream(TEXT)), Runnable::run);
+        publisher.subscribe(new Flow.Subscriber<Fragment>() {
+
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Fragment item) {
+                fragments.add(item);
+                this.subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) { }
+
+            @Override
+            public void onComplete() {
+                completed[0] = true;
+            }
+        });
+        assertThat(completed[0], equalTo(true));
+        var expected = parse(factory, TEXT);
+        assertThat(describeFunctions(fragments), equalTo(describeFunctions(expected)));
+        assertThat(joinTexts(fragments), equalTo(TEXT));
+    }
+
+    @Test
+    public void subscribe_smallDemand_inputNotRead() {
+        var stream = new CountingStream(TEXT);
+        var publisher = new StreamParserPublisher(createParser(createFactory(), stream), Runnable::run);
+        var subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+        assertThat(stream.readCount, equalTo(0));
+        subscriber.subscription.request(2);
+        assertThat(subscriber.fragments.size(), equalTo(2));
+        assertThat(stream.readCount, lessThan(TEXT.length() / 2));
+        subscriber.subscription.cancel();
+        assertThat(stream.closed, equalTo(true));
+    }
+
+    @Test
+    public void subscribe_secondSubscriber_error() {
+        var publisher = new StreamParserPublisher(createParser(createFactory(), new CountingStream(TEXT)),
+                Runnable::run);
+        publisher.subscribe(new CollectingSubscriber());
+        var second = new CollectingSubscriber();
+        publisher.subscribe(second);
+        assertThat(second.error, instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void subscribe_pendingOverflow_error() {
+        var factory = new StateMachineParserFactory.Builder()
+                .environment(Environment._7_BIT)
+                .textHandler(new DefaultTextHandler())
+                .maxPendingSize(32, PendingOverflowPolicy.FAIL)
+                .build();
+        var stream = new CountingStream("ab\u001bP" + "x".repeat(100));
+        //executor of a pool doesn't pass exceptions of tasks to the caller
+        Executor executor = task -> {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                //lost
+            }
+        };
+        var publisher = new StreamParserPublisher(createParser(factory, stream), executor);
+        var subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.error, instanceOf(PendingOverflowException.class));
+        assertThat(subscriber.completed, equalTo(false));
+        assertThat(joinTexts(subscriber.fragments), equalTo("ab"));
+        assertThat(stream.closed, equalTo(true));
+    }
+
+    @Test
+    public void subscribe_subscriberException_parserClosed() {
+        var stream = new CountingStream(TEXT);
+        var publisher = new StreamParserPublisher(createParser(createFactory(), stream), Runnable::run);
+        var subscriber = new CollectingSubscriber() {
+
+            @Override
+            public void onNext(Fragment item) {
+                super.onNext(item);
+                throw new IllegalStateException("Test");
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.fragments.size(), equalTo(1));
+        assertThat(subscriber.completed, equalTo(false));
+        assertThat(stream.closed, equalTo(true));
+    }
+
+    static class CollectingSubscriber implements Flow.Subscriber<Fragment> {
+
+        final List<Fragment> fragments = new ArrayList<>();
+
+        Flow.Subscription subscription;
+
+        Throwable error;
+
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Fragment item) {
+            fragments.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+
+    /**
+     * Stream that counts read bytes.
+     */
+    private static final class CountingStream extends ByteArrayInputStream {
+
+        private int readCount = 0;
+
+        private boolean closed = false;
+
+        CountingStream(String text) {
+            super(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            var result = super.read(b, off, len);
+            if (result > 0) {
+                readCount += result;
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+    static ParserFactory createFactory() {
+        return new StateMachineParserFactory.Builder()
+                .environment(Environment._7_BIT)
+                .textHandler(new DefaultTextHandler())
+                .build();
+    }
+
+    private static StreamParser createParser(ParserFactory factory, CountingStream stream) {
+        return factory.createParser(stream, StandardCharsets.UTF_8, 64);
+    }
+
+    static List<Fragment> parse(ParserFactory factory, String text) {
+        var parser = factory.createParser(text);
+        List<Fragment> fragments = new ArrayList<>();
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            fragments.add(fragment);
+        }
+        return fragments;
+    }
+
+    static List<String> describeFunctions(List<Fragment> fragments) {
+        List<String> descriptions = new ArrayList<>();
+        for (var fragment : fragments) {
+            if (fragment.getType() == FragmentType.FUNCTION) {
+                descriptions.add("[" + fragment.getStartIndex() + ", " + fragment.getEndIndex() + ") "
+                        + fragment.getText());
+            }
+        }
+        return descriptions;
+    }
+
+    static String joinTexts(List<Fragment> fragments) {
+        var builder = new StringBuilder();
+        for (var fragment : fragments) {
+            builder.append(fragment.getText());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static pk.ansi4j.core.ParserTestUtils.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.Fragment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.PendingOverflowException;
+import pk.ansi4j.core.api.PendingOverflowPolicy;
+
+/**
+ * Checks that stream parsers create the same fragments as string parsers.
+ *
+ * @author Pavel Kastornyy
+ */
+public class StreamParserTest {
+
+    @Test
+    public void parse_streamWithSmallBuffer_sameFunctions() throws IOException {
+        for (var environment : Environment.values()) {
+            var factory = createStateMachineFactory(environment);
+            for (var text : createTexts()) {
+                var expected = parse(factory.createParser(text));
+                for (var bufferSize = 1; bufferSize < 8; bufferSize++) {
+                    var parser = factory.createParser(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                            StandardCharsets.UTF_8, bufferSize);
+                    var actual = parse(parser);
+                    parser.close();
+                    assertThat(text, describeFunctions(actual), equalTo(describeFunctions(expected)));
+                    //if parsing is stopped by an error, stream parser can return text pieces before the function
+                    assertThat(text, text, startsWith(joinTexts(actual)));
+                    assertThat(text, joinTexts(actual), startsWith(joinTexts(expected)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parse_streamUtf16_encodingUsed() throws IOException {
+        var text = "😀a" + ESC + "[1mb" + ESC + "]0;title" + ESC + "\\c";
+        for (var environment : Environment.values()) {
+            var defaultFactory = createDefaultFactory(environment);
+            var expected = describeFunctions(parse(defaultFactory.createParser(text)));
+            for (var factory : List.of(defaultFactory, createStateMachineFactory(environment))) {
+                for (var bufferSize = 1; bufferSize < 8; bufferSize++) {
+                    var parser = factory.createParser(new ByteArrayInputStream(
+                            text.getBytes(StandardCharsets.UTF_16LE)), StandardCharsets.UTF_16LE, bufferSize);
+                    var actual = parse(parser);
+                    parser.close();
+                    assertThat(describeFunctions(actual), equalTo(expected));
+                    assertThat(joinTexts(actual), equalTo(text));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parse_streamSurrogatePairAtBufferEnd_textReturned() {
+        //the pair doesn't fit into the last free char of the buffer while more bytes are available
+        var text = "x".repeat(1023) + "😀" + "y".repeat(3000);
+        for (var factory : List.of(createDefaultFactory(Environment._7_BIT),
+                createStateMachineFactory(Environment._7_BIT))) {
+            var actual = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                try (var parser = factory.createParser(new ByteArrayInputStream(
+                        text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, 1024)) {
+                    return parse(parser);
+                }
+            });
+            assertThat(joinTexts(actual), equalTo(text));
+        }
+    }
+
+    @Test
+    public void parse_singleByteEncodings_sameAsCharsetDecoder() throws IOException {
+        var bytes = ("caf\u00e9 " + ESC + "[1m\u00a0\u00ff" + ESC + "]0;t\u00e9" + ESC + "\\z")
+                .getBytes(StandardCharsets.ISO_8859_1);
+        for (var encoding : List.of(StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII)) {
+            var text = new String(bytes, encoding);
+            var defaultFactory = createDefaultFactory(Environment._7_BIT);
+            var expected = describeFunctions(parse(defaultFactory.createParser(text)));
+            for (var factory : List.of(defaultFactory, createStateMachineFactory(Environment._7_BIT))) {
+                for (var bufferSize = 1; bufferSize < 8; bufferSize++) {
+                    List<Fragment> streamed = parse(factory.createParser(new ByteArrayInputStream(bytes), encoding,
+                            bufferSize));
+                    List<Fragment> channeled = parse(factory.createParser(Channels.newChannel(
+                            new ByteArrayInputStream(bytes)), encoding, bufferSize));
+                    List<Fragment> pushed = new ArrayList<>();
+                    var parser = factory.createPushParser(encoding, pushed::add);
+                    var buffer = ByteBuffer.allocateDirect(bufferSize);
+                    for (var i = 0; i < bytes.length; i += bufferSize) {
+                        buffer.clear();
+                        buffer.put(bytes, i, Math.min(bufferSize, bytes.length - i));
+                        buffer.flip();
+                        parser.feed(buffer);
+                    }
+                    parser.endOfInput();
+                    for (var actual : List.of(streamed, channeled, pushed)) {
+                        assertThat(describeFunctions(actual), equalTo(expected));
+                        assertThat(joinTexts(actual), equalTo(text));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parse_channelWithSmallBuffer_sameFunctions() throws IOException {
+        for (var environment : Environment.values()) {
+            var defaultFactory = createDefaultFactory(environment);
+            for (var factory : List.of(defaultFactory, createStateMachineFactory(environment))) {
+                for (var text : createTexts()) {
+                    var expected = parse(defaultFactory.createParser(text));
+                    for (var bufferSize = 1; bufferSize < 8; bufferSize++) {
+                        var channel = Channels.newChannel(
+                                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+                        var parser = factory.createParser(channel, StandardCharsets.UTF_8, bufferSize);
+                        var actual = parse(parser);
+                        parser.close();
+                        assertThat(text, describeFunctions(actual), equalTo(describeFunctions(expected)));
+                        //if parsing is stopped by an error, stream parser can return text pieces before it
+                        assertThat(text, text, startsWith(joinTexts(actual)));
+                        assertThat(text, joinTexts(actual), startsWith(joinTexts(expected)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parse_streamEndsInFunction_restParsedAsText() throws IOException {
+        var texts = List.of("abc" + ESC + "[\r", "abc" + ESC + "[1;2", "abc" + ESC + "]0;title\r");
+        for (var environment : Environment.values()) {
+            var defaultFactory = createDefaultFactory(environment);
+            for (var factory : List.of(defaultFactory, createStateMachineFactory(environment))) {
+                for (var text : texts) {
+                    var expected = parse(defaultFactory.createParser(text));
+                    for (var bufferSize = 1; bufferSize < 8; bufferSize++) {
+                        var stream = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+                        var parser = factory.createParser(stream, StandardCharsets.UTF_8, bufferSize);
+                        var actual = parse(parser);
+                        parser.close();
+                        assertThat(text, describeFunctions(actual), equalTo(describeFunctions(expected)));
+                        assertThat(text, joinTexts(actual), equalTo(joinTexts(expected)));
+                        var channel = Channels.newChannel(
+                                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+                        parser = factory.createParser(channel, StandardCharsets.UTF_8, bufferSize);
+                        actual = parse(parser);
+                        parser.close();
+                        assertThat(text, describeFunctions(actual), equalTo(describeFunctions(expected)));
+                        assertThat(text, joinTexts(actual), equalTo(joinTexts(expected)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void createParser_nonBlockingChannel_exception() throws IOException {
+        var pipe = Pipe.open();
+        try {
+            pipe.source().configureBlocking(false);
+            for (var factory : List.of(createDefaultFactory(Environment._7_BIT),
+                    createStateMachineFactory(Environment._7_BIT))) {
+                assertThrows(IllegalArgumentException.class,
+                        () -> factory.createParser(pipe.source(), StandardCharsets.UTF_8, 8));
+            }
+        } finally {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+
+    @Test
+    public void createParser_streamPendingOverflow_exception() throws IOException {
+        var text = "ab" + ESC + "P" + "x".repeat(100);
+        for (var factory : createPendingLimitFactories(32, PendingOverflowPolicy.FAIL, null)) {
+            var parser = factory.createParser(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                    StandardCharsets.UTF_8, 8);
+            assertThat(parser.parse().getText(), equalTo("ab"));
+            var exception = assertThrows(PendingOverflowException.class, () -> parser.parse());
+            assertThat(exception.getMaxPendingSize(), equalTo(32));
+            parser.close();
+        }
+    }
+
+    @Test
+    public void createParser_streamIdleTimeout_pendingTextFlushed() throws IOException {
+        for (var factory : List.of(createDefaultFactory(Environment._7_BIT),
+                createStateMachineFactory(Environment._7_BIT))) {
+            var input = new PipedInputStream();
+            var output = new PipedOutputStream(input);
+            var parser = factory.createParser(input, StandardCharsets.UTF_8, 8, Duration.ofMillis(20));
+            //not terminated function is returned as text
+            output.write(("a" + ESC + "[1").getBytes(StandardCharsets.UTF_8));
+            List<Fragment> fragments = new ArrayList<>();
+            while (joinTexts(fragments).length() < 4) {
+                fragments.add(parser.parse());
+            }
+            assertThat(joinTexts(fragments), equalTo("a" + ESC + "[1"));
+            assertThat(describeFunctions(fragments), empty());
+            //single ESC is returned as function
+            output.write(ESC.getBytes(StandardCharsets.UTF_8));
+            var fragment = parser.parse();
+            assertThat(fragment.getType(), equalTo(FragmentType.FUNCTION));
+            assertThat(fragment.getText(), equalTo(ESC));
+            //complete function is returned without timeout
+            output.write((ESC + "[1mb").getBytes(StandardCharsets.UTF_8));
+            fragment = parser.parse();
+            assertThat(fragment.getType(), equalTo(FragmentType.FUNCTION));
+            assertThat(fragment.getText(), equalTo(ESC + "[1m"));
+            assertThat(parser.parse().getText(), equalTo("b"));
+            output.close();
+            assertThat(parser.parse(), nullValue());
+            parser.close();
+        }
+    }
+}
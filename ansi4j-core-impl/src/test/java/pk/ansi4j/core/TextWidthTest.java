@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.util.List;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.utils.Characters;
+import pk.ansi4j.core.iso6429.C0ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.C1ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.ControlSequenceHandler;
+import pk.ansi4j.core.iso6429.ControlStringHandler;
+import pk.ansi4j.core.iso6429.IndependentControlFunctionHandler;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class TextWidthTest {
+
+    private static final String ESC = String.valueOf(Characters.ESC);
+
+    private static final String ALPHABET = ESC + ESC + "[;0123 m]P\\\u0007\n ab\u0085\u009b\u009cé中\u0301";
+
+    @Test
+    public void getWidth_codePoints_columns() {
+        assertThat(TextWidth.getWidth('a'), equalTo(1));
+        assertThat(TextWidth.getWidth(0x00E9), equalTo(1));
+        assertThat(TextWidth.getWidth(0x00AD), equalTo(1));
+        assertThat(TextWidth.getWidth(0x4E2D), equalTo(2));
+        assertThat(TextWidth.getWidth(0xAC00), equalTo(2));
+        assertThat(TextWidth.getWidth(0xFF21), equalTo(2));
+        assertThat(TextWidth.getWidth(0x1F600), equalTo(2));
+        assertThat(TextWidth.getWidth(0x20000), equalTo(2));
+        assertThat(TextWidth.getWidth(0x0301), equalTo(0));
+        assertThat(TextWidth.getWidth(0x302A), equalTo(0));
+        assertThat(TextWidth.getWidth(0x200B), equalTo(0));
+        assertThat(TextWidth.getWidth(0x1160), equalTo(0));
+        assertThat(TextWidth.getWidth(0xE0100), equalTo(0));
+        assertThat(TextWidth.getWidth(0x0007), equalTo(0));
+        assertThat(TextWidth.getWidth(0x50000), equalTo(1));
+        assertThat(TextWidth.getWidth(Character.MAX_CODE_POINT), equalTo(1));
+        assertThrows(IllegalArgumentException.class, () -> TextWidth.getWidth(Character.MAX_CODE_POINT + 1));
+    }
+
+    @Test
+    public void getWidth_textWithFunctions_functionsSkipped() {
+        for (var factory : List.of(createFactory(Environment._7_BIT),
+                ParserTestUtils.createStateMachineFactory(Environment._7_BIT))) {
+            var width = new TextWidth(factory);
+            assertThat(width.getWidth(""), equalTo(0));
+            assertThat(width.getWidth("abc"), equalTo(3));
+            assertThat(width.getWidth(ESC + "[1;31m中文" + ESC + "[m ok"), equalTo(7));
+            assertThat(width.getWidth("é" + ESC + "]0;title" + ESC + "\\😀"), equalTo(3));
+            //not terminated function is text, ESC takes no columns
+            assertThat(width.getWidth("a" + ESC + "[1;2"), equalTo(5));
+            var text = "ab" + ESC + "[1mcd";
+            assertThat(width.getWidth(text, 1, text.length() - 1), equalTo(2));
+        }
+    }
+
+    @Test
+    public void getWidth_randomTexts_sameAsStrippedText() {
+        var random = new Random(42);
+        for (var environment : Environment.values()) {
+            var factory = createFactory(environment);
+            var width = new TextWidth(factory);
+            var stateMachineWidth = new TextWidth(ParserTestUtils.createStateMachineFactory(environment));
+            var stripper = new AnsiStripper(factory);
+            for (var i = 0; i < 1000; i++) {
+                var builder = new StringBuilder();
+                var length = random.nextInt(30);
+                for (var j = 0; j < length; j++) {
+                    builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+                var text = builder.toString();
+                var expected = stripper.strip(text).codePoints().map(TextWidth::getWidth).sum();
+                assertThat(text, width.getWidth(text), equalTo(expected));
+                assertThat(text, stateMachineWidth.getWidth(text), equalTo(expected));
+            }
+        }
+    }
+
+    private static ParserFactory createFactory(Environment environment) {
+        return new DefaultParserFactory.Builder()
+                .environment(environment)
+                .textHandler(new DefaultTextHandler())
+                .functionFinder(new DefaultFunctionFinder())
+                .functionHandlers(new C0ControlFunctionHandler(),
+                        new C1ControlFunctionHandler(),
+                        new ControlSequenceHandler(),
+                        new IndependentControlFunctionHandler(),
+                        new ControlStringHandler())
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import pk.ansi4j.core.api.Environment;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class Utf8TextTest {
+
+    @Test
+    public void subSequence_multiByteCharacters_decoded() {
+        var bytes = "ab\u001bяз😀".getBytes(StandardCharsets.UTF_8);
+        var text = new Utf8Text(bytes);
+        assertThat(text.length(), equalTo(bytes.length));
+        assertThat(text.charAt(2), equalTo('\u001b'));
+        assertThat(text.charAt(3), equalTo((char) (bytes[3] & 0xFF)));
+        assertThat(text.toString(), equalTo("ab\u001bяз😀"));
+        assertThat(text.subSequence(3, 7).toString(), equalTo("яз"));
+        assertThat(text.subSequence(3, 11).subSequence(4, 8).toString(), equalTo("😀"));
+        assertThrows(IndexOutOfBoundsException.class, () -> text.subSequence(3, 12));
+    }
+
+    @Test
+    public void constructor_directBuffer_positionAndLimitUsed() {
+        var buffer = ByteBuffer.allocateDirect(32);
+        buffer.put("0123456789abcdefgh\u001bij".getBytes(StandardCharsets.UTF_8));
+        buffer.position(2).limit(21);
+        var text = new Utf8Text(buffer);
+        assertThat(buffer.position(), equalTo(2));
+        assertThat(text.toString(), equalTo("23456789abcdefgh\u001bij"));
+        var slice = text.slice(1, 3);
+        assertThat(slice.remaining(), equalTo(2));
+        assertThat(slice.get(0), equalTo((byte) '3'));
+        assertThat(slice.isReadOnly(), equalTo(true));
+
+        var scanner = new DefaultControlCharacterScanner();
+        scanner.initialize(Environment._7_BIT);
+        assertThat(scanner.indexOfControlCharacter(text, 0, text.length()), equalTo(16));
+        assertThat(scanner.indexOfControlCharacter(text, 0, 16), equalTo(-1));
+        assertThat(scanner.indexOfControlCharacter(text.subSequence(8, text.length()), 1, 11), equalTo(8));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import java.lang.ref.WeakReference;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class TextFragmentImplTest {
+
+    @Test
+    public void getTextView_notMaterialized_viewOverSource() {
+        var source = new StringBuilder("abcdef");
+        var fragment = new TextFragmentImpl(source, 1, 4, 10);
+        var view = fragment.getTextView();
+        assertThat(view, not(instanceOf(String.class)));
+        assertThat(view.toString(), equalTo("bcd"));
+        assertThat(fragment.getEndIndex(), equalTo(13));
+    }
+
+    @Test
+    public void getText_largeSource_sourceReleased() throws InterruptedException {
+        var source = new StringBuilder("x".repeat(1000000));
+        var reference = new WeakReference<>(source);
+        var fragment = new TextFragmentImpl(source, 1, 4, 1);
+        assertThat(fragment.getText(), equalTo("xxx"));
+        source = null;
+        for (var i = 0; i < 10 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(reference.get(), nullValue());
+        assertThat(fragment.getTextView(), sameInstance(fragment.getText()));
+    }
+}
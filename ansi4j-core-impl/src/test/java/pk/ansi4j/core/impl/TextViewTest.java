@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class TextViewTest {
+
+    @Test
+    public void charAt_middleOfText_success() {
+        var view = new TextView("abcdef", 2, 5);
+        assertThat(view.length(), equalTo(3));
+        assertThat(view.charAt(0), equalTo('c'));
+        assertThat(view.charAt(2), equalTo('e'));
+        assertThat(view.toString(), equalTo("cde"));
+    }
+
+    @Test
+    public void subSequence_middleOfView_success() {
+        var view = new TextView("abcdef", 1, 6).subSequence(1, 3);
+        assertThat(view.length(), equalTo(2));
+        assertThat(view.toString(), equalTo("cd"));
+    }
+
+    @Test
+    public void charAt_outOfView_failure() {
+        var view = new TextView("abcdef", 2, 5);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> view.charAt(3));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.iso6429;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.FunctionFailureReason;
+import pk.ansi4j.core.api.FunctionHandlerResult;
+import pk.ansi4j.core.api.function.FunctionType;
+import pk.ansi4j.core.api.iso6429.C1ControlFunction;
+import pk.ansi4j.core.api.iso6429.ControlFunction;
+import pk.ansi4j.core.api.iso6429.ControlFunctionType;
+import pk.ansi4j.core.api.utils.Characters;
+import pk.ansi4j.core.impl.FunctionFragmentImpl;
+import pk.ansi4j.core.impl.FunctionHandlerResultImpl;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class AbstractFunctionHandlerTest {
+
+    /**
+     * Handler that implements only string method, function ends with `!`.
+     */
+    private static class StringHandler extends AbstractFunctionHandler {
+
+        private final List<Integer> pieceLengths = new ArrayList<>();
+
+        @Override
+        public FunctionType getTargetFunctionType() {
+            return ControlFunctionType.CONTROL_STRING;
+        }
+
+        @Override
+        public FunctionHandlerResult handle(String text, ControlFunction function, int currentIndex) {
+            this.pieceLengths.add(text.length());
+            var endIndex = text.indexOf('!');
+            if (endIndex == -1) {
+                return new FunctionHandlerResultImpl(Optional.empty(), FunctionFailureReason.NO_END_OF_FUNCTION);
+            }
+            return new FunctionHandlerResultImpl(Optional.of(new FunctionFragmentImpl(text.substring(0, endIndex + 1),
+                    currentIndex, function, new ArrayList<>())), null);
+        }
+    }
+
+    @Test
+    public void handle_textRangeWithStringHandler_success() {
+        var handler = new StringHandler();
+        handler.initialize(Environment._7_BIT);
+        var function = Characters.ESC + "]" + "a".repeat(100) + "!";
+        var text = "abc" + function + "def";
+        var result = handler.handle(text, 3, text.length(), C1ControlFunction.OSC_OPERATING_SYSTEM_COMMAND, 3);
+        var fragment = result.getFragment().get();
+        assertThat(fragment.getText(), equalTo(function));
+        assertThat(fragment.getStartIndex(), equalTo(3));
+        assertThat(handler.pieceLengths, equalTo(List.of(64, 106)));
+    }
+
+    @Test
+    public void handle_noEndWithStringHandler_noEndOfFunction() {
+        var handler = new StringHandler();
+        handler.initialize(Environment._7_BIT);
+        var text = "abc" + Characters.ESC + "]" + "a".repeat(200);
+        var result = handler.handle(text, 3, text.length(), C1ControlFunction.OSC_OPERATING_SYSTEM_COMMAND, 3);
+        assertThat(result.getFailureReason(), equalTo(FunctionFailureReason.NO_END_OF_FUNCTION));
+        assertThat(handler.pieceLengths, equalTo(List.of(64, 128, 202)));
+    }
+}
@@ -65,4 +65,12 @@ public class ControlSequenceMatcherTest {
         var descriptor = matcher.match(3, "abc" + Characters.ESC + "[28;14 T");
         assertThat(descriptor.getFunction(), equalTo(ControlSequenceFunction.DTA_DIMENSION_TEXT_AREA));
     }
+
+    @Test
+    public void match_textRange_success() {
+        var text = "abc" + Characters.ESC + "[28;14 Tdef";
+        var descriptor = matcher.match(text, 3, 12);
+        assertThat(descriptor.getFunction(), equalTo(ControlSequenceFunction.DTA_DIMENSION_TEXT_AREA));
+        assertThat(matcher.match(text, 3, 11), nullValue());
+    }
 }
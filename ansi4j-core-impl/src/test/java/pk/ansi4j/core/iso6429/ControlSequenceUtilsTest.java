@@ -71,4 +71,9 @@ public class ControlSequenceUtilsTest {
         assertThat(arguments, equalTo(Arrays.asList(null, "20", "foo", null, null, "30", null)));
     }
 
+    @Test
+    public void parseArguments_textRange_success() {
+        var arguments = ControlSequenceUtils.parseArguments("[;20;foo;;30;m", 1, 13);
+        assertThat(arguments, equalTo(Arrays.asList(null, "20", "foo", null, "30", null)));
+    }
 }
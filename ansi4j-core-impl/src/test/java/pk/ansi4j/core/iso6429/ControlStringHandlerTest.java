@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.iso6429;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.FunctionFailureReason;
+import pk.ansi4j.core.api.iso6429.C1ControlFunction;
+import pk.ansi4j.core.api.utils.Characters;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class ControlStringHandlerTest {
+
+    private static ControlStringHandler handler;
+
+    @BeforeAll
+    public static void init() {
+        handler = new ControlStringHandler();
+        handler.initialize(Environment._7_BIT);
+    }
+
+    @Test
+    public void handle_textRange_success() {
+        var text = "abc" + Characters.ESC + "]0;title" + Characters.ESC + "\\def";
+        var result = handler.handle(text, 3, text.length(), C1ControlFunction.OSC_OPERATING_SYSTEM_COMMAND, 10);
+        var fragment = result.getFragment().get();
+        assertThat(fragment.getText(), equalTo(Characters.ESC + "]0;title" + Characters.ESC + "\\"));
+        assertThat(fragment.getStartIndex(), equalTo(10));
+        assertThat(fragment.getEndIndex(), equalTo(21));
+        assertThat(fragment.getArguments().size(), equalTo(2));
+        assertThat(fragment.getArguments().get(0).getValue(), equalTo("0"));
+    }
+
+    @Test
+    public void handle_terminatorAfterEndIndex_noEndOfFunction() {
+        var text = "abc" + Characters.ESC + "]0;title" + Characters.ESC + "\\def";
+        var result = handler.handle(text, 3, 13, C1ControlFunction.OSC_OPERATING_SYSTEM_COMMAND, 0);
+        assertThat(result.getFragment().isEmpty(), equalTo(true));
+        assertThat(result.getFailureReason(), equalTo(FunctionFailureReason.NO_END_OF_FUNCTION));
+    }
+}
@@ -18,6 +18,7 @@ module pk.ansi4j.core.it {
     requires pk.ansi4j.core.api;
     requires pk.ansi4j.core.impl;
 
+    requires java.management;
     requires org.slf4j;
     requires org.junit.jupiter.api;
     requires org.junit.jupiter.params;
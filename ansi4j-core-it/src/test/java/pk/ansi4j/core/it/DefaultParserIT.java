@@ -17,20 +17,25 @@ package pk.ansi4j.core.it;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import org.junit.jupiter.api.Test;
 import pk.ansi4j.core.DefaultFunctionFinder;
 import pk.ansi4j.core.api.ParserFactory;
 import pk.ansi4j.core.DefaultParserFactory;
 import pk.ansi4j.core.DefaultTextHandler;
+import pk.ansi4j.core.Latin1Text;
+import pk.ansi4j.core.Utf8Text;
+import pk.ansi4j.core.StateMachineParserFactory;
 import pk.ansi4j.core.api.Fragment;
 import pk.ansi4j.core.api.TextFragment;
 import pk.ansi4j.core.api.utils.Characters;
 import pk.ansi4j.core.iso6429.ControlSequenceHandler;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeAll;
 import pk.ansi4j.core.api.FragmentType;
 import pk.ansi4j.core.api.FunctionFragment;
@@ -71,6 +76,10 @@ public class DefaultParserIT {
 
     private static ParserFactory factory8Bit;
 
+    private static ParserFactory stateMachineFactory7Bit;
+
+    private static ParserFactory stateMachineFactory8Bit;
+
     @BeforeAll
     public static void init() {
         factory7Bit = new DefaultParserFactory.Builder()
@@ -94,6 +103,16 @@ public class DefaultParserIT {
                     new IndependentControlFunctionHandler(),
                     new ControlStringHandler())
             .build();
+
+        stateMachineFactory7Bit = new StateMachineParserFactory.Builder()
+            .environment(Environment._7_BIT)
+            .textHandler(new DefaultTextHandler())
+            .build();
+
+        stateMachineFactory8Bit = new StateMachineParserFactory.Builder()
+            .environment(Environment._8_BIT)
+            .textHandler(new DefaultTextHandler())
+            .build();
     }
 
     protected static List<ParserProvider> provide7BitParsers() {
@@ -101,7 +120,24 @@ public class DefaultParserIT {
                         (text) -> factory7Bit.createParser(
                                 new ByteArrayInputStream(text.getBytes()),
                                 StandardCharsets.UTF_8,
-                                1024));
+                                1024),
+                        (text) -> stateMachineFactory7Bit.createParser(text),
+                        (text) -> stateMachineFactory7Bit.createParser(
+                                new ByteArrayInputStream(text.getBytes()),
+                                StandardCharsets.UTF_8,
+                                1024),
+                        (text) -> factory7Bit.createParser(
+                                Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))),
+                                StandardCharsets.UTF_8,
+                                1024),
+                        (text) -> stateMachineFactory7Bit.createParser(
+                                Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))),
+                                StandardCharsets.UTF_8,
+                                1024),
+                        (text) -> factory7Bit.createParser(
+                                new Latin1Text(text.getBytes(StandardCharsets.ISO_8859_1))),
+                        (text) -> stateMachineFactory7Bit.createParser(
+                                new Latin1Text(text.getBytes(StandardCharsets.ISO_8859_1))));
     }
 
     protected static List<ParserProvider> provide8BitParsers() {
@@ -109,7 +145,32 @@ public class DefaultParserIT {
                         (text) -> factory8Bit.createParser(
                                 new ByteArrayInputStream(text.getBytes()),
                                 StandardCharsets.UTF_8,
-                                1024));
+                                1024),
+                        (text) -> stateMachineFactory8Bit.createParser(text),
+                        (text) -> stateMachineFactory8Bit.createParser(
+                                new ByteArrayInputStream(text.getBytes()),
+                                StandardCharsets.UTF_8,
+                                1024),
+                        (text) -> factory8Bit.createParser(
+                                Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))),
+                                StandardCharsets.UTF_8,
+                                1024),
+                        (text) -> stateMachineFactory8Bit.createParser(
+                                Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))),
+                                StandardCharsets.UTF_8,
+                                1024),
+                        (text) -> factory8Bit.createParser(
+                                new Latin1Text(text.getBytes(StandardCharsets.ISO_8859_1))),
+                        (text) -> stateMachineFactory8Bit.createParser(
+                                new Latin1Text(text.getBytes(StandardCharsets.ISO_8859_1))));
+    }
+
+    protected static List<ParserFactory> provide7BitFactories() {
+        return List.of(factory7Bit, stateMachineFactory7Bit);
+    }
+
+    protected static List<ParserFactory> provide8BitFactories() {
+        return List.of(factory8Bit, stateMachineFactory8Bit);
     }
 
     @ParameterizedTest
@@ -545,10 +606,11 @@ public class DefaultParserIT {
         this.closeParser(parser);
     }
 
-    @Test
-    public void parse_controlStringIn7bitEnvAsStream_success() {
+    @ParameterizedTest
+    @MethodSource("provide7BitFactories")
+    public void parse_controlStringIn7bitEnvAsStream_success(ParserFactory factory) {
         var text = "one two three \u001b]4;6;some text\u001b\\ abc.def.0123.ghi";
-        var parser = factory7Bit.createParser(new ByteArrayInputStream(text.getBytes()), StandardCharsets.UTF_8, 6);
+        var parser = factory.createParser(new ByteArrayInputStream(text.getBytes()), StandardCharsets.UTF_8, 6);
         List<Fragment> fragments = new ArrayList<>();
         Fragment fragment = null;
         while ((fragment = parser.parse()) != null) {
@@ -588,10 +650,11 @@ public class DefaultParserIT {
         this.closeParser(parser);
     }
 
-    @Test
-    public void parse_controlStringIn8bitEnvAsStream_success() {
+    @ParameterizedTest
+    @MethodSource("provide8BitFactories")
+    public void parse_controlStringIn8bitEnvAsStream_success(ParserFactory factory) {
          var text = "one two three \u009d4;6;some text\u009c abc.def.0123.ghi";
-        var parser = factory8Bit.createParser(new ByteArrayInputStream(text.getBytes()), StandardCharsets.UTF_8, 6);
+        var parser = factory.createParser(new ByteArrayInputStream(text.getBytes()), StandardCharsets.UTF_8, 6);
         List<Fragment> fragments = new ArrayList<>();
         Fragment fragment = null;
         while ((fragment = parser.parse()) != null) {
@@ -635,6 +698,100 @@ public class DefaultParserIT {
         this.closeParser(parser);
     }
 
+    @ParameterizedTest
+    @MethodSource(_7_BIT_PARSER_PROVIDER)
+    public void parse_longFunctions_success(ParserProvider parserProvider) {
+        var sgr = "\u001b[" + "38;5;100;".repeat(20) + "1m";
+        var osc = "\u001b]0;" + "some title ".repeat(100) + "\u001b\\";
+        var text = "abc" + sgr + "def" + osc + "ghi";
+        var parser = parserProvider.provide(text);
+        List<Fragment> fragments = new ArrayList<>();
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            fragments.add(fragment);
+        }
+        assertThat(fragments, hasSize(5));
+
+        FunctionFragment f1 = (FunctionFragment) fragments.get(1);
+        assertThat(f1.getFunction(), equalTo(ControlSequenceFunction.SGR_SELECT_GRAPHIC_RENDITION));
+        assertThat(f1.getText(), equalTo(sgr));
+        assertThat(f1.getArguments(), hasSize(61));
+        assertThat(text.substring(f1.getStartIndex(), f1.getEndIndex()), equalTo(sgr));
+
+        FunctionFragment f3 = (FunctionFragment) fragments.get(3);
+        assertThat(f3.getFunction(), equalTo(C1ControlFunction.OSC_OPERATING_SYSTEM_COMMAND));
+        assertThat(f3.getText(), equalTo(osc));
+        assertThat(text.substring(f3.getStartIndex(), f3.getEndIndex()), equalTo(osc));
+
+        TextFragment f4 = (TextFragment) fragments.get(4);
+        assertThat(f4.getText(), equalTo("ghi"));
+        assertThat(f4.getStartIndex(), equalTo(text.length() - 3));
+        this.closeParser(parser);
+    }
+
+    @ParameterizedTest
+    @MethodSource(_7_BIT_PARSER_PROVIDER)
+    public void parse_textView_success(ParserProvider parserProvider) {
+        var text = "2022-03-14 \u001b[33;1m[WARN]\u001b]0;title\u001b\\ \u001bG abc\u000B";
+        var parser = parserProvider.provide(text);
+        List<Fragment> fragments = new ArrayList<>();
+        Fragment fragment = null;
+        while ((fragment = parser.parse()) != null) {
+            fragments.add(fragment);
+        }
+        assertThat(fragments, hasSize(8));
+        for (var f : fragments) {
+            var expected = text.substring(f.getStartIndex(), f.getEndIndex());
+            assertThat(f.getTextView().length(), equalTo(expected.length()));
+            assertThat(f.getTextView().toString(), equalTo(expected));
+            assertThat(f.getText(), equalTo(expected));
+        }
+        this.closeParser(parser);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provide7BitFactories")
+    public void parse_utf8Text_success(ParserFactory factory) {
+        var text = "Привет \u001b[33;1mмир\u001b[m \u001b]0;заголовок\u001b\\ \uD83D\uDE00";
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        var direct = ByteBuffer.allocateDirect(bytes.length + 2);
+        direct.put((byte) 'x').put(bytes).put((byte) 'x').position(1).limit(bytes.length + 1);
+        for (var utf8Text : List.of(new Utf8Text(bytes), new Utf8Text(direct))) {
+            var parser = factory.createParser(utf8Text);
+            List<Fragment> fragments = new ArrayList<>();
+            Fragment fragment = null;
+            while ((fragment = parser.parse()) != null) {
+                fragments.add(fragment);
+            }
+            assertThat(fragments, hasSize(7));
+            //indexes are indexes of bytes
+            for (var f : fragments) {
+                var expected = new String(bytes, f.getStartIndex(), f.getEndIndex() - f.getStartIndex(),
+                        StandardCharsets.UTF_8);
+                assertThat(f.getText(), equalTo(expected));
+                assertThat(StandardCharsets.UTF_8.decode(utf8Text.slice(f.getStartIndex(), f.getEndIndex()))
+                        .toString(), equalTo(expected));
+            }
+            assertThat(fragments.get(0).getText(), equalTo("Привет "));
+            assertThat(fragments.get(0).getEndIndex(), equalTo(13));
+            this.checkMFunctionFragment(new String(bytes, StandardCharsets.ISO_8859_1),
+                    (FunctionFragment) fragments.get(1));
+            assertThat(fragments.get(2).getText(), equalTo("мир"));
+            var osc = (FunctionFragment) fragments.get(5);
+            assertThat(osc.getFunction(), equalTo(C1ControlFunction.OSC_OPERATING_SYSTEM_COMMAND));
+            assertThat(osc.getText(), equalTo("\u001b]0;заголовок\u001b\\"));
+            assertThat(osc.getArguments().get(0).getValue(), equalTo("0"));
+            assertThat(fragments.get(6).getText(), equalTo(" \uD83D\uDE00"));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("provide8BitFactories")
+    public void createParser_utf8TextIn8bitEnv_exception(ParserFactory factory) {
+        var text = new Utf8Text("abc".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> factory.createParser(text));
+    }
+
     private void checkMFunctionFragment(String text, FunctionFragment mFragment) {
         assertThat(mFragment.getType(), equalTo(FragmentType.FUNCTION));
         var mFragmentText = Characters.ESC + "[33;1m";
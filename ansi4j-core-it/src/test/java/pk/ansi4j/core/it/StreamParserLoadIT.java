@@ -0,0 +1,205 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.it;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.DefaultFunctionFinder;
+import pk.ansi4j.core.DefaultParserFactory;
+import pk.ansi4j.core.DefaultTextHandler;
+import pk.ansi4j.core.StateMachineParserFactory;
+import pk.ansi4j.core.api.Environment;
+import pk.ansi4j.core.api.FragmentType;
+import pk.ansi4j.core.api.ParserFactory;
+import pk.ansi4j.core.api.StreamParser;
+import pk.ansi4j.core.api.utils.Characters;
+import pk.ansi4j.core.iso6429.C0ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.C1ControlFunctionHandler;
+import pk.ansi4j.core.iso6429.ControlSequenceHandler;
+import pk.ansi4j.core.iso6429.ControlStringHandler;
+import pk.ansi4j.core.iso6429.IndependentControlFunctionHandler;
+
+/**
+ * Checks that stream parsers can be used by many virtual threads, when one thread reads one stream (for example,
+ * output of a child process).
+ *
+ * @author Pavel Kastornyy
+ */
+public class StreamParserLoadIT {
+
+    private static final String ESC = String.valueOf(Characters.ESC);
+
+    private static final String TEXT = ("line " + ESC + "[1;33mwarning" + ESC + "[0m\n").repeat(10);
+
+    private static final int STREAM_COUNT = 10_000;
+
+    private static List<ParserFactory> createFactories() {
+        return List.of(
+                new DefaultParserFactory.Builder()
+                    .environment(Environment._7_BIT)
+                    .textHandler(new DefaultTextHandler())
+                    .functionFinder(new DefaultFunctionFinder())
+                    .functionHandlers(new C0ControlFunctionHandler(),
+                            new C1ControlFunctionHandler(),
+                            new ControlSequenceHandler(),
+                            new IndependentControlFunctionHandler(),
+                            new ControlStringHandler())
+                    .build(),
+                new StateMachineParserFactory.Builder()
+                    .environment(Environment._7_BIT)
+                    .textHandler(new DefaultTextHandler())
+                    .build());
+    }
+
+    private static int countFunctions(StreamParser parser) throws IOException {
+        try (parser) {
+            var count = 0;
+            var fragment = parser.parse();
+            while (fragment != null) {
+                if (fragment.getType() == FragmentType.FUNCTION) {
+                    count++;
+                }
+                fragment = parser.parse();
+            }
+            return count;
+        }
+    }
+
+    @Test
+    public void parse_stream_noMonitorsHeldWhileReading() throws IOException {
+        var lockedMonitors = new ArrayList<MonitorInfo>();
+        for (var factory : createFactories()) {
+            var stream = new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)) {
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    //this method is not synchronized unlike the method of the super class
+                    var info = ManagementFactory.getThreadMXBean()
+                            .getThreadInfo(new long[] {Thread.currentThread().getId()}, true, false)[0];
+                    lockedMonitors.addAll(List.of(info.getLockedMonitors()));
+                    if (this.pos >= this.count) {
+                        return -1;
+                    }
+                    var readCount = Math.min(len, this.count - this.pos);
+                    System.arraycopy(this.buf, this.pos, b, off, readCount);
+                    this.pos += readCount;
+                    return readCount;
+                }
+            };
+            assertThat(countFunctions(factory.createParser(stream, StandardCharsets.UTF_8, 16)), equalTo(30));
+        }
+        assertThat(lockedMonitors, empty());
+    }
+
+    /**
+     * Every stream blocks in the first read until all streams are being read. If a blocked virtual thread pinned its
+     * carrier, only as many streams as there are carriers could be read at the same time.
+     */
+    @Test
+    public void parse_virtualThreads_carriersNotPinned() throws Exception {
+        ExecutorService executor = null;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException ex) {
+            assumeTrue(false, "Virtual threads are not supported");
+        }
+        try {
+            for (var factory : createFactories()) {
+                var entered = new CountDownLatch(STREAM_COUNT);
+                var release = new CountDownLatch(1);
+                var futures = new ArrayList<Future<Integer>>();
+                for (var i = 0; i < STREAM_COUNT; i++) {
+                    var stream = new BlockingStream(TEXT.getBytes(StandardCharsets.UTF_8), entered, release);
+                    futures.add(executor.submit(
+                            () -> countFunctions(factory.createParser(stream, StandardCharsets.UTF_8, 1024))));
+                }
+                var allEntered = entered.await(60, TimeUnit.SECONDS);
+                release.countDown();
+                assertThat("Not all streams were blocked at the same time", allEntered, equalTo(true));
+                for (var future : futures) {
+                    assertThat(future.get(), equalTo(30));
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(60, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stream that blocks in the first read without monitors.
+     */
+    private static final class BlockingStream extends InputStream {
+
+        private final byte[] bytes;
+
+        private final CountDownLatch entered;
+
+        private final CountDownLatch release;
+
+        private int position = 0;
+
+        private boolean blocked = false;
+
+        BlockingStream(byte[] bytes, CountDownLatch entered, CountDownLatch release) {
+            this.bytes = bytes;
+            this.entered = entered;
+            this.release = release;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = new byte[1];
+            return this.read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!blocked) {
+                blocked = true;
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+            }
+            if (position >= bytes.length) {
+                return -1;
+            }
+            var count = Math.min(len, bytes.length - position);
+            System.arraycopy(bytes, position, b, off, count);
+            position += count;
+            return count;
+        }
+    }
+}
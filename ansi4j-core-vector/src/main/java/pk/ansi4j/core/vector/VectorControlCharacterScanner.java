@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.vector;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.Environment;
+
+/**
+ * Scanner that checks many characters at a time using JDK Vector API. Number of lanes depends on the CPU, for
+ * example, 16 chars with AVX2 and 32 chars with AVX-512. Backing bytes of a string can't be read without opening
+ * java.base, so characters of string are copied to a thread local buffer by pieces, the first piece is short, next
+ * pieces are longer. The copy pays off only on long runs of text without control characters, so the first
+ * {@value #MIN_VECTOR_LENGTH} characters are checked one by one. When control characters are close to each other
+ * (for example, log lines with SGR functions) the scanner is called for every few characters and is slower than the
+ * scalar scanner, so it should be used as a pre-scanner of the factory, that is called once per text, or as
+ * the scanner of the finder only if texts have long runs without control characters.
+ *
+ * <p>Texts that are not strings are checked by the scalar scanner given to the constructor, for example,
+ * {@code DefaultControlCharacterScanner} that checks {@code Latin1Text} in place by eight bytes at a time, or one by
+ * one if there is no such scanner.
+ *
+ * Module jdk.incubator.vector must be added: {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author Pavel Kastornyy
+ */
+public class VectorControlCharacterScanner implements ControlCharacterScanner {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    /**
+     * Number of characters that are checked one by one before vectors are used.
+     */
+    private static final int MIN_VECTOR_LENGTH = 256;
+
+    private static final int FIRST_PIECE_LENGTH = 4 * SPECIES.length();
+
+    private static final int BUFFER_LENGTH = 4096;
+
+    private static final ThreadLocal<char[]> buffer = ThreadLocal.withInitial(() -> new char[BUFFER_LENGTH]);
+
+    /**
+     * Scanner of texts that are not strings or null if they are checked one by one.
+     */
+    private final ControlCharacterScanner scalarScanner;
+
+    private boolean is8Bit;
+
+    /**
+     * Constructor for the scanner that checks texts that are not strings one by one.
+     */
+    public VectorControlCharacterScanner() {
+        this.scalarScanner = null;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param scalarScanner scanner of texts that are not strings, it is initialized with this scanner.
+     */
+    public VectorControlCharacterScanner(ControlCharacterScanner scalarScanner) {
+        if (scalarScanner == null) {
+            throw new IllegalArgumentException("No scalar scanner provided");
+        }
+        this.scalarScanner = scalarScanner;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int indexOfControlCharacter(CharSequence text, int startIndex, int endIndex) {
+        if (!(text instanceof String) && this.scalarScanner != null) {
+            return this.scalarScanner.indexOfControlCharacter(text, startIndex, endIndex);
+        }
+        //the next control character is usually close, so the beginning is checked one by one as by the scalar scanner
+        var byOneEndIndex = endIndex;
+        if (text instanceof String) {
+            byOneEndIndex = startIndex + Math.min(endIndex - startIndex, MIN_VECTOR_LENGTH);
+        }
+        if (this.is8Bit) {
+            for (var i = startIndex; i < byOneEndIndex; i++) {
+                final char c = text.charAt(i);
+                if (c < 0x20 || (c >= 0x80 && c <= 0x9F)) {
+                    return i;
+                }
+            }
+        } else {
+            for (var i = startIndex; i < byOneEndIndex; i++) {
+                if (text.charAt(i) < 0x20) {
+                    return i;
+                }
+            }
+        }
+        if (byOneEndIndex == endIndex) {
+            return -1;
+        }
+        return this.indexOfControlCharacterByVectors((String) text, byOneEndIndex, endIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(Environment environment) {
+        this.is8Bit = environment == Environment._8_BIT;
+        if (this.scalarScanner != null) {
+            this.scalarScanner.initialize(environment);
+        }
+    }
+
+    /**
+     * Checks string by pieces that are copied to the buffer.
+     *
+     * @param string
+     * @param startIndex
+     * @param endIndex
+     * @return
+     */
+    private int indexOfControlCharacterByVectors(String string, int startIndex, int endIndex) {
+        var chars = buffer.get();
+        var pieceLength = FIRST_PIECE_LENGTH;
+        for (var offset = startIndex; offset < endIndex;) {
+            var length = Math.min(pieceLength, endIndex - offset);
+            string.getChars(offset, offset + length, chars, 0);
+            var index = this.indexOfControlCharacter(chars, length);
+            if (index != -1) {
+                return offset + index;
+            }
+            offset += length;
+            pieceLength = Math.min(pieceLength * 2, BUFFER_LENGTH);
+        }
+        return -1;
+    }
+
+    private int indexOfControlCharacter(char[] chars, int length) {
+        var i = 0;
+        var bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            var vector = ShortVector.fromCharArray(SPECIES, chars, i);
+            //chars are unsigned, so unsigned comparison is used
+            VectorMask<Short> mask = vector.compare(VectorOperators.UNSIGNED_LT, (short) 0x20);
+            if (this.is8Bit) {
+                mask = mask.or(vector.sub((short) 0x80).compare(VectorOperators.UNSIGNED_LT, (short) 0x20));
+            }
+            if (mask.anyTrue()) {
+                return i + mask.firstTrue();
+            }
+        }
+        for (; i < length; i++) {
+            if (this.isControlCharacter(chars[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isControlCharacter(char c) {
+        return c < 0x20 || (this.is8Bit && c >= 0x80 && c <= 0x9F);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 Pavel Kastornyy.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pk.ansi4j.core.vector;
+
+import java.util.ArrayList;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Test;
+import pk.ansi4j.core.api.ControlCharacterScanner;
+import pk.ansi4j.core.api.Environment;
+
+/**
+ *
+ * @author Pavel Kastornyy
+ */
+public class VectorControlCharacterScannerTest {
+
+    private static final String ALPHABET = "abc \u001b\n\u0007\u0080\u0085\u009b\u009f é中😀";
+
+    @Test
+    public void indexOfControlCharacter_7Bit_sameAsScalar() {
+        this.checkSameAsScalar(Environment._7_BIT);
+    }
+
+    @Test
+    public void indexOfControlCharacter_8Bit_sameAsScalar() {
+        this.checkSameAsScalar(Environment._8_BIT);
+    }
+
+    @Test
+    public void indexOfControlCharacter_longText_success() {
+        var scanner = new VectorControlCharacterScanner();
+        scanner.initialize(Environment._7_BIT);
+        var text = "a".repeat(100000) + "\u001b[1m" + "b".repeat(100);
+        assertThat(scanner.indexOfControlCharacter(text, 0, text.length()), equalTo(100000));
+        assertThat(scanner.indexOfControlCharacter(text, 0, 100000), equalTo(-1));
+        assertThat(scanner.indexOfControlCharacter(text, 100001, text.length()), equalTo(-1));
+        assertThat(scanner.indexOfControlCharacter(new StringBuilder(text), 5, text.length()),
+                equalTo(100000));
+    }
+
+    @Test
+    public void indexOfControlCharacter_notString_scalarScannerUsed() {
+        var environments = new ArrayList<Environment>();
+        var scalarScanner = new ControlCharacterScanner() {
+
+            @Override
+            public int indexOfControlCharacter(CharSequence text, int startIndex, int endIndex) {
+                return 42;
+            }
+
+            @Override
+            public void initialize(Environment environment) {
+                environments.add(environment);
+            }
+        };
+        var scanner = new VectorControlCharacterScanner(scalarScanner);
+        scanner.initialize(Environment._8_BIT);
+        assertThat(environments, contains(Environment._8_BIT));
+        var text = "a".repeat(1000) + "\u001b[1m";
+        assertThat(scanner.indexOfControlCharacter(new StringBuilder(text), 0, text.length()), equalTo(42));
+        //strings are checked by this scanner
+        assertThat(scanner.indexOfControlCharacter(text, 0, text.length()), equalTo(1000));
+    }
+
+    private void checkSameAsScalar(Environment environment) {
+        var scanner = new VectorControlCharacterScanner();
+        scanner.initialize(environment);
+        var random = new Random(42);
+        for (var i = 0; i < 2000; i++) {
+            var builder = new StringBuilder();
+            var length = random.nextInt(1000);
+            //most characters are text
+            for (var j = 0; j < length; j++) {
+                if (random.nextInt(200) == 0) {
+                    builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                } else {
+                    builder.append('x');
+                }
+            }
+            var text = builder.toString();
+            var startIndex = text.isEmpty() ? 0 : random.nextInt(text.length());
+            var endIndex = startIndex + random.nextInt(text.length() - startIndex + 1);
+            assertThat(text, scanner.indexOfControlCharacter(text, startIndex, endIndex),
+                    equalTo(indexOfControlCharacter(text, startIndex, endIndex, environment)));
+        }
+    }
+
+    private static int indexOfControlCharacter(String text, int startIndex, int endIndex, Environment environment) {
+        for (var i = startIndex; i < endIndex; i++) {
+            var c = text.charAt(i);
+            if (c < 0x20 || (environment == Environment._8_BIT && c >= 0x80 && c <= 0x9F)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}